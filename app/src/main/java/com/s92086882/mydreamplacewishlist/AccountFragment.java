@@ -104,7 +104,8 @@ public class AccountFragment extends Fragment {
             // 1. Set isGuest back to true
             prefs.edit().putBoolean("isGuest", true).apply();
 
-            // 2. Sign out from Firebase
+            // 2. Sign out from Firebase (after detaching the session's place listener)
+            FirestorePlaceSync.getInstance().stop();
             FirebaseAuth.getInstance().signOut();
 
             // 3. Sign out from Google if used
@@ -1,10 +1,8 @@
 package com.s92086882.mydreamplacewishlist;
 
 import android.Manifest;
-import android.content.ContentValues;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.database.sqlite.SQLiteDatabase;
 import android.location.Location;
 import android.location.LocationManager;
 import android.net.Uri;
@@ -49,6 +47,7 @@ import java.util.UUID;
  * - Allows attaching multiple photos (stored locally or uploaded to Firebase).
  * - Lets user pick location manually (via MapPickerActivity) or use current location.
  * - Saves data into SQLite (guest users) or Firestore + Storage (logged-in users).
+ * - Photo copies and the SQLite insert run on background threads (DreamPlaceExecutors).
  */
 
 public class AddDreamPlaceActivity extends AppCompatActivity {
@@ -62,6 +61,7 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
     // Stores selected photo URIs (local copies)
     private List<Uri> photoUris = new ArrayList<>();
     private PhotoAdapter photoAdapter;
+    private int pendingPhotoCopies = 0; // picked photos still being copied in the background
 
     // Firebase objects for logged-in user mode
     private FirebaseAuth mAuth;
@@ -223,24 +223,17 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
         super.onActivityResult(requestCode, resultCode, data);
 
         // Multiple or single photo selection
-        if (requestCode == PICK_IMAGES_REQUEST && resultCode == RESULT_OK) {
+        if (requestCode == PICK_IMAGES_REQUEST && resultCode == RESULT_OK && data != null) {
+            List<Uri> sourceUris = new ArrayList<>();
             if (data.getClipData() != null) {
                 int count = data.getClipData().getItemCount();
                 for (int i = 0; i < count; i++) {
-                    Uri sourceUri = data.getClipData().getItemAt(i).getUri();
-                    Uri localUri = copyToInternalStorage(sourceUri);
-                    if (localUri != null) {
-                        photoUris.add(localUri);
-                    }
+                    sourceUris.add(data.getClipData().getItemAt(i).getUri());
                 }
             } else if (data.getData() != null) {
-                Uri sourceUri = data.getData();
-                Uri localUri = copyToInternalStorage(sourceUri);
-                if (localUri != null) {
-                    photoUris.add(localUri);
-                }
+                sourceUris.add(data.getData());
             }
-            photoAdapter.notifyDataSetChanged();
+            copyPhotosInBackground(sourceUris);
         }
 
         // Location picked from map
@@ -255,10 +248,38 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
         }
     }
 
-    /** Copy selected photo from external content URI into app's internal storage */
-    private Uri copyToInternalStorage(Uri sourceUri) {
+    /** Copy picked photos on a reader thread, then append them to the gallery in pick order */
+    private void copyPhotosInBackground(List<Uri> sourceUris) {
+        if (sourceUris.isEmpty()) return;
+        pendingPhotoCopies++;
+        DreamPlaceExecutors.getInstance().read(this, () -> {
+            List<Uri> localUris = new ArrayList<>();
+            for (int i = 0; i < sourceUris.size(); i++) {
+                Uri localUri = copyToInternalStorage(sourceUris.get(i), i);
+                if (localUri != null) localUris.add(localUri);
+            }
+            return localUris;
+        }, localUris -> {
+            pendingPhotoCopies--;
+            if (localUris.size() < sourceUris.size()) {
+                Toast.makeText(this, "Failed to copy image", Toast.LENGTH_SHORT).show();
+            }
+            int start = photoUris.size();
+            photoUris.addAll(localUris);
+            photoAdapter.notifyItemRangeInserted(start, localUris.size());
+        }, error -> {
+            pendingPhotoCopies--; // otherwise saving stays blocked on a copy that never lands
+            Toast.makeText(this, "Failed to copy image", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    /**
+     * Copy selected photo from external content URI into app's internal storage.
+     * Runs on a background thread, so failures are reported by returning null.
+     */
+    private Uri copyToInternalStorage(Uri sourceUri, int index) {
         try {
-            String filename = "img_" + System.currentTimeMillis() + ".jpg";
+            String filename = "img_" + System.currentTimeMillis() + "_" + index + ".jpg";
             File file = new File(getFilesDir(), filename);
 
             try (InputStream in = getContentResolver().openInputStream(sourceUri);
@@ -275,7 +296,6 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
 
         } catch (Exception e) {
             e.printStackTrace();
-            Toast.makeText(this, "Failed to copy image", Toast.LENGTH_SHORT).show();
             return null;
         }
     }
@@ -290,6 +310,10 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
             Toast.makeText(this, "Name and City are required", Toast.LENGTH_SHORT).show();
             return;
         }
+        if (pendingPhotoCopies > 0) {
+            Toast.makeText(this, "Photos are still being added", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
         if (isGuest) {
             saveToSQLite(name, city, notes, photoUris);
@@ -298,39 +322,37 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
         }
     }
 
-    /** Save Dream Place into SQLite (guest mode) */
+    /** Save Dream Place into SQLite (guest mode) on the writer thread */
     private void saveToSQLite(String name, String city, String notes, List<Uri> photos) {
-        DreamPlaceSQLiteHelper dbHelper = new DreamPlaceSQLiteHelper(this);
-        SQLiteDatabase db = dbHelper.getWritableDatabase();
-
-        ContentValues values = new ContentValues();
-        values.put(DreamPlaceSQLiteHelper.COLUMN_NAME, name);
-        values.put(DreamPlaceSQLiteHelper.COLUMN_CITY, city);
-        values.put(DreamPlaceSQLiteHelper.COLUMN_NOTES, notes);
-        values.put(DreamPlaceSQLiteHelper.COLUMN_LAT, selectedLat);
-        values.put(DreamPlaceSQLiteHelper.COLUMN_LNG, selectedLng);
-        values.put(DreamPlaceSQLiteHelper.COLUMN_PHOTOS, joinUris(photos));
-        values.put(DreamPlaceSQLiteHelper.COLUMN_VISITED, 0);
-        values.put(DreamPlaceSQLiteHelper.COLUMN_RATING, 0f);
-
-        long result = db.insert(DreamPlaceSQLiteHelper.TABLE_NAME, null, values);
-        db.close();
-
-        if (result != -1) {
-            Toast.makeText(this, "Saved locally (guest)", Toast.LENGTH_SHORT).show();
-            finish();
-        } else {
+        DreamPlaceSQLiteHelper dbHelper = DreamPlaceSQLiteHelper.getInstance(this);
+
+        // Insert through the helper so the precomputed distance columns and geohash are filled in
+        DreamPlace place = new DreamPlace(toStringList(photos), name, city, Double.NaN, false, 0f,
+                selectedLat, selectedLng, notes);
+        final double lat = selectedLat, lng = selectedLng;
+        addPlaceButton.setEnabled(false); // no duplicate inserts while the write is queued
+
+        DreamPlaceExecutors.getInstance().write(this, () -> dbHelper.addDreamPlace(place, lat, lng), result -> {
+            if (result != -1) {
+                Toast.makeText(this, "Saved locally (guest)", Toast.LENGTH_SHORT).show();
+                finish();
+            } else {
+                addPlaceButton.setEnabled(true);
+                Toast.makeText(this, "Save failed", Toast.LENGTH_SHORT).show();
+            }
+        }, error -> {
+            addPlaceButton.setEnabled(true);
             Toast.makeText(this, "Save failed", Toast.LENGTH_SHORT).show();
-        }
+        });
     }
 
-    /** Join multiple photo URIs into one string for SQLite */
-    private String joinUris(List<Uri> uris) {
+    /** Convert photo URIs to their string form for SQLite */
+    private List<String> toStringList(List<Uri> uris) {
         List<String> strUris = new ArrayList<>();
         for (Uri uri : uris) {
             strUris.add(uri.toString());
         }
-        return TextUtils.join(",", strUris);
+        return strUris;
     }
 
     /** Save Dream Place into Firestore + upload photos to Firebase Storage */
@@ -344,6 +366,7 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
         data.put("notes", notes);
         data.put("latitude", selectedLat);
         data.put("longitude", selectedLng);
+        data.put(FirestoreGeoQueries.FIELD_GEOHASH, Geohash.encode(selectedLat, selectedLng)); // nearby queries
         data.put("visited", false);
         data.put("rating", 0);
         data.put("timestamp", System.currentTimeMillis());
@@ -384,6 +407,7 @@ public class AddDreamPlaceActivity extends AppCompatActivity {
                 .collection("dream_places").document(docId)
                 .set(data)
                 .addOnSuccessListener(unused -> {
+                    // Open screens already got the new place from the snapshot listener (FirestorePlaceSync)
                     Toast.makeText(this, "Dream place added", Toast.LENGTH_SHORT).show();
                     finish();
                 })
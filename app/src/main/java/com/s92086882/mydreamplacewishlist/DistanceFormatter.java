@@ -0,0 +1,38 @@
+package com.s92086882.mydreamplacewishlist;
+
+/**
+ * Formats distances for list rows without allocating per call.
+ * -
+ * Responsibilities:
+ * - Under 1 km: whole meters ("850 m away"); otherwise kilometers with one decimal ("2.5 km away").
+ * - Writes into a caller-owned char[] that TextView.setText(char[], int, int) can display directly.
+ * -
+ * Notes:
+ * - Reuses one StringBuilder, so an instance must stay on one thread (the adapter's, i.e. main).
+ */
+public final class DistanceFormatter {
+
+    // Longest output is a 13-digit km value + ".9 km away"; anything beyond is clipped
+    public static final int MAX_LENGTH = 24;
+
+    private final StringBuilder builder = new StringBuilder(MAX_LENGTH);
+
+    /**
+     * Format meters into target.
+     * @return number of chars written (0 if the distance is unknown, i.e. NaN)
+     */
+    public int format(double meters, char[] target) {
+        if (Double.isNaN(meters)) return 0;
+        builder.setLength(0);
+        long wholeMeters = Math.round(meters);
+        if (wholeMeters < 1000) { // unit picked after rounding: 999.6 m is "1.0 km", not "1000 m"
+            builder.append(wholeMeters).append(" m away");
+        } else {
+            long tenths = Math.round(meters / 100.0); // km × 10, rounded half up
+            builder.append(tenths / 10).append('.').append(tenths % 10).append(" km away");
+        }
+        int length = Math.min(builder.length(), target.length);
+        builder.getChars(0, length, target, 0);
+        return length;
+    }
+}
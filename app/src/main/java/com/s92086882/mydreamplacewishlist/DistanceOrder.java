@@ -0,0 +1,124 @@
+package com.s92086882.mydreamplacewishlist;
+
+import androidx.annotation.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Edits on a list of shown rows kept nearest first, each reported so an adapter can animate it.
+ * -
+ * Responsibilities:
+ * - repairOrder(): insertion-sort pass after distances changed or rows were appended.
+ * - insertionPoint(): where a row at a given distance belongs.
+ * - patch(): takes deleted and changed rows out and re-inserts the changed ones at their rank.
+ * - appendNearest(): the next page of a nearest-first walk over a PlaceSpatialIndex.
+ * -
+ * Notes:
+ * - Rows without a distance (NaN) sort after every other row, as Double.compare orders them.
+ * - Home keeps its pages in order with these; Search places patched guest rows with patch().
+ */
+final class DistanceOrder {
+
+    /** Receives every edit in the order it was made (adapter notifyItem* calls in the app). */
+    interface Listener {
+        void onInserted(int position);
+
+        void onRemoved(int position);
+
+        void onMoved(int from, int to);
+    }
+
+    /** For lists no adapter is watching. */
+    static final Listener IGNORE = new Listener() {
+        @Override public void onInserted(int position) {}
+        @Override public void onRemoved(int position) {}
+        @Override public void onMoved(int from, int to) {}
+    };
+
+    private DistanceOrder() {}
+
+    /**
+     * Insertion-sort pass by distance starting at row from (rows before it must already be in order).
+     * - Nearly sorted input costs O(n + moves); each displaced row becomes one move.
+     * - Stable, so rows at equal distance keep their current order.
+     */
+    static void repairOrder(List<DreamPlace> rows, int from, Listener listener) {
+        for (int i = Math.max(1, from); i < rows.size(); i++) {
+            DreamPlace place = rows.get(i);
+            double distance = place.getDistanceMeters();
+            int target = i;
+            while (target > 0 && Double.compare(rows.get(target - 1).getDistanceMeters(), distance) > 0) {
+                target--;
+            }
+            if (target == i) continue;
+            rows.remove(i);
+            rows.add(target, place);
+            listener.onMoved(i, target);
+        }
+    }
+
+    /** First index whose row is farther than distanceMeters (rows must be in distance order). */
+    static int insertionPoint(List<DreamPlace> rows, double distanceMeters) {
+        int low = 0, high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Double.compare(rows.get(mid).getDistanceMeters(), distanceMeters) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Apply a change set to rows in distance order.
+     * - Deleted and changed rows are taken out; each changed row is re-inserted at its distance rank.
+     * - With hasMore, a changed row ranking past the last row is left out: it belongs to a page that
+     *   is not loaded yet, and paging picks it up.
+     * @param changed changed rows, already carrying this list's distances (copies of shared rows)
+     * @return how many rows the list grew by (negative when it shrank)
+     */
+    static int patch(List<DreamPlace> rows, List<DreamPlace> changed, Set<String> deletedIds,
+                     boolean hasMore, Listener listener) {
+        int before = rows.size();
+        Set<String> changedIds = new HashSet<>();
+        for (DreamPlace place : changed) changedIds.add(place.getId());
+
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            String id = rows.get(i).getId();
+            if (!deletedIds.contains(id) && !changedIds.contains(id)) continue;
+            rows.remove(i);
+            listener.onRemoved(i);
+        }
+
+        for (DreamPlace place : changed) {
+            if (deletedIds.contains(place.getId())) continue;
+            int position = insertionPoint(rows, place.getDistanceMeters());
+            if (position == rows.size() && hasMore) continue;
+            rows.add(position, place);
+            listener.onInserted(position);
+        }
+        return rows.size() - before;
+    }
+
+    /**
+     * Append up to pageSize more places from a nearest-first walk, as copies carrying their distance
+     * from origin (NaN without one); places in skipIds are passed over, and appended ones added to it.
+     * - The caller repairs the order from the first appended row when origin moved since the walk began.
+     * @return the number of rows appended (fewer than pageSize once the walk is exhausted)
+     */
+    static int appendNearest(List<DreamPlace> rows, PlaceSpatialIndex.NearestIterator cursor,
+                             Set<String> skipIds, int pageSize, @Nullable GeoDistance.Origin origin) {
+        int start = rows.size();
+        while (rows.size() - start < pageSize && cursor.hasNext()) {
+            for (DreamPlace place : cursor.next(pageSize - (rows.size() - start))) {
+                if (!skipIds.add(place.getId())) continue;
+                // Index rows are shared between screens: append a copy with this list's distance
+                double distance = origin == null ? Double.NaN
+                        : GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude());
+                rows.add(place.withDistanceMeters(distance));
+            }
+        }
+        return rows.size() - start;
+    }
+}
@@ -1,6 +1,6 @@
 package com.s92086882.mydreamplacewishlist;
 
-import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -9,10 +9,10 @@ import java.util.List;
  * Responsibilities:
  * - Holds all properties for a "dream place" (name, city, notes, photos, etc.).
  * - Works as a transfer object for both SQLite (guest users) and Firestore (logged-in users).
- * - Implements Serializable → allows passing DreamPlace objects through Intents/Bundle between Activities.
+ * - Handed between screens by ID through PlaceStore (not serialized into Intents).
  */
 
-public class DreamPlace implements Serializable {
+public class DreamPlace {
 
     private String id; // Firestore document ID or SQLite row ID (converted to String for consistency)
 
@@ -29,14 +29,14 @@ public class DreamPlace implements Serializable {
     private float rating; // User’s personal rating (0–5 stars typically)
     private double latitude; // Stored for map integration
     private double longitude;
-    private String distance; // Pre-computed distance string (e.g., "2.5 km away")
+    private double distanceMeters = Double.NaN; // Distance from the user in meters; NaN = unknown (formatted by the adapter)
 
     /**
      * Full constructor:
      * - Used when creating new DreamPlace objects programmatically (e.g., after saving/fetching).
      * - Parameters include all core fields.
      */
-    public DreamPlace(List<String> photoPaths, String name, String city, String distance,
+    public DreamPlace(List<String> photoPaths, String name, String city, double distanceMeters,
                       boolean visited, float rating, double latitude, double longitude, String notes) {
         this.name = name;
         this.city = city;
@@ -46,7 +46,28 @@ public class DreamPlace implements Serializable {
         this.rating = rating;
         this.latitude = latitude;
         this.longitude = longitude;
-        this.distance = distance;
+        this.distanceMeters = distanceMeters;
+    }
+
+    /** Copy constructor: lets the detail screen edit without touching the shared PlaceStore entry. */
+    public DreamPlace(DreamPlace other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.city = other.city;
+        this.notes = other.notes;
+        this.photoPaths = other.photoPaths != null ? new ArrayList<>(other.photoPaths) : null;
+        this.visited = other.visited;
+        this.rating = other.rating;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.distanceMeters = other.distanceMeters;
+    }
+
+    /** Copy carrying a screen's own distance; rows of the shared index are never modified. */
+    public DreamPlace withDistanceMeters(double distanceMeters) {
+        DreamPlace copy = new DreamPlace(this);
+        copy.distanceMeters = distanceMeters;
+        return copy;
     }
 
     // ----- Getters -----
@@ -78,8 +99,8 @@ public class DreamPlace implements Serializable {
     public double getLongitude() {
         return longitude;
     }
-    public String getDistance() {
-        return distance;
+    public double getDistanceMeters() {
+        return distanceMeters;
     }
 
     // ----- Setters -----
@@ -111,7 +132,7 @@ public class DreamPlace implements Serializable {
     public void setLongitude(double longitude) {
         this.longitude = longitude;
     }
-    public void setDistance(String distance) {
-        this.distance = distance;
+    public void setDistanceMeters(double distanceMeters) {
+        this.distanceMeters = distanceMeters;
     }
 }
\ No newline at end of file
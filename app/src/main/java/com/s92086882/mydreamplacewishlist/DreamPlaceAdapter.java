@@ -9,6 +9,7 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
@@ -23,14 +24,21 @@ import java.util.List;
  * Responsibilities:
  * - Binds DreamPlace model objects to the RecyclerView (list/grid UI).
  * - Loads place photo, name, city, distance, visited tag, and rating.
+ * - Formats distance at bind time from the numeric field, into a per-row char buffer (no Strings).
+ * - Rebinds only the distance text for PAYLOAD_DISTANCE updates (live re-ranking).
  * - Handles item click events via a listener interface.
- * - Supports refreshing the dataset and removing items by ID (for swipe-to-delete).
+ * - Supports refreshing the dataset, applying precomputed diffs, and removing items by ID
+ *   (for swipe-to-delete).
  */
 public class DreamPlaceAdapter extends RecyclerView.Adapter<DreamPlaceAdapter.ViewHolder> {
 
+    // Change payload: only the distance changed, photo/name/tags stay as bound
+    public static final Object PAYLOAD_DISTANCE = new Object();
+
     private final Context context;
     private List<DreamPlace> dreamPlaceList;
     private final OnItemClickListener listener;
+    private final DistanceFormatter distanceFormatter = new DistanceFormatter();
 
     /**
      * Interface for click events on list items.
@@ -78,12 +86,7 @@ public class DreamPlaceAdapter extends RecyclerView.Adapter<DreamPlaceAdapter.Vi
         holder.textViewCity.setText(place.getCity());
 
         // Set distance text if available
-        if (place.getDistance() != null && !place.getDistance().isEmpty()) {
-            holder.textViewDistance.setText(place.getDistance());
-            holder.textViewDistance.setVisibility(View.VISIBLE);
-        } else {
-            holder.textViewDistance.setVisibility(View.GONE);
-        }
+        bindDistance(holder, place);
 
         // Show visited tag and rating if visited is true
         if (place.isVisited()) {
@@ -101,6 +104,33 @@ public class DreamPlaceAdapter extends RecyclerView.Adapter<DreamPlaceAdapter.Vi
         holder.itemView.setOnClickListener(v -> listener.onItemClick(place));
     }
 
+    /** Distance-only updates skip the photo load and the rest of the row */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && allDistancePayloads(payloads)) {
+            bindDistance(holder, dreamPlaceList.get(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private void bindDistance(ViewHolder holder, DreamPlace place) {
+        int distanceLength = distanceFormatter.format(place.getDistanceMeters(), holder.distanceChars);
+        if (distanceLength > 0) {
+            holder.textViewDistance.setText(holder.distanceChars, 0, distanceLength);
+            holder.textViewDistance.setVisibility(View.VISIBLE);
+        } else {
+            holder.textViewDistance.setVisibility(View.GONE);
+        }
+    }
+
+    private static boolean allDistancePayloads(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_DISTANCE) return false;
+        }
+        return true;
+    }
+
     /** Return number of items in list */
     @Override
     public int getItemCount() {
@@ -113,6 +143,12 @@ public class DreamPlaceAdapter extends RecyclerView.Adapter<DreamPlaceAdapter.Vi
         notifyDataSetChanged();
     }
 
+    /** Show a new list with updates precomputed off the main thread (SearchPipeline). */
+    public void applyDiff(List<DreamPlace> updatedList, DiffUtil.DiffResult diff) {
+        this.dreamPlaceList = updatedList;
+        diff.dispatchUpdatesTo(this);
+    }
+
     /**
      * Remove a place from the list using its Firestore document ID.
      * - Called after deleting item from Firestore/SQLite.
@@ -143,6 +179,8 @@ public class DreamPlaceAdapter extends RecyclerView.Adapter<DreamPlaceAdapter.Vi
         ImageView imageViewPlace, iconVisited, iconStar;
         TextView textViewPlaceName, textViewCity, textViewDistance, textViewVisited, textViewRating;
         View visitedContainer, ratingContainer;
+        // Owned by this row: TextView keeps a reference to the array it was given
+        final char[] distanceChars = new char[DistanceFormatter.MAX_LENGTH];
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -0,0 +1,34 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.app.Application;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
+
+/**
+ * Application entry point: process-wide setup that must run before any screen.
+ * -
+ * Responsibilities:
+ * - Configures Firestore's persistent (on-disk) cache explicitly, so logged-in lists can be
+ *   rendered from the cache on a cold start (FirestorePlaceSync) and survive going offline.
+ * -
+ * Notes:
+ * - Firestore settings can only be set before the first Firestore call, hence here.
+ */
+public class DreamPlaceApplication extends Application {
+
+    // Place documents are small (photos live in Storage); this holds many thousands of them
+    // while keeping the app's disk use well below Firestore's 100 MB default
+    public static final long FIRESTORE_CACHE_SIZE_BYTES = 40L * 1024 * 1024;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        FirebaseFirestore.getInstance().setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                        .setSizeBytes(FIRESTORE_CACHE_SIZE_BYTES)
+                        .build())
+                .build());
+    }
+}
@@ -0,0 +1,165 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background threads for SQLite and file I/O, shared app-wide.
+ * -
+ * Responsibilities:
+ * - One writer thread: all local writes run there, one at a time, in submission order.
+ * - Keyed writes coalesce: a queued write for the same key is dropped when a newer one arrives,
+ *   and the newer one runs in its own (later) queue slot, so submission order still holds.
+ * - A small, bounded reader pool for queries and file copies (WAL lets reads run beside the writer).
+ * - Results, and failures (ErrorCallback), are posted to the main thread and dropped if the
+ *   screen was destroyed meanwhile.
+ * -
+ * Notes:
+ * - Only use keyed writes for full-state writes (e.g. updateDreamPlace), where the latest one wins:
+ *   writes queued between a dropped write and its replacement run without the dropped one.
+ * - Callbacks run on the main thread; never touch views from the Callable itself.
+ */
+public final class DreamPlaceExecutors {
+
+    private static final String TAG = "DreamPlaceExecutors";
+
+    // Enough to overlap a list page, a map query and a search without starving low-end CPUs
+    private static final int READER_THREADS =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /** Receives a background result on the main thread. */
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    /** Receives a background failure on the main thread (already logged), e.g. to clear a loading flag. */
+    public interface ErrorCallback {
+        void onError(Exception error);
+    }
+
+    private static DreamPlaceExecutors instance;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(namedThreads("dreamplace-writer"));
+    private final ThreadPoolExecutor readers;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Newest queued write per key; an older slot whose token is no longer here skips its write
+    private final Map<String, Object> pendingWrites = new HashMap<>();
+
+    private DreamPlaceExecutors() {
+        readers = new ThreadPoolExecutor(READER_THREADS, READER_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), namedThreads("dreamplace-reader"));
+        readers.allowCoreThreadTimeOut(true); // no idle threads when the app is not reading
+    }
+
+    public static synchronized DreamPlaceExecutors getInstance() {
+        if (instance == null) instance = new DreamPlaceExecutors();
+        return instance;
+    }
+
+    // ----- Writes -----
+
+    /** Queue a write; it runs after every write submitted before it. */
+    public void write(Runnable task) {
+        writer.execute(() -> runLogged(task));
+    }
+
+    /**
+     * Queue a write that supersedes any not-yet-started write with the same key.
+     * - e.g. key "update:42": saving place 42 twice quickly writes it once, with the newest values.
+     * - The write is queued at the tail like any other; the superseded one is skipped when its
+     *   slot comes up, so nothing submitted earlier is overtaken.
+     */
+    public void write(String key, Runnable task) {
+        final Object token = new Object();
+        synchronized (pendingWrites) {
+            pendingWrites.put(key, token);
+        }
+        writer.execute(() -> {
+            synchronized (pendingWrites) {
+                if (pendingWrites.get(key) != token) return; // a newer write for key is queued behind
+                pendingWrites.remove(key);
+            }
+            runLogged(task);
+        });
+    }
+
+    /** Queue a write and deliver its result to the owner (if still alive) on the main thread. */
+    public <T> void write(LifecycleOwner owner, Callable<T> task, Callback<T> callback) {
+        write(owner, task, callback, null);
+    }
+
+    /** Same as write(owner, task, callback), but a failure is delivered to onError instead of only logged. */
+    public <T> void write(LifecycleOwner owner, Callable<T> task, Callback<T> callback,
+                          @Nullable ErrorCallback onError) {
+        writer.execute(() -> deliver(owner, task, callback, onError));
+    }
+
+    // ----- Reads -----
+
+    /** Run a query (or file copy) on the reader pool and deliver the result on the main thread. */
+    public <T> void read(LifecycleOwner owner, Callable<T> task, Callback<T> callback) {
+        read(owner, task, callback, null);
+    }
+
+    /** Same as read(owner, task, callback), but a failure is delivered to onError instead of only logged. */
+    public <T> void read(LifecycleOwner owner, Callable<T> task, Callback<T> callback,
+                         @Nullable ErrorCallback onError) {
+        readers.execute(() -> deliver(owner, task, callback, onError));
+    }
+
+    // ----- Internals -----
+
+    /** Run a task and post its result (or failure, if onError is set), unless the owner is gone by then. */
+    private <T> void deliver(LifecycleOwner owner, Callable<T> task, Callback<T> callback,
+                             @Nullable ErrorCallback onError) {
+        final T result;
+        try {
+            result = task.call();
+        } catch (Exception e) {
+            Log.e(TAG, "Background task failed", e);
+            if (onError != null) postIfAlive(owner, () -> onError.onError(e));
+            return;
+        }
+        postIfAlive(owner, () -> callback.onResult(result));
+    }
+
+    private void postIfAlive(LifecycleOwner owner, Runnable action) {
+        mainHandler.post(() -> {
+            if (owner.getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.CREATED)) action.run();
+        });
+    }
+
+    private static void runLogged(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Background write failed", e); // keep the writer thread alive for later writes
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1); // below the UI thread
+            return thread;
+        };
+    }
+}
@@ -3,14 +3,34 @@ package com.s92086882.mydreamplacewishlist;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
-import android.location.Location;
+import android.database.sqlite.SQLiteStatement;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.CancellationSignal;
 import android.text.TextUtils;
+import android.util.Log;
 
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * SQLite helper class for managing Dream Place data when user is in Guest mode.
@@ -19,13 +39,32 @@ import java.util.List;
  * - Creates and manages the local SQLite database schema.
  * - Provides CRUD operations (Create, Read, Update, Delete).
  * - Handles conversion of DreamPlace model objects to/from SQLite rows.
- * - Stores photos as a comma-separated list of URIs.
+ * - Stores photos in a place_photos child table (one row per photo, ordered by position).
+ * - Keeps precomputed sin/cos of lat/lng per row so distance ordering runs inside SQLite.
+ * - Mirrors lat/lng into an R*Tree (places_rtree) for viewport and radius queries.
+ * - Stores a geohash per row (same key as Firestore documents); radius queries fall back to
+ *   geohash prefix-range scans when the R*Tree module is missing.
+ * - Mirrors name/city/notes into a full-text index (places_fts) for ranked prefix search.
+ * - Indexes live rows by visited/rating so Search filters (PlaceFilter) are range scans.
+ * - Deletes are tombstones (deleted_at) so Undo is a cheap update; purgeDeleted() removes them in batches.
+ * -
+ * Connection handling:
+ * - One process-wide instance (getInstance) keeps the database open for the app's lifetime.
+ * - Write-ahead logging lets readers run concurrently with the single writer.
+ * - Writes hold the helper's lock only for their transaction and reuse precompiled insert statements;
+ *   photo file headers are read before the lock is taken (PhotoRow.probe).
+ * - Every committed write reports the touched row IDs to the PlaceInvalidationTracker.
  */
 public class DreamPlaceSQLiteHelper extends SQLiteOpenHelper {
 
+    private static final String TAG = "DreamPlaceSQLiteHelper";
+
     // ----- Database metadata -----
     private static final String DATABASE_NAME = "dream_places.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 9;
+
+    // Mean Earth radius (IUGG) used for spherical distance
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
 
     // ----- Table and column names -----
     public static final String TABLE_NAME = "places";
@@ -35,13 +74,134 @@ public class DreamPlaceSQLiteHelper extends SQLiteOpenHelper {
     public static final String COLUMN_NOTES = "notes";
     public static final String COLUMN_LAT = "latitude";
     public static final String COLUMN_LNG = "longitude";
-    public static final String COLUMN_PHOTOS = "photos"; // Stored as comma-separated string
+    public static final String COLUMN_PHOTOS = "photos"; // Legacy comma-separated list (pre-v5, no longer written)
     public static final String COLUMN_VISITED = "visited"; // 0 = false, 1 = true
     public static final String COLUMN_RATING = "rating"; // float value
+    public static final String COLUMN_DELETED_AT = "deleted_at"; // epoch millis of soft delete, NULL = live
+    public static final String COLUMN_GEOHASH = "geohash"; // Geohash.PRECISION chars, indexed for range scans
+
+    // Every read filters out tombstoned rows
+    private static final String LIVE_ROWS = COLUMN_DELETED_AT + " IS NULL";
+
+    // Tombstones younger than this are kept so a late Undo still works
+    public static final long TOMBSTONE_GRACE_MILLIS = 60_000;
+
+    // Precomputed trig columns (radians) → lets ORDER BY use the spherical law of cosines
+    public static final String COLUMN_SIN_LAT = "sin_lat";
+    public static final String COLUMN_COS_LAT = "cos_lat";
+    public static final String COLUMN_SIN_LNG = "sin_lng";
+    public static final String COLUMN_COS_LNG = "cos_lng";
+
+    // Alias of the computed cos(central angle) column in distance queries
+    private static final String COLUMN_DIST_SCORE = "dist_score";
+
+    // ----- Photo child table (one row per photo; position 0 = cover) -----
+    public static final String PHOTOS_TABLE_NAME = "place_photos";
+    public static final String COLUMN_PHOTO_ID = "photo_id";
+    public static final String COLUMN_PHOTO_PLACE_ID = "place_id";
+    public static final String COLUMN_PHOTO_POSITION = "position";
+    public static final String COLUMN_PHOTO_URI = "uri";
+    public static final String COLUMN_PHOTO_WIDTH = "width";
+    public static final String COLUMN_PHOTO_HEIGHT = "height";
+    public static final String COLUMN_PHOTO_BYTES = "bytes";
+
+    // Alias of the cover photo column in list queries
+    private static final String COLUMN_COVER_PHOTO = "cover_photo";
+
+    // Summary projection for lists and markers: no notes, no legacy photos, no trig columns
+    private static final String SUMMARY_COLUMNS = COLUMN_ID + ", " + COLUMN_NAME + ", " + COLUMN_CITY + ", " +
+            COLUMN_LAT + ", " + COLUMN_LNG + ", " + COLUMN_VISITED + ", " + COLUMN_RATING;
+
+    // Base list query: summary columns plus the cover photo
+    private static final String SELECT_SUMMARIES = "SELECT " + SUMMARY_COLUMNS + ", " +
+            coverPhotoColumn(TABLE_NAME + "." + COLUMN_ID) + " FROM " + TABLE_NAME;
+
+    // R*Tree spatial index mirroring latitude/longitude (kept in sync by triggers)
+    public static final String RTREE_TABLE_NAME = "places_rtree";
+
+    // Full-text index over name/city/notes (external content = places, kept in sync by triggers)
+    public static final String FTS_TABLE_NAME = "places_fts";
+
+    // BM25 tuning and per-column weights for full-text ranking (name, city, notes)
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final double[] FTS_COLUMN_WEIGHTS = {3.0, 2.0, 1.0};
+
+    // Not every SQLite build ships the R*Tree/FTS modules; null = not checked yet
+    private Boolean spatialIndexAvailable;
+    private Boolean fullTextIndexAvailable;
+
+    // Process-wide instance; the database stays open instead of open/close per call
+    private static DreamPlaceSQLiteHelper instance;
+
+    // Hot-path statements compiled once and reused (guarded by the helper's lock)
+    private SQLiteStatement insertPlaceStatement;
+    private SQLiteStatement updatePlaceStatement;
+    private SQLiteStatement insertPhotoStatement;
+
+    // Notifies open screens about the rows each write changed
+    private final PlaceInvalidationTracker invalidationTracker = new PlaceInvalidationTracker();
 
-    // ----- Constructor -----
-    public DreamPlaceSQLiteHelper(Context context) {
+    // Rows written per transaction by the batch APIs unless the caller picks another size
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Progress callback for batch writes; invoked on the writing thread after each committed batch. */
+    public interface BatchProgressListener {
+        void onBatchCommitted(int done, int total);
+    }
+
+    private static final String INSERT_PLACE_SQL = "INSERT INTO " + TABLE_NAME + " (" +
+            COLUMN_NAME + ", " + COLUMN_CITY + ", " + COLUMN_NOTES + ", " + COLUMN_LAT + ", " + COLUMN_LNG + ", " +
+            COLUMN_SIN_LAT + ", " + COLUMN_COS_LAT + ", " + COLUMN_SIN_LNG + ", " + COLUMN_COS_LNG + ", " +
+            COLUMN_VISITED + ", " + COLUMN_RATING + ", " + COLUMN_GEOHASH + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_PLACE_SQL = "UPDATE " + TABLE_NAME + " SET " +
+            COLUMN_NAME + "=?, " + COLUMN_CITY + "=?, " + COLUMN_NOTES + "=?, " + COLUMN_LAT + "=?, " + COLUMN_LNG + "=?, " +
+            COLUMN_SIN_LAT + "=?, " + COLUMN_COS_LAT + "=?, " + COLUMN_SIN_LNG + "=?, " + COLUMN_COS_LNG + "=?, " +
+            COLUMN_VISITED + "=?, " + COLUMN_RATING + "=?, " + COLUMN_GEOHASH + "=? WHERE " + COLUMN_ID + "=? AND " + LIVE_ROWS;
+    private static final String INSERT_PHOTO_SQL = "INSERT INTO " + PHOTOS_TABLE_NAME + " (" +
+            COLUMN_PHOTO_PLACE_ID + ", " + COLUMN_PHOTO_POSITION + ", " + COLUMN_PHOTO_URI + ", " +
+            COLUMN_PHOTO_WIDTH + ", " + COLUMN_PHOTO_HEIGHT + ", " + COLUMN_PHOTO_BYTES + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+    /** Returns the shared helper (bound to the application context). */
+    public static synchronized DreamPlaceSQLiteHelper getInstance(Context context) {
+        if (instance == null) instance = new DreamPlaceSQLiteHelper(context.getApplicationContext());
+        return instance;
+    }
+
+    /** Close and drop the shared helper so the next getInstance opens the database again (tests only). */
+    @VisibleForTesting
+    static synchronized void resetInstance() {
+        if (instance != null) instance.close();
+        instance = null;
+    }
+
+    // ----- Constructor (use getInstance) -----
+    private DreamPlaceSQLiteHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    /** Observers registered here receive the rows changed by each committed write. */
+    public PlaceInvalidationTracker getInvalidationTracker() {
+        return invalidationTracker;
+    }
+
+    /**
+     * Report a committed write: changed rows are re-read as list rows, deleted IDs passed through.
+     * Skips the re-read entirely when nobody is observing.
+     */
+    private void notifyPlacesChanged(Collection<String> changedIds, Collection<String> deletedIds) {
+        if (!invalidationTracker.hasObservers()) return;
+        List<DreamPlace> changed = new ArrayList<>();
+        if (!changedIds.isEmpty()) {
+            SQLiteDatabase db = this.getReadableDatabase();
+            try (Cursor cursor = db.rawQuery(SELECT_SUMMARIES + " WHERE " + LIVE_ROWS + " AND " + COLUMN_ID + " IN (" +
+                    TextUtils.join(",", changedIds) + ")", null)) {
+                SummaryColumns columns = new SummaryColumns(cursor);
+                while (cursor.moveToNext()) changed.add(cursorToPlace(cursor, columns));
+            }
+        }
+        invalidationTracker.dispatch(changed, new HashSet<>(deletedIds));
     }
 
     // ----- Create table schema -----
@@ -56,179 +216,1150 @@ public class DreamPlaceSQLiteHelper extends SQLiteOpenHelper {
                 COLUMN_LNG + " REAL, " +
                 COLUMN_PHOTOS + " TEXT, " +
                 COLUMN_VISITED + " INTEGER, " +
-                COLUMN_RATING + " REAL)";
+                COLUMN_RATING + " REAL, " +
+                COLUMN_SIN_LAT + " REAL, " +
+                COLUMN_COS_LAT + " REAL, " +
+                COLUMN_SIN_LNG + " REAL, " +
+                COLUMN_COS_LNG + " REAL, " +
+                COLUMN_DELETED_AT + " INTEGER, " +
+                COLUMN_GEOHASH + " TEXT)";
         db.execSQL(query);
+        createDistanceIndexes(db);
+        createGeohashIndex(db);
+        createTombstoneIndex(db);
+        createFilterIndexes(db);
+        createSpatialIndex(db);
+        createFullTextIndex(db);
+        createPhotosTable(db);
     }
 
     // ----- Handle schema upgrades -----
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Simple strategy: drop table and recreate
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
-        onCreate(db);
+        // Migrate step by step so guest wishlists survive app updates
+        if (oldVersion < 2) migrateToV2(db);
+        if (oldVersion < 3) createSpatialIndex(db);
+        if (oldVersion < 4) createFullTextIndex(db);
+        if (oldVersion < 5) migrateToV5(db);
+        if (oldVersion < 6) migrateToV6(db);
+        if (oldVersion < 7) migrateToV7(db);
+        if (oldVersion < 8) createFilterIndexes(db);
+        // v9: the trig-column index could not serve ORDER BY on the computed score, it only cost writes
+        if (oldVersion < 9) db.execSQL("DROP INDEX IF EXISTS idx_places_trig");
     }
 
-    // ----- Insert new dream place into database -----
-    public void addDreamPlace(DreamPlace place, double lat, double lng) {
+    /** v2: add trig columns, backfill them from existing lat/lng and index them. */
+    private void migrateToV2(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_SIN_LAT + " REAL");
+        db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_COS_LAT + " REAL");
+        db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_SIN_LNG + " REAL");
+        db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_COS_LNG + " REAL");
+
+        // SQLite on Android has no sin()/cos(), so the backfill is done row by row in Java
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_NAME + " SET " +
+                COLUMN_SIN_LAT + "=?, " + COLUMN_COS_LAT + "=?, " +
+                COLUMN_SIN_LNG + "=?, " + COLUMN_COS_LNG + "=? WHERE " + COLUMN_ID + "=?");
+        try (Cursor cursor = db.query(TABLE_NAME, new String[]{COLUMN_ID, COLUMN_LAT, COLUMN_LNG},
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                double latRad = Math.toRadians(cursor.getDouble(1));
+                double lngRad = Math.toRadians(cursor.getDouble(2));
+                update.bindDouble(1, Math.sin(latRad));
+                update.bindDouble(2, Math.cos(latRad));
+                update.bindDouble(3, Math.sin(lngRad));
+                update.bindDouble(4, Math.cos(lngRad));
+                update.bindLong(5, cursor.getLong(0));
+                update.executeUpdateDelete();
+            }
+        } finally {
+            update.close();
+        }
+        createDistanceIndexes(db);
+    }
+
+    /** Indexes used by the bounding-box prefilter of distance queries. */
+    private void createDistanceIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_places_lat ON " + TABLE_NAME + "(" + COLUMN_LAT + ")");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_places_lng ON " + TABLE_NAME + "(" + COLUMN_LNG + ")");
+    }
+
+    /**
+     * v3: R*Tree mirror of latitude/longitude, backfilled from existing rows.
+     * - Each place is stored as a degenerate box (min == max).
+     * - Triggers keep it in sync on insert, update and delete.
+     * - If the R*Tree module is missing, queries fall back to the lat/lng indexes.
+     */
+    private void createSpatialIndex(SQLiteDatabase db) {
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + RTREE_TABLE_NAME +
+                    " USING rtree(id, min_lat, max_lat, min_lng, max_lng)");
+        } catch (SQLiteException e) {
+            Log.w(TAG, "R*Tree module unavailable, using lat/lng indexes instead", e);
+            return;
+        }
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS places_rtree_ai AFTER INSERT ON " + TABLE_NAME + " BEGIN " +
+                "INSERT OR REPLACE INTO " + RTREE_TABLE_NAME + " VALUES (new." + COLUMN_ID + ", " +
+                "new." + COLUMN_LAT + ", new." + COLUMN_LAT + ", new." + COLUMN_LNG + ", new." + COLUMN_LNG + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS places_rtree_au AFTER UPDATE OF " +
+                COLUMN_LAT + ", " + COLUMN_LNG + " ON " + TABLE_NAME + " BEGIN " +
+                "INSERT OR REPLACE INTO " + RTREE_TABLE_NAME + " VALUES (new." + COLUMN_ID + ", " +
+                "new." + COLUMN_LAT + ", new." + COLUMN_LAT + ", new." + COLUMN_LNG + ", new." + COLUMN_LNG + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS places_rtree_ad AFTER DELETE ON " + TABLE_NAME + " BEGIN " +
+                "DELETE FROM " + RTREE_TABLE_NAME + " WHERE id = old." + COLUMN_ID + "; END");
+        db.execSQL("INSERT OR REPLACE INTO " + RTREE_TABLE_NAME + " SELECT " + COLUMN_ID + ", " +
+                COLUMN_LAT + ", " + COLUMN_LAT + ", " + COLUMN_LNG + ", " + COLUMN_LNG + " FROM " + TABLE_NAME);
+    }
+
+    /**
+     * v4: FTS4 index over name, city and notes, backfilled with 'rebuild'.
+     * - External content table: text lives only in places; the index stores tokens + docid (= places.id).
+     * - prefix="2,3" keeps extra prefix indexes so "col*"-style queries stay cheap while typing.
+     * - Android's SQLite is built with FTS3/FTS4 but not FTS5, so BM25 is computed from matchinfo().
+     */
+    private void createFullTextIndex(SQLiteDatabase db) {
+        String columns = COLUMN_NAME + ", " + COLUMN_CITY + ", " + COLUMN_NOTES;
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + FTS_TABLE_NAME + " USING fts4(" +
+                    "content=\"" + TABLE_NAME + "\", " + columns + ", prefix=\"2,3\", tokenize=unicode61)");
+        } catch (SQLiteException e) {
+            Log.w(TAG, "Full-text index unavailable, search falls back to LIKE", e);
+            return;
+        }
+        String newValues = "new." + COLUMN_ID + ", new." + COLUMN_NAME + ", new." + COLUMN_CITY + ", new." + COLUMN_NOTES;
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS places_fts_bu BEFORE UPDATE OF " + columns + " ON " + TABLE_NAME +
+                " BEGIN DELETE FROM " + FTS_TABLE_NAME + " WHERE docid = old." + COLUMN_ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS places_fts_bd BEFORE DELETE ON " + TABLE_NAME +
+                " BEGIN DELETE FROM " + FTS_TABLE_NAME + " WHERE docid = old." + COLUMN_ID + "; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS places_fts_au AFTER UPDATE OF " + columns + " ON " + TABLE_NAME +
+                " BEGIN INSERT INTO " + FTS_TABLE_NAME + "(docid, " + columns + ") VALUES (" + newValues + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS places_fts_ai AFTER INSERT ON " + TABLE_NAME +
+                " BEGIN INSERT INTO " + FTS_TABLE_NAME + "(docid, " + columns + ") VALUES (" + newValues + "); END");
+        db.execSQL("INSERT INTO " + FTS_TABLE_NAME + "(" + FTS_TABLE_NAME + ") VALUES ('rebuild')");
+    }
+
+    /** Cover photo lookup for a place id column, answered from the covering index (place_id, position, uri). */
+    private static String coverPhotoColumn(String placeIdColumn) {
+        return "(SELECT " + COLUMN_PHOTO_URI + " FROM " + PHOTOS_TABLE_NAME +
+                " WHERE " + COLUMN_PHOTO_PLACE_ID + " = " + placeIdColumn +
+                " AND " + COLUMN_PHOTO_POSITION + " = 0) AS " + COLUMN_COVER_PHOTO;
+    }
+
+    /** Photo child table, its covering index and the cascade-delete trigger. */
+    private void createPhotosTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + PHOTOS_TABLE_NAME + " (" +
+                COLUMN_PHOTO_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                COLUMN_PHOTO_PLACE_ID + " INTEGER NOT NULL, " +
+                COLUMN_PHOTO_POSITION + " INTEGER NOT NULL, " +
+                COLUMN_PHOTO_URI + " TEXT NOT NULL, " +
+                COLUMN_PHOTO_WIDTH + " INTEGER, " +
+                COLUMN_PHOTO_HEIGHT + " INTEGER, " +
+                COLUMN_PHOTO_BYTES + " INTEGER)");
+        // Not unique: reorders shift positions row by row and may overlap mid-statement
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_place_photos_cover ON " + PHOTOS_TABLE_NAME + "(" +
+                COLUMN_PHOTO_PLACE_ID + ", " + COLUMN_PHOTO_POSITION + ", " + COLUMN_PHOTO_URI + ")");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS place_photos_ad AFTER DELETE ON " + TABLE_NAME + " BEGIN " +
+                "DELETE FROM " + PHOTOS_TABLE_NAME + " WHERE " + COLUMN_PHOTO_PLACE_ID + " = old." + COLUMN_ID + "; END");
+    }
+
+    /** v5: move the comma-joined photos column into place_photos, then clear it. */
+    private void migrateToV5(SQLiteDatabase db) {
+        createPhotosTable(db);
+        SQLiteStatement insert = db.compileStatement(INSERT_PHOTO_SQL);
+        try (Cursor cursor = db.query(TABLE_NAME, new String[]{COLUMN_ID, COLUMN_PHOTOS},
+                COLUMN_PHOTOS + " IS NOT NULL AND " + COLUMN_PHOTOS + " != ''", null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                String[] photos = cursor.getString(1).split(",");
+                for (int i = 0; i < photos.length; i++) {
+                    insertPhoto(insert, cursor.getLong(0), i, PhotoRow.probe(photos[i]));
+                }
+            }
+        } finally {
+            insert.close();
+        }
+        db.execSQL("UPDATE " + TABLE_NAME + " SET " + COLUMN_PHOTOS + " = NULL");
+    }
+
+    /** v6: tombstone column for soft deletes. */
+    private void migrateToV6(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_DELETED_AT + " INTEGER");
+        createTombstoneIndex(db);
+    }
+
+    /** Partial index: only tombstoned rows are indexed, so the purge never scans live rows. */
+    private void createTombstoneIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_places_deleted ON " + TABLE_NAME + "(" +
+                COLUMN_DELETED_AT + ") WHERE " + COLUMN_DELETED_AT + " IS NOT NULL");
+    }
+
+    /** v7: geohash column, backfilled in Java from existing lat/lng, then indexed. */
+    private void migrateToV7(SQLiteDatabase db) {
+        db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_GEOHASH + " TEXT");
+        SQLiteStatement update = db.compileStatement("UPDATE " + TABLE_NAME + " SET " +
+                COLUMN_GEOHASH + "=? WHERE " + COLUMN_ID + "=?");
+        try (Cursor cursor = db.query(TABLE_NAME, new String[]{COLUMN_ID, COLUMN_LAT, COLUMN_LNG},
+                null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                update.bindString(1, Geohash.encode(cursor.getDouble(1), cursor.getDouble(2)));
+                update.bindLong(2, cursor.getLong(0));
+                update.executeUpdateDelete();
+            }
+        } finally {
+            update.close();
+        }
+        createGeohashIndex(db);
+    }
+
+    private void createGeohashIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_places_geohash ON " + TABLE_NAME + "(" + COLUMN_GEOHASH + ")");
+    }
+
+    /**
+     * v8: partial indexes over live rows for Search filters.
+     * - (visited, rating) serves visited: alone or with a rating range; (rating) serves a rating range alone.
+     */
+    private void createFilterIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_places_visited_rating ON " + TABLE_NAME + "(" +
+                COLUMN_VISITED + ", " + COLUMN_RATING + ") WHERE " + LIVE_ROWS);
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_places_rating ON " + TABLE_NAME + "(" +
+                COLUMN_RATING + ") WHERE " + LIVE_ROWS);
+    }
+
+    /** Whether places_rtree exists in this database (checked once per helper). */
+    private boolean hasSpatialIndex(SQLiteDatabase db) {
+        if (spatialIndexAvailable == null) spatialIndexAvailable = tableExists(db, RTREE_TABLE_NAME);
+        return spatialIndexAvailable;
+    }
+
+    /** Whether places_fts exists in this database (checked once per helper). */
+    private boolean hasFullTextIndex(SQLiteDatabase db) {
+        if (fullTextIndexAvailable == null) fullTextIndexAvailable = tableExists(db, FTS_TABLE_NAME);
+        return fullTextIndexAvailable;
+    }
+
+    private static boolean tableExists(SQLiteDatabase db, String table) {
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE type='table' AND name=?",
+                new String[]{table})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    // ----- Insert new dream place into database (returns new row ID, or -1 on failure) -----
+    public long addDreamPlace(DreamPlace place, double lat, double lng) {
+        List<PhotoRow> photos = probePhotos(place.getPhotoPaths()); // file I/O before taking the lock
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
 
-        values.put(COLUMN_NAME, place.getName());
-        values.put(COLUMN_CITY, place.getCity());
-        values.put(COLUMN_NOTES, place.getNotes());
-        values.put(COLUMN_LAT, lat);
-        values.put(COLUMN_LNG, lng);
-        values.put(COLUMN_PHOTOS, TextUtils.join(",", place.getPhotoPaths()));
-        values.put(COLUMN_VISITED, place.isVisited() ? 1 : 0);
-        values.put(COLUMN_RATING, place.getRating());
+        // Place row + its photo rows in one transaction
+        synchronized (this) {
+            long id;
+            db.beginTransaction();
+            try {
+                id = insertPlace(insertPlaceStatement(), place, lat, lng);
+                if (id != -1) {
+                    for (int i = 0; i < photos.size(); i++) insertPhoto(insertPhotoStatement(), id, i, photos.get(i));
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            if (id != -1) notifyPlacesChanged(Collections.singletonList(String.valueOf(id)), Collections.emptyList());
+            return id;
+        }
+    }
+
+    /** Bind a place to the compiled INSERT_PLACE_SQL statement and run it. */
+    private static long insertPlace(SQLiteStatement insert, DreamPlace place, double lat, double lng) {
+        insert.clearBindings();
+        bindPlaceColumns(insert, place, lat, lng);
+        return insert.executeInsert();
+    }
+
+    /** Bind a place to the compiled UPDATE_PLACE_SQL statement and run it. Returns rows changed. */
+    private static int updatePlace(SQLiteStatement update, DreamPlace place) {
+        update.clearBindings();
+        bindPlaceColumns(update, place, place.getLatitude(), place.getLongitude());
+        update.bindString(13, place.getId());
+        return update.executeUpdateDelete();
+    }
+
+    /** Bind the 12 place columns shared by INSERT_PLACE_SQL and UPDATE_PLACE_SQL (incl. trig columns and geohash). */
+    private static void bindPlaceColumns(SQLiteStatement statement, DreamPlace place, double lat, double lng) {
+        double latRad = Math.toRadians(lat);
+        double lngRad = Math.toRadians(lng);
+        bindStringOrNull(statement, 1, place.getName());
+        bindStringOrNull(statement, 2, place.getCity());
+        bindStringOrNull(statement, 3, place.getNotes());
+        statement.bindDouble(4, lat);
+        statement.bindDouble(5, lng);
+        statement.bindDouble(6, Math.sin(latRad));
+        statement.bindDouble(7, Math.cos(latRad));
+        statement.bindDouble(8, Math.sin(lngRad));
+        statement.bindDouble(9, Math.cos(lngRad));
+        statement.bindLong(10, place.isVisited() ? 1 : 0);
+        statement.bindDouble(11, place.getRating());
+        statement.bindString(12, Geohash.encode(lat, lng));
+    }
+
+    private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+        if (value == null) statement.bindNull(index);
+        else statement.bindString(index, value);
+    }
+
+    private SQLiteStatement insertPlaceStatement() {
+        if (insertPlaceStatement == null) {
+            insertPlaceStatement = getWritableDatabase().compileStatement(INSERT_PLACE_SQL);
+        }
+        return insertPlaceStatement;
+    }
+
+    private SQLiteStatement updatePlaceStatement() {
+        if (updatePlaceStatement == null) {
+            updatePlaceStatement = getWritableDatabase().compileStatement(UPDATE_PLACE_SQL);
+        }
+        return updatePlaceStatement;
+    }
+
+    private SQLiteStatement insertPhotoStatement() {
+        if (insertPhotoStatement == null) {
+            insertPhotoStatement = getWritableDatabase().compileStatement(INSERT_PHOTO_SQL);
+        }
+        return insertPhotoStatement;
+    }
+
+    /** Insert many places with the default batch size and no progress callback. */
+    public int addDreamPlaces(Collection<DreamPlace> places) {
+        return addDreamPlaces(places, DEFAULT_BATCH_SIZE, null);
+    }
+
+    /**
+     * Bulk insert (imports, restores, guest seeding).
+     * - Reuses the compiled insert statements and commits one transaction per batch,
+     *   instead of one implicit transaction (and fsync) per row.
+     * - Each place is stored at its own latitude/longitude; its new row ID is set on the object.
+     * - A batch's photo headers are read before its transaction, so other writes can run in between.
+     * - Returns the number of places inserted.
+     */
+    public int addDreamPlaces(Collection<DreamPlace> places, int batchSize, BatchProgressListener listener) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        int size = Math.max(1, batchSize);
+        int total = places.size();
+        int done = 0;
+        int inserted = 0;
+
+        Iterator<DreamPlace> iterator = places.iterator();
+        while (iterator.hasNext()) {
+            List<DreamPlace> batch = new ArrayList<>();
+            List<List<PhotoRow>> batchPhotos = new ArrayList<>();
+            while (batch.size() < size && iterator.hasNext()) {
+                DreamPlace place = iterator.next();
+                batch.add(place);
+                batchPhotos.add(probePhotos(place.getPhotoPaths()));
+            }
+
+            List<String> batchIds = new ArrayList<>();
+            synchronized (this) {
+                db.beginTransaction();
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        DreamPlace place = batch.get(i);
+                        long id = insertPlace(insertPlaceStatement(), place, place.getLatitude(), place.getLongitude());
+                        if (id == -1) continue;
+                        place.setId(String.valueOf(id));
+                        batchIds.add(place.getId());
+                        inserted++;
+                        List<PhotoRow> photos = batchPhotos.get(i);
+                        for (int p = 0; p < photos.size(); p++) {
+                            insertPhoto(insertPhotoStatement(), id, p, photos.get(p));
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+                notifyPlacesChanged(batchIds, Collections.emptyList());
+            }
+            done += batch.size();
+            if (listener != null) listener.onBatchCommitted(done, total);
+        }
+        return inserted;
+    }
+
+    /** Update many places with the default batch size and no progress callback. */
+    public int updateDreamPlaces(Collection<DreamPlace> places) {
+        return updateDreamPlaces(places, DEFAULT_BATCH_SIZE, null);
+    }
+
+    /**
+     * Bulk update by row ID, one transaction per batch (same rules as updateDreamPlace).
+     * - Places without an ID are skipped.
+     * - Returns the number of rows updated.
+     */
+    public int updateDreamPlaces(Collection<DreamPlace> places, int batchSize, BatchProgressListener listener) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        int size = Math.max(1, batchSize);
+        int total = places.size();
+        int done = 0;
+        int updated = 0;
+
+        Iterator<DreamPlace> iterator = places.iterator();
+        while (iterator.hasNext()) {
+            List<DreamPlace> batch = new ArrayList<>();
+            List<List<PhotoRow>> batchPhotos = new ArrayList<>();
+            while (batch.size() < size && iterator.hasNext()) {
+                DreamPlace place = iterator.next();
+                batch.add(place);
+                batchPhotos.add(place.getId() != null ? probePhotos(place.getPhotoPaths()) : null);
+            }
 
-        db.insert(TABLE_NAME, null, values);
-        db.close();
+            List<String> batchIds = new ArrayList<>();
+            synchronized (this) {
+                db.beginTransaction();
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        DreamPlace place = batch.get(i);
+                        if (place.getId() == null) continue;
+                        if (updatePlace(updatePlaceStatement(), place) > 0) {
+                            syncPhotos(db, place, batchPhotos.get(i));
+                            batchIds.add(place.getId());
+                            updated++;
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+                notifyPlacesChanged(batchIds, Collections.emptyList());
+            }
+            done += batch.size();
+            if (listener != null) listener.onBatchCommitted(done, total);
+        }
+        return updated;
     }
 
     // Load all dream places and calculate distance from current location
     public List<DreamPlace> getAllPlacesOrderedByDistance(double currentLat, double currentLng) {
+        return getPlacesOrderedByDistance(currentLat, currentLng, 0, -1, 0);
+    }
+
+    /**
+     * Load one page of dream places ordered by distance, nearest first.
+     * - Distance is ranked inside SQLite from the precomputed trig columns
+     *   (cos of the central angle, larger = closer), so no row is materialized just to be sorted.
+     * - radiusMeters > 0 prunes rows with a bounding box (R*Tree) or geohash prefix ranges, then drops the corners.
+     * - limit < 0 returns every remaining row.
+     */
+    public List<DreamPlace> getPlacesOrderedByDistance(double currentLat, double currentLng,
+                                                       double radiusMeters, int limit, int offset) {
         List<DreamPlace> places = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
 
-        Cursor cursor = db.query(TABLE_NAME, null, null, null, null, null, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                // Extract values from row
-                int id = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_ID));
-                String name = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NAME));
-                String city = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_CITY));
-                String notes = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NOTES));
-                double lat = cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_LAT));
-                double lng = cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_LNG));
-                String photosStr = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PHOTOS));
-                boolean visited = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_VISITED)) == 1;
-                float rating = cursor.getFloat(cursor.getColumnIndexOrThrow(COLUMN_RATING));
-
-                // Convert comma-separated photo URIs to list
-                List<String> photoPaths = photosStr == null || photosStr.isEmpty()
-                        ? new ArrayList<>()
-                        : Arrays.asList(photosStr.split(","));
-
-                // Calculate distance from current location
-                double distance = calculateDistance(currentLat, currentLng, lat, lng);
-                String distanceStr = String.format("%.1f km away", distance);
-
-                // Create DreamPlace and assign DB ID
-                DreamPlace place = new DreamPlace(photoPaths, name, city, distanceStr, visited, rating, lat, lng, notes);
-                place.setId(String.valueOf(id)); // Save SQLite row ID as string
+        List<String> args = new ArrayList<>();
+        String score = distanceScore(currentLat, currentLng, args);
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM (SELECT " + SUMMARY_COLUMNS + ", ")
+                .append(score).append(" AS ").append(COLUMN_DIST_SCORE)
+                .append(" FROM ").append(TABLE_NAME).append(" WHERE ").append(LIVE_ROWS);
+        if (radiusMeters > 0) {
+            sql.append(" AND ").append(radiusClause(db, currentLat, currentLng, radiusMeters, args));
+            sql.append(") WHERE ").append(COLUMN_DIST_SCORE).append(" >= CAST(? AS REAL)");
+            args.add(String.valueOf(Math.cos(Math.min(Math.PI, radiusMeters / EARTH_RADIUS_METERS))));
+        } else {
+            sql.append(")");
+        }
+        sql.append(" ORDER BY ").append(COLUMN_DIST_SCORE).append(" DESC");
+        sql.append(" LIMIT ").append(limit).append(" OFFSET ").append(Math.max(0, offset));
+
+        // Look up cover photos only for the rows of this page
+        String pageSql = "SELECT page.*, " + coverPhotoColumn("page." + COLUMN_ID) +
+                " FROM (" + sql + ") page ORDER BY page." + COLUMN_DIST_SCORE + " DESC";
+        try (Cursor cursor = db.rawQuery(pageSql, args.toArray(new String[0]))) {
+            SummaryColumns columns = new SummaryColumns(cursor);
+            int scoreIndex = cursor.getColumnIndexOrThrow(COLUMN_DIST_SCORE);
+            while (cursor.moveToNext()) {
+                DreamPlace place = cursorToPlace(cursor, columns);
+
+                // Turn the SQL ranking score back into a distance
+                place.setDistanceMeters(scoreToMeters(cursor.getDouble(scoreIndex)));
                 places.add(place);
-            } while (cursor.moveToNext());
-            cursor.close();
+            }
         }
 
-        db.close();
         return places;
     }
 
-    /** Distance calculation using Android's Location API (Haversine under the hood). */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        float[] results = new float[1];
-        Location.distanceBetween(lat1, lon1, lat2, lon2, results);
-        return results[0] / 1000.0; // Convert to kilometers
+    /**
+     * SQL expression ranking rows by distance from (lat, lng): cos of the central angle, larger = closer.
+     * - Computed from the precomputed trig columns; appends its three arguments to args.
+     */
+    private static String distanceScore(double lat, double lng, List<String> args) {
+        double latRad = Math.toRadians(lat);
+        double lngRad = Math.toRadians(lng);
+        double sinLat = Math.sin(latRad);
+        double cosLat = Math.cos(latRad);
+
+        // cos(c) = sinφ1·sinφ2 + cosφ1·cosφ2·(cosλ1·cosλ2 + sinλ1·sinλ2)
+        // (rawQuery binds args as text, hence the explicit casts)
+        args.add(String.valueOf(sinLat));
+        args.add(String.valueOf(cosLat * Math.cos(lngRad)));
+        args.add(String.valueOf(cosLat * Math.sin(lngRad)));
+        return "(" + COLUMN_SIN_LAT + "*CAST(? AS REAL) + " +
+                COLUMN_COS_LAT + "*" + COLUMN_COS_LNG + "*CAST(? AS REAL) + " +
+                COLUMN_COS_LAT + "*" + COLUMN_SIN_LNG + "*CAST(? AS REAL))";
+    }
+
+    /**
+     * WHERE clause keeping a superset of the places within radiusMeters.
+     * - R*Tree when available; otherwise the geohash prefix ranges covering the circle, each an
+     *   index range scan on idx_places_geohash (the lat/lng indexes could only narrow one axis).
+     */
+    private String radiusClause(SQLiteDatabase db, double lat, double lng, double radiusMeters, List<String> args) {
+        if (hasSpatialIndex(db)) return boxClause(db, radiusBoxes(lat, lng, radiusMeters), args);
+
+        StringBuilder clause = new StringBuilder("(");
+        List<Geohash.Range> ranges = Geohash.nearbyRanges(lat, lng, radiusMeters);
+        for (int i = 0; i < ranges.size(); i++) {
+            if (i > 0) clause.append(" OR ");
+            clause.append(COLUMN_GEOHASH).append(" BETWEEN ? AND ?");
+            args.add(ranges.get(i).start);
+            args.add(ranges.get(i).end);
+        }
+        return clause.append(")").toString();
+    }
+
+    /**
+     * Lat/lng boxes ({minLat, maxLat, minLng, maxLng}) enclosing a circle of the given radius.
+     * - Near the poles the box spans every longitude.
+     * - A box crossing the antimeridian is split in two.
+     */
+    private static List<double[]> radiusBoxes(double lat, double lng, double radiusMeters) {
+        double dLat = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double minLat = Math.max(-90, lat - dLat);
+        double maxLat = Math.min(90, lat + dLat);
+
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double dLng = cosLat < 1e-9 ? 180 : dLat / cosLat;
+        if (maxLat >= 90 || minLat <= -90 || dLng >= 180) {
+            return Collections.singletonList(new double[]{minLat, maxLat, -180, 180});
+        }
+        return lngBoxes(minLat, maxLat, lng - dLng, lng + dLng);
+    }
+
+    /** Split a longitude range that may run past ±180 into boxes within [-180, 180]. */
+    private static List<double[]> lngBoxes(double minLat, double maxLat, double minLng, double maxLng) {
+        List<double[]> boxes = new ArrayList<>();
+        if (minLng < -180) {
+            boxes.add(new double[]{minLat, maxLat, minLng + 360, 180});
+            boxes.add(new double[]{minLat, maxLat, -180, maxLng});
+        } else if (maxLng > 180) {
+            boxes.add(new double[]{minLat, maxLat, minLng, 180});
+            boxes.add(new double[]{minLat, maxLat, -180, maxLng - 360});
+        } else {
+            boxes.add(new double[]{minLat, maxLat, minLng, maxLng});
+        }
+        return boxes;
+    }
+
+    /**
+     * WHERE clause restricting places to the given boxes.
+     * - With the R*Tree, candidate ids come from the spatial index (O(log n + k)).
+     * - The exact lat/lng test is always applied, since R*Tree boxes are stored as 32-bit floats.
+     */
+    private String boxClause(SQLiteDatabase db, List<double[]> boxes, List<String> args) {
+        StringBuilder clause = new StringBuilder();
+        if (hasSpatialIndex(db)) {
+            clause.append(COLUMN_ID).append(" IN (");
+            for (int i = 0; i < boxes.size(); i++) {
+                double[] box = boxes.get(i);
+                if (i > 0) clause.append(" UNION ALL ");
+                clause.append("SELECT id FROM ").append(RTREE_TABLE_NAME)
+                        .append(" WHERE max_lat >= CAST(? AS REAL) AND min_lat <= CAST(? AS REAL)")
+                        .append(" AND max_lng >= CAST(? AS REAL) AND min_lng <= CAST(? AS REAL)");
+                for (double bound : box) args.add(String.valueOf(bound));
+            }
+            clause.append(") AND ");
+        }
+        clause.append("(");
+        for (int i = 0; i < boxes.size(); i++) {
+            double[] box = boxes.get(i);
+            if (i > 0) clause.append(" OR ");
+            clause.append("(").append(COLUMN_LAT).append(" BETWEEN ? AND ? AND ")
+                    .append(COLUMN_LNG).append(" BETWEEN ? AND ?)");
+            for (double bound : box) args.add(String.valueOf(bound));
+        }
+        return clause.append(")").toString();
+    }
+
+    /** Convert a cos(central angle) ranking score into meters on the sphere. */
+    private static double scoreToMeters(double score) {
+        return EARTH_RADIUS_METERS * Math.acos(Math.max(-1.0, Math.min(1.0, score)));
     }
 
     // Update an existing dream place using its unique database ID
     public void updateDreamPlace(DreamPlace place) {
         if (place.getId() == null) return;
 
+        List<PhotoRow> photos = probePhotos(place.getPhotoPaths()); // file I/O before taking the lock
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
+        synchronized (this) {
+            db.beginTransaction();
+            try {
+                // Update by ID instead of name to ensure uniqueness
+                if (updatePlace(updatePlaceStatement(), place) > 0) syncPhotos(db, place, photos);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            notifyPlacesChanged(Collections.singletonList(place.getId()), Collections.emptyList());
+        }
+    }
+
+    /** Rewrite a place's photo rows (probed from its photo paths), but only when its list actually changed. */
+    private void syncPhotos(SQLiteDatabase db, DreamPlace place, List<PhotoRow> photos) {
+        long placeId = Long.parseLong(place.getId());
+        List<String> uris = place.getPhotoPaths() != null ? place.getPhotoPaths() : new ArrayList<>();
+        if (uris.equals(queryPhotoUris(db, placeId))) return;
+
+        db.delete(PHOTOS_TABLE_NAME, COLUMN_PHOTO_PLACE_ID + "=?", new String[]{place.getId()});
+        for (int i = 0; i < photos.size(); i++) insertPhoto(insertPhotoStatement(), placeId, i, photos.get(i));
+    }
 
-        values.put(COLUMN_NAME, place.getName());
-        values.put(COLUMN_CITY, place.getCity());
-        values.put(COLUMN_NOTES, place.getNotes());
-        values.put(COLUMN_LAT, place.getLatitude());
-        values.put(COLUMN_LNG, place.getLongitude());
-        values.put(COLUMN_VISITED, place.isVisited() ? 1 : 0);
-        values.put(COLUMN_RATING, place.getRating());
-        values.put(COLUMN_PHOTOS, TextUtils.join(",", place.getPhotoPaths()));
+    /** Return all photo URIs of a place in display order (cover first). */
+    public List<String> getPhotoUris(String placeId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<String> uris = queryPhotoUris(db, Long.parseLong(placeId));
+        return uris;
+    }
 
-        // Update by ID instead of name to ensure uniqueness
-        db.update(TABLE_NAME, values, COLUMN_ID + "=?", new String[]{place.getId()});
-        db.close();
+    private static List<String> queryPhotoUris(SQLiteDatabase db, long placeId) {
+        List<String> uris = new ArrayList<>();
+        try (Cursor cursor = db.query(PHOTOS_TABLE_NAME, new String[]{COLUMN_PHOTO_URI},
+                COLUMN_PHOTO_PLACE_ID + "=?", new String[]{String.valueOf(placeId)},
+                null, null, COLUMN_PHOTO_POSITION)) {
+            while (cursor.moveToNext()) uris.add(cursor.getString(0));
+        }
+        return uris;
+    }
+
+    /** Append a single photo to the end of a place's photo list. Returns the new photo row ID. */
+    public long addPhoto(String placeId, String uri) {
+        PhotoRow photo = PhotoRow.probe(uri); // file I/O before taking the lock
+        SQLiteDatabase db = this.getWritableDatabase();
+        synchronized (this) {
+            long id;
+            db.beginTransaction();
+            try {
+                long place = Long.parseLong(placeId);
+                long position = DatabaseUtils.longForQuery(db, "SELECT COALESCE(MAX(" + COLUMN_PHOTO_POSITION +
+                        "), -1) + 1 FROM " + PHOTOS_TABLE_NAME + " WHERE " + COLUMN_PHOTO_PLACE_ID + "=?",
+                        new String[]{placeId});
+                id = insertPhoto(insertPhotoStatement(), place, (int) position, photo);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            notifyPlacesChanged(Collections.singletonList(placeId), Collections.emptyList());
+            return id;
+        }
     }
 
     /**
      * Delete a single photo from a place (identified by placeId).
-     * - Reads the existing photo list.
-     * - Removes the matching URI.
-     * - Updates the row with the new list.
+     * - Removes the matching photo row.
+     * - Shifts the photos after it up by one position.
      */
-    public void deletePhotoFromPlace(String placeId, String photoToDelete) {
+    public synchronized void deletePhotoFromPlace(String placeId, String photoToDelete) {
         SQLiteDatabase db = this.getWritableDatabase();
-        Cursor cursor = db.query(TABLE_NAME, null, COLUMN_ID + "=?", new String[]{placeId}, null, null, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            String photosStr = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PHOTOS));
-            cursor.close();
-
-            if (photosStr != null) {
-                List<String> photos = new ArrayList<>(Arrays.asList(photosStr.split(",")));
-                if (photos.remove(photoToDelete)) {
-                    ContentValues values = new ContentValues();
-                    values.put(COLUMN_PHOTOS, TextUtils.join(",", photos));
-                    db.update(TABLE_NAME, values, COLUMN_ID + "=?", new String[]{placeId});
+        db.beginTransaction();
+        try {
+            String position = null;
+            try (Cursor cursor = db.query(PHOTOS_TABLE_NAME, new String[]{COLUMN_PHOTO_POSITION},
+                    COLUMN_PHOTO_PLACE_ID + "=? AND " + COLUMN_PHOTO_URI + "=?", new String[]{placeId, photoToDelete},
+                    null, null, COLUMN_PHOTO_POSITION, "1")) {
+                if (cursor.moveToFirst()) position = String.valueOf(cursor.getInt(0));
+            }
+            if (position != null) {
+                db.delete(PHOTOS_TABLE_NAME, COLUMN_PHOTO_PLACE_ID + "=? AND " + COLUMN_PHOTO_POSITION + "=?",
+                        new String[]{placeId, position});
+                db.execSQL("UPDATE " + PHOTOS_TABLE_NAME + " SET " + COLUMN_PHOTO_POSITION + " = " +
+                        COLUMN_PHOTO_POSITION + " - 1 WHERE " + COLUMN_PHOTO_PLACE_ID + "=? AND " +
+                        COLUMN_PHOTO_POSITION + " > ?", new Object[]{placeId, position});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        notifyPlacesChanged(Collections.singletonList(placeId), Collections.emptyList()); // cover may change
+    }
+
+    /**
+     * Move a photo from one position to another (e.g. to choose a new cover).
+     * - Only the rows between the two positions are touched.
+     */
+    public synchronized void movePhoto(String placeId, int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) return;
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            // Park the moving photo at -1, shift the rows in between, then drop it into place
+            String where = COLUMN_PHOTO_PLACE_ID + "=? AND " + COLUMN_PHOTO_POSITION + "=?";
+            db.execSQL("UPDATE " + PHOTOS_TABLE_NAME + " SET " + COLUMN_PHOTO_POSITION + " = -1 WHERE " + where,
+                    new Object[]{placeId, fromPosition});
+            if (fromPosition < toPosition) {
+                db.execSQL("UPDATE " + PHOTOS_TABLE_NAME + " SET " + COLUMN_PHOTO_POSITION + " = " +
+                        COLUMN_PHOTO_POSITION + " - 1 WHERE " + COLUMN_PHOTO_PLACE_ID + "=? AND " +
+                        COLUMN_PHOTO_POSITION + " > ? AND " + COLUMN_PHOTO_POSITION + " <= ?",
+                        new Object[]{placeId, fromPosition, toPosition});
+            } else {
+                db.execSQL("UPDATE " + PHOTOS_TABLE_NAME + " SET " + COLUMN_PHOTO_POSITION + " = " +
+                        COLUMN_PHOTO_POSITION + " + 1 WHERE " + COLUMN_PHOTO_PLACE_ID + "=? AND " +
+                        COLUMN_PHOTO_POSITION + " >= ? AND " + COLUMN_PHOTO_POSITION + " < ?",
+                        new Object[]{placeId, toPosition, fromPosition});
+            }
+            db.execSQL("UPDATE " + PHOTOS_TABLE_NAME + " SET " + COLUMN_PHOTO_POSITION + " = ? WHERE " + where,
+                    new Object[]{toPosition, placeId, -1});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        notifyPlacesChanged(Collections.singletonList(placeId), Collections.emptyList()); // cover may change
+    }
+
+    /** Insert one photo row; size and dimensions are stored when the photo was a local file. */
+    private static long insertPhoto(SQLiteStatement insert, long placeId, int position, PhotoRow photo) {
+        insert.clearBindings();
+        insert.bindLong(1, placeId);
+        insert.bindLong(2, position);
+        insert.bindString(3, photo.uri);
+        if (photo.bytes >= 0) {
+            insert.bindLong(4, photo.width);
+            insert.bindLong(5, photo.height);
+            insert.bindLong(6, photo.bytes);
+        }
+        return insert.executeInsert();
+    }
+
+    private static List<PhotoRow> probePhotos(@Nullable List<String> uris) {
+        List<PhotoRow> photos = new ArrayList<>();
+        if (uris != null) {
+            for (String uri : uris) photos.add(PhotoRow.probe(uri));
+        }
+        return photos;
+    }
+
+    /**
+     * A photo URI plus the metadata stored with it.
+     * - probe() reads local files' size and pixel dimensions from the file header (no full decode);
+     *   it does file I/O, so writes call it before their transaction, never inside.
+     */
+    private static final class PhotoRow {
+        final String uri;
+        final int width;
+        final int height;
+        final long bytes; // -1 = not a local file (remote URL or missing), nothing to store
+
+        private PhotoRow(String uri, int width, int height, long bytes) {
+            this.uri = uri;
+            this.width = width;
+            this.height = height;
+            this.bytes = bytes;
+        }
+
+        static PhotoRow probe(String uri) {
+            Uri parsed = Uri.parse(uri);
+            if ("file".equals(parsed.getScheme()) && parsed.getPath() != null) {
+                File file = new File(parsed.getPath());
+                if (file.exists()) {
+                    BitmapFactory.Options bounds = new BitmapFactory.Options();
+                    bounds.inJustDecodeBounds = true;
+                    BitmapFactory.decodeFile(file.getPath(), bounds);
+                    return new PhotoRow(uri, bounds.outWidth, bounds.outHeight, file.length());
                 }
             }
+            return new PhotoRow(uri, 0, 0, -1);
         }
-        db.close();
     }
 
-    /** Delete a dream place permanently by ID. (Used for swipe-to-delete) */
-    public void deleteDreamPlaceById(String placeId) {
+    /**
+     * Soft-delete a place by primary key (swipe-to-delete).
+     * - Only stamps deleted_at; photos, R*Tree and full-text rows stay until purgeDeleted().
+     */
+    public synchronized void markDeleted(String placeId) {
         if (placeId == null) return;
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_NAME, COLUMN_ID + "=?", new String[]{placeId});
-        db.close();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_DELETED_AT, System.currentTimeMillis());
+        if (db.update(TABLE_NAME, values, COLUMN_ID + "=? AND " + LIVE_ROWS, new String[]{placeId}) > 0) {
+            notifyPlacesChanged(Collections.emptyList(), Collections.singletonList(placeId));
+        }
     }
-    /** Delete a dream place permanently by Name. (Fallback for guest user swipe-to-delete) */
-    public void deleteDreamPlaceByName(String name) {
+
+    /** Undo a soft delete (Snackbar "Undo"); the place is reported as changed again. */
+    public synchronized void restoreDeleted(String placeId) {
+        if (placeId == null) return;
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_NAME, COLUMN_NAME + "=?", new String[]{name});
-        db.close();
+        ContentValues values = new ContentValues();
+        values.putNull(COLUMN_DELETED_AT);
+        if (db.update(TABLE_NAME, values, COLUMN_ID + "=? AND " + COLUMN_DELETED_AT + " IS NOT NULL",
+                new String[]{placeId}) > 0) {
+            notifyPlacesChanged(Collections.singletonList(placeId), Collections.emptyList());
+        }
     }
 
     /**
-     * Return all dream places without distance (used for Map view).
+     * Permanently delete places soft-deleted at least graceMillis ago.
+     * - One transaction per DEFAULT_BATCH_SIZE rows; the lock is released between batches
+     *   so queued writes are not held up by a large purge.
+     * - Triggers remove the matching photo, R*Tree and full-text rows.
+     * @return number of places removed
+     */
+    public int purgeDeleted(long graceMillis) {
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        int purged = 0;
+        int batch;
+        do {
+            batch = purgeDeletedBatch(cutoff, DEFAULT_BATCH_SIZE);
+            purged += batch;
+        } while (batch == DEFAULT_BATCH_SIZE);
+        return purged;
+    }
+
+    /** Hard-delete up to batchSize tombstones older than cutoff in one transaction. */
+    private synchronized int purgeDeletedBatch(long cutoff, int batchSize) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        int deleted;
+        db.beginTransaction();
+        try {
+            deleted = db.delete(TABLE_NAME, COLUMN_ID + " IN (SELECT " + COLUMN_ID + " FROM " + TABLE_NAME +
+                    " WHERE " + COLUMN_DELETED_AT + " <= ? LIMIT " + batchSize + ")",
+                    new String[]{String.valueOf(cutoff)});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return deleted;
+    }
+
+    /** Delete a dream place permanently by ID, skipping the tombstone stage. */
+    public synchronized void deleteDreamPlaceById(String placeId) {
+        if (placeId == null) return;
+        SQLiteDatabase db = this.getWritableDatabase();
+        if (db.delete(TABLE_NAME, COLUMN_ID + "=?", new String[]{placeId}) > 0) {
+            notifyPlacesChanged(Collections.emptyList(), Collections.singletonList(placeId));
+        }
+    }
+
+    /**
+     * Return all dream places without distance (used for Search).
      * - Same as getAllPlacesOrderedByDistance() but skips distance calculation.
      */
     public List<DreamPlace> getAllDreamPlaces() {
         List<DreamPlace> places = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
 
-        Cursor cursor = db.query(TABLE_NAME, null, null, null, null, null, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                int id = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_ID));
-                String name = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NAME));
-                String city = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_CITY));
-                String notes = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NOTES));
-                double lat = cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_LAT));
-                double lng = cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_LNG));
-                String photosStr = cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_PHOTOS));
-                boolean visited = cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_VISITED)) == 1;
-                float rating = cursor.getFloat(cursor.getColumnIndexOrThrow(COLUMN_RATING));
-
-                List<String> photoPaths = photosStr == null || photosStr.isEmpty()
-                        ? new ArrayList<>()
-                        : Arrays.asList(photosStr.split(","));
-
-                DreamPlace place = new DreamPlace(photoPaths, name, city, "", visited, rating, lat, lng, notes);
-                place.setId(String.valueOf(id));
-                places.add(place);
-            } while (cursor.moveToNext());
-            cursor.close();
+        try (Cursor cursor = db.rawQuery(SELECT_SUMMARIES + " WHERE " + LIVE_ROWS, null)) {
+            SummaryColumns columns = new SummaryColumns(cursor);
+            while (cursor.moveToNext()) places.add(cursorToPlace(cursor, columns));
+        }
+
+        return places;
+    }
+
+    /**
+     * Load one place with every field (notes + full photo gallery), or null if it no longer exists.
+     * - Used when the detail screen opens; lists only carry summary fields.
+     */
+    public DreamPlace getDreamPlaceById(String placeId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        DreamPlace place = null;
+
+        try (Cursor cursor = db.query(TABLE_NAME, new String[]{COLUMN_ID, COLUMN_NAME, COLUMN_CITY, COLUMN_NOTES,
+                        COLUMN_LAT, COLUMN_LNG, COLUMN_VISITED, COLUMN_RATING},
+                COLUMN_ID + "=? AND " + LIVE_ROWS, new String[]{placeId}, null, null, null)) {
+            if (cursor.moveToFirst()) {
+                place = cursorToPlace(cursor, new SummaryColumns(cursor));
+                place.setNotes(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NOTES)));
+            }
+        }
+        if (place != null) place.setPhotoPaths(queryPhotoUris(db, Long.parseLong(placeId)));
+        return place;
+    }
+
+    /**
+     * Return the dream places inside the visible map region (used by Map view while panning).
+     * - Bounds crossing the antimeridian (southwest lng > northeast lng) are split in two.
+     */
+    public List<PlaceSummary> queryInBounds(LatLngBounds bounds) {
+        List<PlaceSummary> places = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        double minLng = bounds.southwest.longitude;
+        double maxLng = bounds.northeast.longitude;
+        if (minLng > maxLng) maxLng += 360;
+        List<String> args = new ArrayList<>();
+        String where = boxClause(db, lngBoxes(bounds.southwest.latitude, bounds.northeast.latitude,
+                minLng, maxLng), args);
+
+        try (Cursor cursor = db.rawQuery(SELECT_SUMMARIES + " WHERE " + LIVE_ROWS + " AND " + where,
+                args.toArray(new String[0]))) {
+            SummaryColumns columns = new SummaryColumns(cursor);
+            while (cursor.moveToNext()) places.add(cursorToSummary(cursor, columns));
+        }
+
+        return places;
+    }
+
+    /** Return the dream places within the given radius, nearest first ("near me" filter). */
+    public List<DreamPlace> queryWithinRadius(double lat, double lng, double meters) {
+        if (meters <= 0) return new ArrayList<>();
+        return getPlacesOrderedByDistance(lat, lng, meters, -1, 0);
+    }
+
+    /**
+     * Full-text search over name, city and notes, best matches first.
+     * - Every query word is matched as a prefix ("colo" finds "Colombo"), all words must match.
+     * - Matches are ranked by BM25 with name weighted above city above notes.
+     * - Only the top {@code limit} rows are loaded from the places table.
+     * - Cancelling the signal (a newer query superseded this one) aborts the running statement
+     *   with an OperationCanceledException.
+     */
+    public List<DreamPlace> searchPlaces(String query, int limit, @Nullable CancellationSignal cancellationSignal) {
+        return searchPlaces(query, null, null, limit, cancellationSignal);
+    }
+
+    /**
+     * Full-text search restricted by Search filters (PlaceFilter).
+     * - visited, the rating range and the within: box around origin are pushed into SQL
+     *   (idx_places_visited_rating / idx_places_rating, R*Tree or geohash ranges).
+     * - The rest (city, the exact radius) is checked per row with PlaceFilter.matches(),
+     *   reading on until limit rows passed.
+     * - Empty free text: every place meeting the conditions, nearest first when origin is known.
+     * - origin may be null (location unknown); within: is then ignored.
+     */
+    public List<DreamPlace> searchPlaces(String query, @Nullable PlaceFilter filter,
+                                         @Nullable GeoDistance.Origin origin, int limit,
+                                         @Nullable CancellationSignal cancellationSignal) {
+        List<DreamPlace> places = new ArrayList<>();
+        String match = toMatchExpression(query);
+        boolean filtered = filter != null && filter.hasConditions();
+        if ((match.isEmpty() && !filtered) || limit <= 0) return places;
+
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<String> args = new ArrayList<>();
+        String where = filtered ? filterClause(db, filter, origin, args) : LIVE_ROWS;
+
+        if (match.isEmpty()) {
+            StringBuilder sql = new StringBuilder(SELECT_SUMMARIES).append(" WHERE ").append(where);
+            if (origin != null) {
+                sql.append(" ORDER BY ").append(distanceScore(origin.getLatitude(), origin.getLongitude(), args))
+                        .append(" DESC");
+            }
+            try (Cursor cursor = db.rawQuery(sql.toString(), args.toArray(new String[0]), cancellationSignal)) {
+                collectMatching(cursor, filtered ? filter : null, origin, limit, places);
+            }
+            return places;
+        }
+
+        if (!hasFullTextIndex(db)) {
+            String like = likeContains(query.trim());
+            Collections.addAll(args, like, like, like);
+            // Rows failing the in-memory conditions must not use up the limit
+            try (Cursor cursor = db.rawQuery(SELECT_SUMMARIES + " WHERE " + where + " AND (" +
+                    COLUMN_NAME + " LIKE ? ESCAPE '\\' OR " + COLUMN_CITY + " LIKE ? ESCAPE '\\' OR " +
+                    COLUMN_NOTES + " LIKE ? ESCAPE '\\')" +
+                    (filtered ? "" : " LIMIT " + limit), args.toArray(new String[0]), cancellationSignal)) {
+                collectMatching(cursor, filtered ? filter : null, origin, limit, places);
+            }
+            return places;
+        }
+
+        // Score every match from its matchinfo blob (docid + ints only, no row text is read)
+        String candidates = filtered
+                ? "docid IN (SELECT " + COLUMN_ID + " FROM " + TABLE_NAME + " WHERE " + where + ")"
+                : "docid NOT IN (SELECT " + COLUMN_ID + " FROM " + TABLE_NAME + " WHERE " +
+                        COLUMN_DELETED_AT + " IS NOT NULL)";
+        args.add(0, match);
+        Map<Long, Double> scores = new HashMap<>();
+        try (Cursor cursor = db.rawQuery("SELECT docid, matchinfo(" + FTS_TABLE_NAME + ", 'pcnalx') FROM " +
+                FTS_TABLE_NAME + " WHERE " + FTS_TABLE_NAME + " MATCH ? AND " + candidates,
+                args.toArray(new String[0]), cancellationSignal)) {
+            while (cursor.moveToNext()) scores.put(cursor.getLong(0), bm25(cursor.getBlob(1)));
+        }
+        List<Long> ranked = new ArrayList<>(scores.keySet());
+        Collections.sort(ranked, (a, b) -> Double.compare(scores.get(b), scores.get(a)));
+
+        // Load the winning rows a page at a time; unfiltered, the first page is always enough
+        for (int from = 0; from < ranked.size() && places.size() < limit; from += limit) {
+            List<Long> page = ranked.subList(from, Math.min(ranked.size(), from + limit));
+            for (DreamPlace place : loadRanked(db, page, cancellationSignal)) {
+                if (places.size() == limit) break;
+                if (!filtered || filter.matches(place, origin)) places.add(place);
+            }
+        }
+        return places;
+    }
+
+    /**
+     * WHERE clause for the PlaceFilter conditions SQLite can evaluate: live rows, visited,
+     * the rating range and the within: box around origin.
+     */
+    private String filterClause(SQLiteDatabase db, PlaceFilter filter, @Nullable GeoDistance.Origin origin,
+                                List<String> args) {
+        StringBuilder clause = new StringBuilder(LIVE_ROWS);
+        Boolean visited = filter.getVisited();
+        if (visited != null) {
+            clause.append(" AND ").append(COLUMN_VISITED).append(" = ?");
+            args.add(visited ? "1" : "0");
+        }
+        // Ratings are bound as widened floats, so bounds are widened the same way
+        if (filter.hasMinRating()) {
+            clause.append(" AND ").append(COLUMN_RATING)
+                    .append(filter.isMinRatingInclusive() ? " >= " : " > ").append("CAST(? AS REAL)");
+            args.add(String.valueOf((double) filter.getMinRating()));
+        }
+        if (filter.hasMaxRating()) {
+            clause.append(" AND ").append(COLUMN_RATING)
+                    .append(filter.isMaxRatingInclusive() ? " <= " : " < ").append("CAST(? AS REAL)");
+            args.add(String.valueOf((double) filter.getMaxRating()));
+        }
+        if (filter.getWithinMeters() > 0 && origin != null) {
+            clause.append(" AND ").append(radiusClause(db, origin.getLatitude(), origin.getLongitude(),
+                    filter.getWithinMeters(), args));
+        }
+        return clause.toString();
+    }
+
+    /** Read summary rows into places until limit, skipping rows the filter (if any) rejects. */
+    private static void collectMatching(Cursor cursor, @Nullable PlaceFilter filter,
+                                        @Nullable GeoDistance.Origin origin, int limit, List<DreamPlace> places) {
+        SummaryColumns columns = new SummaryColumns(cursor);
+        while (places.size() < limit && cursor.moveToNext()) {
+            DreamPlace place = cursorToPlace(cursor, columns);
+            if (filter == null || filter.matches(place, origin)) places.add(place);
+        }
+    }
+
+    /** Load the summary rows of the given IDs, in the given (rank) order. */
+    private List<DreamPlace> loadRanked(SQLiteDatabase db, List<Long> ranked,
+                                        @Nullable CancellationSignal cancellationSignal) {
+        Map<Long, Integer> rankById = new HashMap<>();
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < ranked.size(); i++) {
+            long id = ranked.get(i);
+            rankById.put(id, i);
+            if (i > 0) ids.append(',');
+            ids.append(id);
+        }
+        DreamPlace[] ordered = new DreamPlace[ranked.size()];
+        try (Cursor cursor = db.rawQuery(SELECT_SUMMARIES + " WHERE " + LIVE_ROWS + " AND " + COLUMN_ID +
+                " IN (" + ids + ")", null, cancellationSignal)) {
+            SummaryColumns columns = new SummaryColumns(cursor);
+            while (cursor.moveToNext()) {
+                DreamPlace place = cursorToPlace(cursor, columns);
+                Integer rank = rankById.get(Long.parseLong(place.getId()));
+                if (rank != null) ordered[rank] = place;
+            }
         }
 
-        db.close();
+        List<DreamPlace> places = new ArrayList<>(ordered.length);
+        for (DreamPlace place : ordered) {
+            if (place != null) places.add(place);
+        }
         return places;
     }
-}
\ No newline at end of file
+
+    /** LIKE pattern (used with ESCAPE '\') matching text anywhere; %, _ and \ in text match literally. */
+    static String likeContains(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    /** Turn free text into an FTS MATCH expression: each word becomes a quoted prefix term. */
+    private static String toMatchExpression(String query) {
+        if (query == null) return "";
+        StringBuilder match = new StringBuilder();
+        for (String word : query.trim().split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append('"').append(word).append("\"*");
+        }
+        return match.toString();
+    }
+
+    /**
+     * BM25 from an FTS4 matchinfo('pcnalx') blob.
+     * Layout (32-bit ints): p, c, n, a[c], l[c], then x[p][c][3] = {hits in row, hits in all rows, rows with hits}.
+     */
+    private static double bm25(byte[] matchInfo) {
+        IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = info.get(0);
+        int columns = info.get(1);
+        double totalDocs = info.get(2);
+        int avgOffset = 3;
+        int lenOffset = avgOffset + columns;
+        int hitsOffset = lenOffset + columns;
+
+        double score = 0;
+        for (int p = 0; p < phrases; p++) {
+            for (int c = 0; c < columns; c++) {
+                int x = hitsOffset + 3 * (p * columns + c);
+                double hitsInRow = info.get(x);
+                if (hitsInRow == 0) continue;
+                double docsWithHits = info.get(x + 2);
+                double idf = Math.max(1e-6, Math.log((totalDocs - docsWithHits + 0.5) / (docsWithHits + 0.5)));
+                double avgLength = Math.max(1, info.get(avgOffset + c));
+                double length = info.get(lenOffset + c);
+                double tf = hitsInRow * (BM25_K1 + 1)
+                        / (hitsInRow + BM25_K1 * (1 - BM25_B + BM25_B * length / avgLength));
+                double weight = c < FTS_COLUMN_WEIGHTS.length ? FTS_COLUMN_WEIGHTS[c] : 1.0;
+                score += weight * idf * tf;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Column positions of the summary projection, resolved once per cursor
+     * (instead of getColumnIndexOrThrow for every column of every row).
+     */
+    private static final class SummaryColumns {
+        final int id, name, city, lat, lng, visited, rating, cover;
+
+        SummaryColumns(Cursor cursor) {
+            id = cursor.getColumnIndexOrThrow(COLUMN_ID);
+            name = cursor.getColumnIndexOrThrow(COLUMN_NAME);
+            city = cursor.getColumnIndexOrThrow(COLUMN_CITY);
+            lat = cursor.getColumnIndexOrThrow(COLUMN_LAT);
+            lng = cursor.getColumnIndexOrThrow(COLUMN_LNG);
+            visited = cursor.getColumnIndexOrThrow(COLUMN_VISITED);
+            rating = cursor.getColumnIndexOrThrow(COLUMN_RATING);
+            cover = cursor.getColumnIndex(COLUMN_COVER_PHOTO); // -1 when not projected
+        }
+    }
+
+    /** Convert the current summary row into a PlaceSummary (map markers). */
+    private static PlaceSummary cursorToSummary(Cursor cursor, SummaryColumns columns) {
+        return new PlaceSummary(
+                String.valueOf(cursor.getLong(columns.id)),
+                cursor.getString(columns.name),
+                cursor.getString(columns.city),
+                cursor.getDouble(columns.lat),
+                cursor.getDouble(columns.lng),
+                cursor.getInt(columns.visited) == 1,
+                cursor.getFloat(columns.rating),
+                columns.cover != -1 && !cursor.isNull(columns.cover) ? cursor.getString(columns.cover) : null);
+    }
+
+    /**
+     * Convert the current summary row into a list-row DreamPlace (no distance).
+     * - Notes are not loaded and photoPaths holds only the cover photo;
+     *   use getDreamPlaceById() for the full place.
+     */
+    private static DreamPlace cursorToPlace(Cursor cursor, SummaryColumns columns) {
+        List<String> photoPaths = new ArrayList<>();
+        if (columns.cover != -1 && !cursor.isNull(columns.cover)) photoPaths.add(cursor.getString(columns.cover));
+
+        DreamPlace place = new DreamPlace(photoPaths, cursor.getString(columns.name), cursor.getString(columns.city),
+                Double.NaN, cursor.getInt(columns.visited) == 1, cursor.getFloat(columns.rating),
+                cursor.getDouble(columns.lat), cursor.getDouble(columns.lng), null);
+        place.setId(String.valueOf(cursor.getLong(columns.id)));
+        return place;
+    }
+}
@@ -0,0 +1,92 @@
+package com.s92086882.mydreamplacewishlist;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash-based queries over a user's dream_places collection (logged-in mode).
+ * -
+ * Responsibilities:
+ * - nearby(): one orderBy("geohash").startAt().endAt() query per Geohash range, run in parallel,
+ *   merged and trimmed to the exact radius, so only the neighbourhood is downloaded.
+ * - backfill(): writes the geohash field into documents saved before it existed.
+ * -
+ * Notes:
+ * - Documents without a geohash are invisible to nearby(); callers must backfill first.
+ * - The geohash range queries only need Firestore's automatic single-field index.
+ */
+public final class FirestoreGeoQueries {
+
+    public static final String FIELD_GEOHASH = "geohash";
+
+    // Firestore rejects write batches with more than 500 operations
+    private static final int MAX_BATCH_WRITES = 500;
+
+    private FirestoreGeoQueries() {}
+
+    /** Documents within radiusMeters of (lat, lng), in no particular order. */
+    public static Task<List<DocumentSnapshot>> nearby(CollectionReference places, double lat, double lng,
+                                                     double radiusMeters) {
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (Geohash.Range range : Geohash.nearbyRanges(lat, lng, radiusMeters)) {
+            queries.add(places.orderBy(FIELD_GEOHASH).startAt(range.start).endAt(range.end).get());
+        }
+        GeoDistance.Origin origin = new GeoDistance.Origin(lat, lng);
+        return Tasks.<QuerySnapshot>whenAllSuccess(queries).continueWith(task -> {
+            List<DocumentSnapshot> within = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (QuerySnapshot snapshot : task.getResult()) {
+                for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                    // Ranges cover whole cells: drop duplicates and the corners outside the circle
+                    if (!seen.add(doc.getId()) || !isWithin(doc, origin, radiusMeters)) continue;
+                    within.add(doc);
+                }
+            }
+            return within;
+        });
+    }
+
+    /** Whether a document lies within radiusMeters of the origin (false without coordinates). */
+    private static boolean isWithin(DocumentSnapshot doc, GeoDistance.Origin origin, double radiusMeters) {
+        Double lat = doc.getDouble("latitude");
+        Double lng = doc.getDouble("longitude");
+        return lat != null && lng != null && GeoDistance.haversineMeters(origin, lat, lng) <= radiusMeters;
+    }
+
+    /**
+     * Write a geohash into every document of the snapshot that lacks one (or has a stale one).
+     * - Batched writes, at most MAX_BATCH_WRITES per commit; completes when all batches committed.
+     */
+    public static Task<Void> backfill(CollectionReference places, QuerySnapshot snapshot) {
+        FirebaseFirestore firestore = places.getFirestore();
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = firestore.batch();
+        int writes = 0;
+        for (DocumentSnapshot doc : snapshot.getDocuments()) {
+            Double lat = doc.getDouble("latitude");
+            Double lng = doc.getDouble("longitude");
+            if (lat == null || lng == null) continue;
+            String geohash = Geohash.encode(lat, lng);
+            if (geohash.equals(doc.getString(FIELD_GEOHASH))) continue;
+
+            batch.update(doc.getReference(), FIELD_GEOHASH, geohash);
+            if (++writes == MAX_BATCH_WRITES) {
+                commits.add(batch.commit());
+                batch = firestore.batch();
+                writes = 0;
+            }
+        }
+        if (writes > 0) commits.add(batch.commit());
+        return Tasks.whenAll(commits);
+    }
+}
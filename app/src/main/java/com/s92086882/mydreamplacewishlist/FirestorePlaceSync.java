@@ -0,0 +1,361 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One long-lived snapshot listener on the signed-in user's dream_places collection, for the session.
+ * -
+ * Responsibilities:
+ * - start(): attaches the listener once per user; Home, Map and Search all call it, later calls are no-ops.
+ * - Read policy (SharedPreferencesHelper): CACHE_THEN_SERVER publishes the listener's first,
+ *   cache-only snapshot (Firestore's persistent cache, no network), and the server snapshot then
+ *   arrives as changes to it; SERVER skips cache-only snapshots until the server has answered.
+ * - The first data builds the user's PlaceSpatialIndex and publishes it (SharedPlaceIndex);
+ *   every later snapshot applies only its DocumentChanges (added / modified / removed).
+ * - A listener re-attached for the same user (after an error) reconciles its first snapshot with
+ *   the places still published, so screens patch rows instead of redrawing.
+ * - Tells observers (the open screens) after each applied snapshot.
+ * - Counts documents served from the cache vs the server, and the time to each first result (readStats()).
+ * - Writes the geohash into older documents after the first server snapshot (once per user).
+ * -
+ * Notes:
+ * - Reads are billed once for the collection, then per changed document, instead of per screen visit.
+ * - Local writes reach the listener before the server confirms them, so screens no longer
+ *   reload or patch the shared index after an add, edit or delete.
+ * - Callbacks run on the main thread, like every Firestore listener here.
+ * - stop() on sign-out; a listener that failed (e.g. permission denied) is dropped and
+ *   re-attached by the next start().
+ * - The cache itself is configured (persistent, bounded size) in DreamPlaceApplication.
+ */
+public final class FirestorePlaceSync {
+
+    private static final String TAG = "FirestorePlaceSync";
+
+    /** How the places are first shown when the listener starts. */
+    public enum ReadPolicy {
+        /** Show the cached places at once (even offline), then reconcile with the server. */
+        CACHE_THEN_SERVER,
+        /** Wait for the server before showing anything (cache-only snapshots are skipped until then). */
+        SERVER
+    }
+
+    /** Receives every applied snapshot. */
+    public interface Observer {
+        /**
+         * @param index      the user's places after the snapshot (also published in SharedPlaceIndex)
+         * @param complete   true when index replaces the data set (first data): redraw everything
+         * @param changed    places added or modified (every place when complete)
+         * @param deletedIds IDs of places that no longer exist (or are no longer complete list rows)
+         */
+        void onPlacesSynced(PlaceSpatialIndex index, boolean complete, List<DreamPlace> changed,
+                            Set<String> deletedIds);
+    }
+
+    /**
+     * Read counters since the listener started (documents delivered, not billed reads).
+     * - The first snapshot from each source counts every document in it, later ones their changed documents.
+     */
+    public static final class ReadStats {
+        public final int cacheDocuments;
+        public final int serverDocuments;
+        public final long firstCacheMillis;  // start() → rows shown from a cache-only snapshot, -1 if never
+        public final long firstServerMillis; // start() → first server snapshot, -1 if none yet
+
+        ReadStats(int cacheDocuments, int serverDocuments, long firstCacheMillis, long firstServerMillis) {
+            this.cacheDocuments = cacheDocuments;
+            this.serverDocuments = serverDocuments;
+            this.firstCacheMillis = firstCacheMillis;
+            this.firstServerMillis = firstServerMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "cache=" + cacheDocuments + " docs (first " + firstCacheMillis + " ms), server="
+                    + serverDocuments + " docs (first " + firstServerMillis + " ms)";
+        }
+    }
+
+    /** What the sync reads from a listener snapshot (a QuerySnapshot in the app). */
+    interface SnapshotView {
+        boolean isFromCache();
+
+        int size();
+
+        /** List rows of every complete document. */
+        List<DreamPlace> rows();
+
+        /**
+         * Rows added or modified since the previous snapshot into changed, removed (or no longer
+         * complete) IDs into deletedIds. Returns the number of changed documents.
+         */
+        int collectChanges(List<DreamPlace> changed, Set<String> deletedIds);
+    }
+
+    private static final FirestorePlaceSync INSTANCE = new FirestorePlaceSync();
+
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+
+    private String uid;
+    private ListenerRegistration registration;
+    private int generation = 0;          // bumped by stop(); callbacks of an older listener are dropped
+    private boolean listening = false;   // the listener delivered its first (used) snapshot
+    private boolean backfilling = false; // geohash backfill already started by this listener
+    private final Map<String, DreamPlace> rows = new HashMap<>(); // published rows by ID, for diffs
+
+    // Read metrics of the current listener
+    private long startedAt;
+    private int cacheDocuments;
+    private int serverDocuments;
+    private long firstCacheMillis = -1;
+    private long firstServerMillis = -1;
+
+    private FirestorePlaceSync() {}
+
+    public static FirestorePlaceSync getInstance() {
+        return INSTANCE;
+    }
+
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /** Listen to uid's places for the rest of the session (no-op if already listening to them). */
+    public void start(Context context, String uid) {
+        if (registration != null && uid.equals(this.uid)) return;
+        begin(uid);
+        final int started = generation;
+        Context appContext = context.getApplicationContext();
+        ReadPolicy policy = SharedPreferencesHelper.getFirestoreReadPolicy(appContext);
+        CollectionReference places = FirebaseFirestore.getInstance().collection("users")
+                .document(uid)
+                .collection("dream_places");
+
+        // Metadata changes too, so the cache → server handover is seen even when no document changed.
+        // The first snapshot comes from the persistent cache when it holds the query (no network).
+        registration = places.addSnapshotListener(MetadataChanges.INCLUDE, (snapshot, error) -> {
+            if (started != generation) return;
+            if (error != null) {
+                // Firestore ends a listener after an error; let the next start() attach a new one
+                Log.w(TAG, "Place listener failed", error);
+                stop();
+                return;
+            }
+            if (snapshot == null) return;
+            backfillGeohashes(appContext, places, uid, snapshot);
+            onSnapshot(uid, policy, new QuerySnapshotView(snapshot));
+        });
+    }
+
+    /**
+     * Reset the counters and state for a new listener on uid's places.
+     * - Rows still published for uid are kept, so the first snapshot is diffed against them.
+     */
+    void begin(String uid) {
+        stop();
+        this.uid = uid;
+        startedAt = SystemClock.elapsedRealtime();
+        PlaceSpatialIndex published = SharedPlaceIndex.getInstance().get(SharedPlaceIndex.userDataSet(uid));
+        if (published != null) {
+            for (DreamPlace place : published.all()) rows.put(place.getId(), place);
+        }
+    }
+
+    /** Detach the listener (sign-out). */
+    public void stop() {
+        if (registration != null) registration.remove();
+        registration = null;
+        uid = null;
+        generation++;
+        listening = false;
+        backfilling = false;
+        rows.clear();
+        cacheDocuments = 0;
+        serverDocuments = 0;
+        firstCacheMillis = -1;
+        firstServerMillis = -1;
+    }
+
+    /** Cache vs server read counters of the current listener. */
+    public ReadStats readStats() {
+        return new ReadStats(cacheDocuments, serverDocuments, firstCacheMillis, firstServerMillis);
+    }
+
+    // ----- Internals -----
+
+    /** Older documents get their geohash once, after the first server snapshot (writes come back as modifications). */
+    private void backfillGeohashes(Context context, CollectionReference places, String uid, QuerySnapshot snapshot) {
+        if (backfilling || snapshot.getMetadata().isFromCache()
+                || SharedPreferencesHelper.isGeohashBackfilled(context, uid)) return;
+        backfilling = true;
+        FirestoreGeoQueries.backfill(places, snapshot).addOnSuccessListener(unused ->
+                SharedPreferencesHelper.setGeohashBackfilled(context, uid));
+    }
+
+    /** Apply one listener snapshot under the read policy (called on the main thread). */
+    void onSnapshot(String uid, ReadPolicy policy, SnapshotView snapshot) {
+        boolean fromCache = snapshot.isFromCache();
+        // SERVER policy: the first server snapshot holds everything, cache-only ones are skipped
+        if (!listening && policy == ReadPolicy.SERVER && fromCache) return;
+
+        boolean firstFromServer = !fromCache && firstServerMillis < 0;
+        if (firstFromServer) firstServerMillis = SystemClock.elapsedRealtime() - startedAt;
+
+        if (!listening) {
+            listening = true;
+            if (fromCache) {
+                cacheDocuments += snapshot.size();
+                firstCacheMillis = SystemClock.elapsedRealtime() - startedAt;
+            } else {
+                serverDocuments += snapshot.size();
+                Log.d(TAG, "First server snapshot: " + readStats());
+            }
+            List<DreamPlace> all = snapshot.rows();
+            if (rows.isEmpty()) {
+                publishAll(uid, all);
+            } else {
+                reconcile(uid, all); // re-attached: these places are on screen, patch only what differs
+            }
+            return;
+        }
+
+        // Later snapshots: only their changes (none for a metadata-only one)
+        List<DreamPlace> changed = new ArrayList<>();
+        Set<String> deletedIds = new HashSet<>();
+        int changedDocuments = snapshot.collectChanges(changed, deletedIds);
+        if (firstFromServer) {
+            // The cache → server handover: the server delivered every document, changed or not
+            serverDocuments += snapshot.size();
+            Log.d(TAG, "First server snapshot: " + readStats());
+        } else if (fromCache) {
+            cacheDocuments += changedDocuments;
+        } else {
+            serverDocuments += changedDocuments;
+        }
+        applyChanges(uid, changed, deletedIds);
+    }
+
+    /** Publish a complete data set and tell observers to redraw. */
+    private void publishAll(String uid, List<DreamPlace> places) {
+        rows.clear();
+        for (DreamPlace place : places) rows.put(place.getId(), place);
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        SharedPlaceIndex.getInstance().publish(SharedPlaceIndex.userDataSet(uid), index);
+        notifyObservers(index, true, places, Collections.emptySet());
+    }
+
+    /** Diff a complete result against the published rows and apply only the differences. */
+    private void reconcile(String uid, List<DreamPlace> places) {
+        List<DreamPlace> changed = new ArrayList<>();
+        Set<String> deletedIds = new HashSet<>(rows.keySet());
+        for (DreamPlace place : places) {
+            deletedIds.remove(place.getId());
+            DreamPlace shown = rows.get(place.getId());
+            if (shown == null || !sameRow(shown, place)) changed.add(place);
+        }
+        applyChanges(uid, changed, deletedIds);
+    }
+
+    /** Apply changes to the rows and the shared index, then tell observers (nothing to do if empty). */
+    private void applyChanges(String uid, List<DreamPlace> changed, Set<String> deletedIds) {
+        if (changed.isEmpty() && deletedIds.isEmpty()) return;
+        for (String id : deletedIds) rows.remove(id);
+        for (DreamPlace place : changed) rows.put(place.getId(), place);
+
+        String dataSet = SharedPlaceIndex.userDataSet(uid);
+        SharedPlaceIndex shared = SharedPlaceIndex.getInstance();
+        shared.applyChanges(dataSet, changed, deletedIds);
+        PlaceSpatialIndex index = shared.get(dataSet);
+        if (index == null) {
+            // Another data set took the holder over meanwhile: publish ours again in full
+            publishAll(uid, new ArrayList<>(rows.values()));
+            return;
+        }
+        notifyObservers(index, false, changed, deletedIds);
+    }
+
+    private void notifyObservers(PlaceSpatialIndex index, boolean complete, List<DreamPlace> changed,
+                                 Set<String> deletedIds) {
+        List<DreamPlace> changedRows = Collections.unmodifiableList(changed);
+        Set<String> deleted = Collections.unmodifiableSet(deletedIds);
+        for (Observer observer : observers) observer.onPlacesSynced(index, complete, changedRows, deleted);
+    }
+
+    /** Whether two list rows of the same place show the same data. */
+    static boolean sameRow(DreamPlace a, DreamPlace b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCity(), b.getCity())
+                && Objects.equals(a.getNotes(), b.getNotes())
+                && a.getLatitude() == b.getLatitude()
+                && a.getLongitude() == b.getLongitude()
+                && a.isVisited() == b.isVisited()
+                && a.getRating() == b.getRating()
+                && Objects.equals(a.getPhotoPaths(), b.getPhotoPaths());
+    }
+
+    /** SnapshotView of a listener's QuerySnapshot. */
+    private static final class QuerySnapshotView implements SnapshotView {
+        private final QuerySnapshot snapshot;
+
+        QuerySnapshotView(QuerySnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean isFromCache() {
+            return snapshot.getMetadata().isFromCache();
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public List<DreamPlace> rows() {
+            return SharedPlaceIndex.listRows(snapshot.getDocuments());
+        }
+
+        @Override
+        public int collectChanges(List<DreamPlace> changed, Set<String> deletedIds) {
+            List<DocumentChange> changes = snapshot.getDocumentChanges();
+            for (DocumentChange change : changes) {
+                DocumentSnapshot doc = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    deletedIds.add(doc.getId());
+                    continue;
+                }
+                List<DreamPlace> docRows = SharedPlaceIndex.listRows(Collections.singletonList(doc));
+                if (docRows.isEmpty()) {
+                    deletedIds.add(doc.getId()); // edited into an incomplete document
+                } else {
+                    changed.addAll(docRows);
+                }
+            }
+            return changes.size();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.s92086882.mydreamplacewishlist;
+
+/**
+ * Pure-Java distance kernel in three tiers, cheapest first.
+ * -
+ * Tiers:
+ * - Equirectangular: flat-earth approximation, one cos per origin. Error stays below 0.05%
+ *   within ~10 km (up to 60° latitude), so it suits short-range checks such as "has the user moved?".
+ * - Haversine (sphere): what lists display. Up to ~0.6% off the ellipsoid, far below the
+ *   "2.5 km away" display precision. haversineKey() orders exactly like it without sqrt/asin,
+ *   which is what sorting and top-K use.
+ * - Vincenty (WGS-84 ellipsoid): millimeter accuracy, iterative; only for on-demand exact values
+ *   (the distance in a tapped map marker's info window).
+ * -
+ * Notes:
+ * - Origin precomputes the per-fix trig (sin/cos of the user's latitude) once per location fix.
+ * - No allocation per call (unlike Location.distanceBetween, which needs a float[]).
+ */
+public final class GeoDistance {
+
+    // Mean Earth radius (IUGG), same value as the SQLite distance ranking
+    public static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    // WGS-84 ellipsoid
+    private static final double WGS84_A = 6378137.0;
+    private static final double WGS84_F = 1 / 298.257223563;
+    private static final double WGS84_B = WGS84_A * (1 - WGS84_F);
+
+    private GeoDistance() {}
+
+    /** A location fix with its trig precomputed; create one per fix, reuse for every place. */
+    public static final class Origin {
+        final double latRad;
+        final double lngRad;
+        final double cosLat;
+        final double latitude;
+        final double longitude;
+
+        public Origin(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.latRad = Math.toRadians(latitude);
+            this.lngRad = Math.toRadians(longitude);
+            this.cosLat = Math.cos(latRad);
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+    }
+
+    // ----- Tier 1: equirectangular -----
+
+    /** Flat-earth distance in meters around the origin (short ranges only). */
+    public static double equirectangularMeters(Origin origin, double lat, double lng) {
+        double x = wrapRadians(Math.toRadians(lng) - origin.lngRad) * origin.cosLat;
+        double y = Math.toRadians(lat) - origin.latRad;
+        return EARTH_RADIUS_METERS * Math.sqrt(x * x + y * y);
+    }
+
+    // ----- Tier 2: haversine -----
+
+    /**
+     * Ranking key: sin²(Δφ/2) + cosφ1·cosφ2·sin²(Δλ/2), in [0, 1].
+     * Monotonic in great-circle distance, so sorting by it equals sorting by haversineMeters.
+     * @param cosLat cos of the place's latitude (callers with many rows can precompute it)
+     */
+    public static double haversineKey(Origin origin, double lat, double lng, double cosLat) {
+        double sinDLat = Math.sin((Math.toRadians(lat) - origin.latRad) / 2);
+        double sinDLng = Math.sin((Math.toRadians(lng) - origin.lngRad) / 2);
+        return sinDLat * sinDLat + origin.cosLat * cosLat * sinDLng * sinDLng;
+    }
+
+    /** Convert a haversineKey into meters. */
+    public static double keyToMeters(double key) {
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(Math.min(1.0, Math.max(0.0, key))));
+    }
+
+    /** Great-circle distance in meters (what list rows display). */
+    public static double haversineMeters(Origin origin, double lat, double lng) {
+        return keyToMeters(haversineKey(origin, lat, lng, Math.cos(Math.toRadians(lat))));
+    }
+
+    // ----- Tier 3: Vincenty -----
+
+    /**
+     * Ellipsoidal (WGS-84) distance in meters by Vincenty's inverse formula.
+     * - Falls back to haversine for nearly antipodal points, where the iteration does not converge.
+     */
+    public static double vincentyMeters(double lat1, double lng1, double lat2, double lng2) {
+        double l = Math.toRadians(lng2 - lng1);
+        double u1 = Math.atan((1 - WGS84_F) * Math.tan(Math.toRadians(lat1)));
+        double u2 = Math.atan((1 - WGS84_F) * Math.tan(Math.toRadians(lat2)));
+        double sinU1 = Math.sin(u1), cosU1 = Math.cos(u1);
+        double sinU2 = Math.sin(u2), cosU2 = Math.cos(u2);
+
+        double lambda = l;
+        for (int iteration = 0; iteration < 100; iteration++) {
+            double sinLambda = Math.sin(lambda), cosLambda = Math.cos(lambda);
+            double sinSigma = Math.sqrt((cosU2 * sinLambda) * (cosU2 * sinLambda) +
+                    (cosU1 * sinU2 - sinU1 * cosU2 * cosLambda) * (cosU1 * sinU2 - sinU1 * cosU2 * cosLambda));
+            if (sinSigma == 0) return 0; // same point
+
+            double cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            double sigma = Math.atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            double cosSqAlpha = 1 - sinAlpha * sinAlpha;
+            double cos2SigmaM = cosSqAlpha != 0 ? cosSigma - 2 * sinU1 * sinU2 / cosSqAlpha : 0; // equatorial line
+            double c = WGS84_F / 16 * cosSqAlpha * (4 + WGS84_F * (4 - 3 * cosSqAlpha));
+            double previous = lambda;
+            lambda = l + (1 - c) * WGS84_F * sinAlpha *
+                    (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+
+            if (Math.abs(lambda - previous) < 1e-12) {
+                double uSq = cosSqAlpha * (WGS84_A * WGS84_A - WGS84_B * WGS84_B) / (WGS84_B * WGS84_B);
+                double a = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+                double b = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+                double deltaSigma = b * sinSigma * (cos2SigmaM + b / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM) -
+                        b / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+                return WGS84_B * a * (sigma - deltaSigma);
+            }
+        }
+        return haversineMeters(new Origin(lat1, lng1), lat2, lng2);
+    }
+
+    /** Wrap an angle difference into [-π, π] so the antimeridian is crossed the short way. */
+    private static double wrapRadians(double radians) {
+        if (radians > Math.PI) return radians - 2 * Math.PI;
+        if (radians < -Math.PI) return radians + 2 * Math.PI;
+        return radians;
+    }
+}
@@ -0,0 +1,171 @@
+package com.s92086882.mydreamplacewishlist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Geohash encoding and "nearby" prefix ranges, shared by SQLite and Firestore.
+ * -
+ * Responsibilities:
+ * - encode(): base32 geohash of a point; places store it at PRECISION (9 chars, ~4.8 m × 4.8 m cells).
+ * - nearbyRanges(): the geohash ranges whose cells cover a circle, so a nearby query becomes
+ *   a handful of indexed range scans (SQLite BETWEEN, Firestore orderBy().startAt().endAt()).
+ *   Cells are chosen as fine as MAX_CELLS allows, so little outside the circle is scanned.
+ * -
+ * Notes:
+ * - Ranges are a prefilter: they cover the circle but also the corners of their cells,
+ *   so callers still apply an exact distance test.
+ * - A range end is its prefix + '~', which sorts after every base32 character.
+ */
+public final class Geohash {
+
+    // Stored precision: cells of ~4.8 m, finer than the location picker can place a pin
+    public static final int PRECISION = 9;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] BASE32_INDEX = new int[128];
+    private static final char RANGE_END = '~';
+
+    // Upper bound on cells per nearby query; Firestore runs one query per merged range
+    private static final int MAX_CELLS = 16;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * GeoDistance.EARTH_RADIUS_METERS;
+
+    static {
+        for (int i = 0; i < BASE32.length; i++) BASE32_INDEX[BASE32[i]] = i;
+    }
+
+    private Geohash() {}
+
+    /** One prefix range [start, end] of geohash strings (both inclusive). */
+    public static final class Range {
+        public final String start;
+        public final String end;
+
+        /** Every hash starting with a prefix from firstPrefix to lastPrefix (same length). */
+        Range(String firstPrefix, String lastPrefix) {
+            this.start = firstPrefix;
+            this.end = lastPrefix + RANGE_END;
+        }
+    }
+
+    /** Geohash of a point at the stored PRECISION. */
+    public static String encode(double lat, double lng) {
+        return encode(lat, lng, PRECISION);
+    }
+
+    /** Geohash of a point: bits alternate longitude/latitude (longitude first), 5 bits per char. */
+    public static String encode(double lat, double lng, int precision) {
+        char[] hash = new char[precision];
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        boolean lngBit = true;
+        int bits = 0, value = 0, length = 0;
+        while (length < precision) {
+            if (lngBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) {
+                    value = (value << 1) | 1;
+                    minLng = mid;
+                } else {
+                    value <<= 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            lngBit = !lngBit;
+            if (++bits == 5) {
+                hash[length++] = BASE32[value];
+                bits = 0;
+                value = 0;
+            }
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Sorted prefix ranges whose cells cover a circle around (lat, lng).
+     * - Picks the finest precision at which the circle's bounding box needs at most MAX_CELLS cells,
+     *   then merges cells that are consecutive in geohash order into one range.
+     * - Circles reaching a pole or wrapping the globe get a single range over everything.
+     */
+    public static List<Range> nearbyRanges(double lat, double lng, double radiusMeters) {
+        List<Range> ranges = new ArrayList<>();
+        double dLat = radiusMeters / METERS_PER_DEGREE;
+        double minLat = lat - dLat, maxLat = lat + dLat;
+        double dLng = minLat <= -90 || maxLat >= 90 ? 180
+                : dLat / Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        if (dLng >= 180) {
+            ranges.add(new Range("", ""));
+            return ranges;
+        }
+
+        for (int precision = PRECISION; precision >= 1; precision--) {
+            double cellLat = cellHeightDegrees(precision);
+            double cellLng = cellWidthDegrees(precision);
+            long rows = (long) Math.ceil(2 * dLat / cellLat) + 1;
+            long columns = (long) Math.ceil(2 * dLng / cellLng) + 1;
+            if (rows * columns > MAX_CELLS && precision > 1) continue;
+
+            TreeSet<String> cells = new TreeSet<>();
+            for (long row = 0; row < rows; row++) {
+                double cellCenterLat = Math.min(maxLat, minLat + row * cellLat);
+                for (long column = 0; column < columns; column++) {
+                    double cellCenterLng = Math.min(lng + dLng, lng - dLng + column * cellLng);
+                    cells.add(encode(cellCenterLat, wrapLongitude(cellCenterLng), precision));
+                }
+            }
+            return merge(cells);
+        }
+        return ranges;
+    }
+
+    /** Collapse sorted same-length cells into ranges, joining runs of consecutive geohash values. */
+    private static List<Range> merge(TreeSet<String> cells) {
+        List<Range> ranges = new ArrayList<>();
+        String runStart = null, runEnd = null;
+        for (String cell : cells) {
+            if (runEnd != null && value(cell) == value(runEnd) + 1) {
+                runEnd = cell;
+                continue;
+            }
+            if (runStart != null) ranges.add(new Range(runStart, runEnd));
+            runStart = runEnd = cell;
+        }
+        if (runStart != null) ranges.add(new Range(runStart, runEnd));
+        return ranges;
+    }
+
+    /** Numeric value of a geohash (5 bits per char). */
+    private static long value(String hash) {
+        long value = 0;
+        for (int i = 0; i < hash.length(); i++) {
+            value = (value << 5) | BASE32_INDEX[hash.charAt(i)];
+        }
+        return value;
+    }
+
+    private static double cellHeightDegrees(int precision) {
+        int latBits = precision * 5 / 2;
+        return 180.0 / (1L << latBits);
+    }
+
+    private static double cellWidthDegrees(int precision) {
+        int lngBits = precision * 5 - precision * 5 / 2;
+        return 360.0 / (1L << lngBits);
+    }
+
+    private static double wrapLongitude(double lng) {
+        if (lng >= 180) return lng - 360;
+        if (lng < -180) return lng + 360;
+        return lng;
+    }
+}
@@ -8,6 +8,7 @@ import android.content.pm.PackageManager;
 import android.graphics.Canvas;
 import android.location.Location;
 import android.os.Bundle;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -27,22 +28,23 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
 import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.QuerySnapshot;
 import it.xabaras.android.recyclerview.swipedecorator.RecyclerViewSwipeDecorator;
 
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * HomeFragment displays the main list of Dream Places.
@@ -53,7 +55,14 @@ import java.util.List;
  * - Supports swipe-to-delete with Undo.
  * - Provides FAB to add new places.
  * - Handles guest vs logged-in user data (SQLite vs Firestore).
- * - Fetches live location for distance calculation.
+ * - Fetches live location for distance calculation, then follows balanced-power updates:
+ *   once the user moves past RERANK_THRESHOLD_METERS the loaded rows are re-ranked in place
+ *   (insertion-sort repair + notifyItemMoved, DistanceOrder), not reloaded.
+ * - Guest mode patches the list from SQLite change notifications instead of reloading it.
+ * - Guest pages are read and deletes written on background threads (DreamPlaceExecutors).
+ * - Logged-in mode pages through a nearest-first walk over the user's PlaceSpatialIndex, kept
+ *   current by the session's snapshot listener (FirestorePlaceSync): changes patch the shown rows,
+ *   and neither opening the screen nor returning from an edit downloads the collection again.
  */
 public class HomeFragment extends Fragment {
 
@@ -62,18 +71,51 @@ public class HomeFragment extends Fragment {
     private final List<DreamPlace> dreamPlaces = new ArrayList<>();
     private boolean isGuest;
 
-    // Current location state
+    // Current location state; currentLat/Lng is the fix the data was loaded (and is paged) for
     private double currentLat = 0.0, currentLng = 0.0;
     private boolean locationLoaded = false;
+    private GeoDistance.Origin origin; // trig for the latest ranking fix, null until one arrives
+
+    // Live re-ranking: balanced-power updates, acted on only past a movement threshold
+    private static final long LOCATION_INTERVAL_MILLIS = 30_000;
+    private static final float RERANK_THRESHOLD_METERS = 50;      // below the "m away" display precision that matters
+    private static final double RELOAD_THRESHOLD_METERS = 25_000; // moved this far: the loaded prefix is too stale, reload
     private ProgressBar progressBar;
 
     private FusedLocationProviderClient fusedLocationClient;
-
-    // Launcher for opening MyDreamPlaceActivity and refreshing when returning
-    private final ActivityResultLauncher<Intent> dreamPlaceLauncher = registerForActivityResult(
-            new ActivityResultContracts.StartActivityForResult(),
-            result -> loadData()
-    );
+    private final LocationCallback locationCallback = new LocationCallback() {
+        @Override
+        public void onLocationResult(@NonNull LocationResult result) {
+            Location location = result.getLastLocation();
+            if (location != null) onLocationUpdate(location.getLatitude(), location.getLongitude());
+        }
+    };
+
+    // Guest (SQLite) paging: rows arrive already ordered by distance, one page at a time
+    private static final int PAGE_SIZE = 20;
+    private static final double NEARBY_RADIUS_METERS = 25_000; // first pages are served from a bounding box
+    private int sqliteOffset = 0;
+    private double sqliteRadius = 0;
+    private boolean sqliteHasMore = false;
+    private boolean sqliteLoading = false; // a page query is in flight
+    private int sqliteGeneration = 0;      // bumped on reload so pages from an older load are dropped
+
+    // Logged-in (Firestore) paging: synced places are delivered nearest-first page by page
+    private PlaceSpatialIndex.NearestIterator firestoreCursor; // nearest-first walk over the synced places
+    private final Set<String> pendingDeleteIds = new HashSet<>(); // swiped away, deleted once the Snackbar goes
+
+    // Guest mode: applies committed SQLite writes to the loaded rows
+    private final PlaceInvalidationTracker.Observer placesObserver = this::applyPlaceChanges;
+
+    // Logged-in mode: applies synced Firestore snapshots to the loaded rows
+    private final FirestorePlaceSync.Observer syncObserver = this::onPlacesSynced;
+
+    // Row edits made by DistanceOrder, passed on to the adapter
+    private final DistanceOrder.Listener rowChanges = new DistanceOrder.Listener() {
+        @Override public void onInserted(int position) { adapter.notifyItemInserted(position); }
+        @Override public void onRemoved(int position) { adapter.notifyItemRemoved(position); }
+        @Override public void onMoved(int from, int to) { adapter.notifyItemMoved(from, to); }
+    };
 
     // Request permission launcher for location
     private final ActivityResultLauncher<String> locationPermissionLauncher =
@@ -136,36 +178,66 @@ public class HomeFragment extends Fragment {
         recyclerView = view.findViewById(R.id.recyclerViewDreamPlaces);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         adapter = new DreamPlaceAdapter(requireContext(), dreamPlaces, place -> {
+            // Hand over by ID; Firestore rows are complete, guest rows are list summaries
+            // Edits come back through placesObserver / syncObserver, so no result is needed
+            PlaceStore.getInstance().put(place, !isGuest);
             Intent intent = new Intent(getContext(), MyDreamPlaceActivity.class);
-            intent.putExtra("dreamPlace", place); // pass model via Serializable
-            dreamPlaceLauncher.launch(intent);
+            intent.putExtra(MyDreamPlaceActivity.EXTRA_PLACE_ID, place.getId());
+            startActivity(intent);
         });
         recyclerView.setAdapter(adapter);
 
+        // Fetch the next page (SQLite or in-memory nearest-K) when the user nears the end of the loaded rows
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0) return;
+                LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                if (layoutManager != null
+                        && layoutManager.findLastVisibleItemPosition() >= dreamPlaces.size() - PAGE_SIZE / 2) {
+                    if (isGuest) loadNextSQLitePage();
+                    else loadNextFirestorePage();
+                }
+            }
+        });
+
         // Enable swipe-to-delete gesture
         setupSwipeToDelete();
 
-        // Launcher for AddDreamPlaceActivity
-        final ActivityResultLauncher<Intent> addPlaceLauncher = registerForActivityResult(
-                new ActivityResultContracts.StartActivityForResult(),
-                result -> {
-                    // Reload Home data when user returns from AddDreamPlace
-                    loadData();
-                }
-        );
-
-        // Floating Action Button for adding new places
+        // Floating Action Button for adding new places (the new place arrives through an observer)
         FloatingActionButton fab = view.findViewById(R.id.fab);
-        fab.setOnClickListener(v -> {
-            Intent intent = new Intent(getContext(), AddDreamPlaceActivity.class);
-            addPlaceLauncher.launch(intent);
-        });
+        fab.setOnClickListener(v -> startActivity(new Intent(getContext(), AddDreamPlaceActivity.class)));
+
+        if (isGuest) {
+            DreamPlaceSQLiteHelper.getInstance(requireContext()).getInvalidationTracker().addObserver(placesObserver);
+        } else {
+            FirestorePlaceSync.getInstance().addObserver(syncObserver);
+        }
 
         checkLocationPermission();
 
         return view;
     }
 
+    @Override
+    public void onStart() {
+        super.onStart();
+        if (locationLoaded) startLocationUpdates(); // resumed after a first fix
+    }
+
+    @Override
+    public void onStop() {
+        fusedLocationClient.removeLocationUpdates(locationCallback);
+        super.onStop();
+    }
+
+    @Override
+    public void onDestroyView() {
+        DreamPlaceSQLiteHelper.getInstance(requireContext()).getInvalidationTracker().removeObserver(placesObserver);
+        FirestorePlaceSync.getInstance().removeObserver(syncObserver);
+        super.onDestroyView();
+    }
+
     /** Configure swipe-to-delete with custom background, icon, and Undo option. */
     private void setupSwipeToDelete() {
         ItemTouchHelper.SimpleCallback callback = new ItemTouchHelper.SimpleCallback(0, ItemTouchHelper.LEFT) {
@@ -183,31 +255,44 @@ public class HomeFragment extends Fragment {
                 dreamPlaces.remove(position);
                 adapter.notifyItemRemoved(position);
 
+                // Guest: tombstone the row by ID right away; purgeDeleted() removes it for good later
+                DreamPlaceSQLiteHelper dbHelper = DreamPlaceSQLiteHelper.getInstance(recyclerView.getContext());
+                if (isGuest) {
+                    DreamPlaceExecutors.getInstance().write(() -> dbHelper.markDeleted(deletedPlace.getId()));
+                    // Row was already paged in, so later pages start one row earlier
+                    sqliteOffset = Math.max(0, sqliteOffset - 1);
+                } else {
+                    pendingDeleteIds.add(deletedPlace.getId()); // still synced until the delete is written
+                }
+
                 // Show Snackbar with Undo option
                 Snackbar.make(recyclerView, "Place deleted", Snackbar.LENGTH_LONG)
                         .setAction("Undo", v -> {
-                            // Restore on undo
-                            dreamPlaces.add(position, deletedPlace);
-                            adapter.notifyItemInserted(position);
+                            if (isGuest) {
+                                // Clearing the tombstone re-inserts the row through placesObserver
+                                DreamPlaceExecutors.getInstance().write(() -> dbHelper.restoreDeleted(deletedPlace.getId()));
+                            } else {
+                                // Restore on undo
+                                pendingDeleteIds.remove(deletedPlace.getId());
+                                dreamPlaces.add(position, deletedPlace);
+                                adapter.notifyItemInserted(position);
+                            }
                         })
                         .addCallback(new Snackbar.Callback() {
                             @Override
                             public void onDismissed(Snackbar snackbar, int event) {
-                                // If not undone, delete permanently
-                                if (event != Snackbar.Callback.DISMISS_EVENT_ACTION) {
-                                    if (isGuest) {
-                                        new DreamPlaceSQLiteHelper(requireContext())
-                                                .deleteDreamPlaceByName(deletedPlace.getName());
-                                    } else {
-                                        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-                                        if (user != null) {
-                                            FirebaseFirestore.getInstance()
-                                                    .collection("users")
-                                                    .document(user.getUid())
-                                                    .collection("dream_places")
-                                                    .document(deletedPlace.getId())
-                                                    .delete();
-                                        }
+                                // If not undone, delete permanently (guests were tombstoned on swipe)
+                                if (event != Snackbar.Callback.DISMISS_EVENT_ACTION && !isGuest) {
+                                    FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+                                    // The local delete reaches the snapshot listener right away
+                                    pendingDeleteIds.remove(deletedPlace.getId());
+                                    if (user != null) {
+                                        FirebaseFirestore.getInstance()
+                                                .collection("users")
+                                                .document(user.getUid())
+                                                .collection("dream_places")
+                                                .document(deletedPlace.getId())
+                                                .delete();
                                     }
                                 }
                             }
@@ -251,7 +336,9 @@ public class HomeFragment extends Fragment {
             if (location != null) {
                 currentLat = location.getLatitude();
                 currentLng = location.getLongitude();
+                origin = new GeoDistance.Origin(currentLat, currentLng);
                 locationLoaded = true;
+                startLocationUpdates();
             } else Toast.makeText(getContext(), "Unable to fetch current location", Toast.LENGTH_SHORT).show();
             loadData();
         }).addOnFailureListener(e -> {
@@ -260,6 +347,47 @@ public class HomeFragment extends Fragment {
         });
     }
 
+    /** Subscribe to balanced-power location updates (replaces an existing subscription). */
+    private void startLocationUpdates() {
+        if (ContextCompat.checkSelfPermission(requireContext(), Manifest.permission.ACCESS_FINE_LOCATION)
+                != PackageManager.PERMISSION_GRANTED) return;
+        LocationRequest request = new LocationRequest.Builder(Priority.PRIORITY_BALANCED_POWER_ACCURACY, LOCATION_INTERVAL_MILLIS)
+                .setMinUpdateDistanceMeters(RERANK_THRESHOLD_METERS)
+                .build();
+        fusedLocationClient.requestLocationUpdates(request, locationCallback, Looper.getMainLooper());
+    }
+
+    /**
+     * Handle a live location update.
+     * - Movement is measured from the last ranking fix (equirectangular, cheap at these ranges),
+     *   so slow drift below the provider's own distance filter still adds up.
+     * - Small moves re-rank the loaded rows; a very large move reloads, since rows that were never
+     *   paged in may now be the nearest ones.
+     */
+    private void onLocationUpdate(double lat, double lng) {
+        if (origin == null || getView() == null) return; // the first fix drives the initial load
+        if (GeoDistance.equirectangularMeters(origin, lat, lng) < RERANK_THRESHOLD_METERS) return;
+
+        origin = new GeoDistance.Origin(lat, lng);
+        if (GeoDistance.equirectangularMeters(origin, currentLat, currentLng) >= RELOAD_THRESHOLD_METERS) {
+            currentLat = lat;
+            currentLng = lng;
+            loadData();
+            return;
+        }
+        rerankLoadedPlaces();
+    }
+
+    /** Recompute distances for the loaded rows and repair their (nearly sorted) order in place. */
+    private void rerankLoadedPlaces() {
+        // Shown rows are Home's own (SQLite page rows or copies of shared rows), so set in place
+        for (DreamPlace place : dreamPlaces) {
+            place.setDistanceMeters(calculateDistance(place.getLatitude(), place.getLongitude()));
+        }
+        DistanceOrder.repairOrder(dreamPlaces, 1, rowChanges);
+        adapter.notifyItemRangeChanged(0, dreamPlaces.size(), DreamPlaceAdapter.PAYLOAD_DISTANCE);
+    }
+
     // Load dream place data from Firestore or SQLite based on user type
     private void loadData() {
         if (!isAdded()) return;
@@ -270,75 +398,200 @@ public class HomeFragment extends Fragment {
         else loadFromFirestore();
     }
 
-    /** Fetch data from Firestore for logged-in users. */
+    /**
+     * Show the logged-in user's places from the session's snapshot listener (FirestorePlaceSync).
+     * - Already synced: paged straight from the shared index, no download.
+     * - Otherwise the listener's first snapshot shows them (onPlacesSynced).
+     */
     private void loadFromFirestore() {
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) {
             progressBar.setVisibility(View.GONE); // Stop if no user
             return;
         }
-        FirebaseFirestore.getInstance().collection("users")
-                .document(user.getUid())
-                .collection("dream_places")
-                .get()
-                .addOnSuccessListener(this::handleFirestoreResults)
-                .addOnFailureListener(e -> Toast.makeText(getContext(), "Failed to load places", Toast.LENGTH_SHORT).show());
+        FirestorePlaceSync.getInstance().start(requireContext(), user.getUid());
+        PlaceSpatialIndex index = SharedPlaceIndex.getInstance().get(SharedPlaceIndex.userDataSet(user.getUid()));
+        if (index != null) handleFirestoreResults(index);
+    }
+
+    /** A snapshot was applied: show everything on a new data set, else patch the shown rows. */
+    private void onPlacesSynced(PlaceSpatialIndex index, boolean complete, List<DreamPlace> changed,
+                                Set<String> deletedIds) {
+        if (getView() == null) return;
+        if (complete || firestoreCursor == null) {
+            handleFirestoreResults(index);
+        } else {
+            applyFirestoreChanges(index, changed, deletedIds);
+        }
     }
 
     /** Fetch data from SQLite for guest users. */
     private void loadFromSQLite() {
-        Context context = getContext();
-        if (context == null) {
+        if (getView() == null) {
             progressBar.setVisibility(View.GONE);
             return;
         }
 
-        DreamPlaceSQLiteHelper dbHelper = new DreamPlaceSQLiteHelper(requireContext());
+        // Reset paging; SQLite returns rows already ordered, so no sorting happens here
         dreamPlaces.clear();
-        dreamPlaces.addAll(dbHelper.getAllPlacesOrderedByDistance(currentLat, currentLng));
-        sortAndUpdateRecycler();
-        progressBar.setVisibility(View.GONE); // Hide after sorting
+        sqliteOffset = 0;
+        sqliteRadius = locationLoaded ? NEARBY_RADIUS_METERS : 0;
+        sqliteHasMore = true;
+        sqliteLoading = false;
+        sqliteGeneration++;
+        adapter.updateList(dreamPlaces);
+        loadNextSQLitePage(); // hides the progress bar when the first page arrives
     }
 
-    /** Convert Firestore docs into DreamPlace objects and update RecyclerView. */
-    private void handleFirestoreResults(QuerySnapshot querySnapshot) {
-        dreamPlaces.clear();
-        for (QueryDocumentSnapshot doc : querySnapshot) {
-            String name = doc.getString("name");
-            String city = doc.getString("city");
-            String notes = doc.getString("notes");
-            Double lat = doc.getDouble("latitude");
-            Double lng = doc.getDouble("longitude");
-            Boolean visited = doc.getBoolean("visited");
-            Double ratingRaw = doc.getDouble("rating");
-            List<String> photoUrls = (List<String>) doc.get("photos");
-
-            if (lat == null || lng == null || name == null || city == null || photoUrls == null) continue;
-
-            float rating = ratingRaw != null ? ratingRaw.floatValue() : 0f;
-            boolean isVisited = visited != null && visited;
-
-            double distance = calculateDistance(currentLat, currentLng, lat, lng);
-            String distanceStr = String.format("%.1f km away", distance);
-
-            DreamPlace place = new DreamPlace(photoUrls, name, city, distanceStr, isVisited, rating, lat, lng, notes);
-            place.setId(doc.getId()); // Firestore document ID
-            dreamPlaces.add(place);
-        }
-        sortAndUpdateRecycler();
-        progressBar.setVisibility(View.GONE); // Hide after sorting
+    /**
+     * Append the next page of guest places (nearest first), queried on a reader thread.
+     * - While a radius is set, pages come from the bounding-box query. A short page means every
+     *   remaining row lies outside the radius, so the loaded rows are exactly the global nearest
+     *   prefix and paging continues over the whole table from the same offset.
+     */
+    private void loadNextSQLitePage() {
+        Context context = getContext();
+        if (context == null || getView() == null || !sqliteHasMore || sqliteLoading) return;
+
+        sqliteLoading = true;
+        final int generation = sqliteGeneration;
+        final DreamPlaceSQLiteHelper dbHelper = DreamPlaceSQLiteHelper.getInstance(context);
+        final double lat = currentLat, lng = currentLng, radius = sqliteRadius;
+        final int offset = sqliteOffset;
+
+        DreamPlaceExecutors.getInstance().read(getViewLifecycleOwner(),
+                () -> fetchSQLitePage(dbHelper, lat, lng, radius, offset),
+                page -> {
+                    if (generation != sqliteGeneration) return; // a reload started meanwhile
+                    sqliteLoading = false;
+                    sqliteOffset += page.rows.size();
+                    sqliteRadius = page.radius;
+                    sqliteHasMore = page.hasMore;
+
+                    // Pages are ordered for the load fix; rank them for the latest one (rows are this query's own)
+                    if (origin != null) {
+                        for (DreamPlace place : page.rows) {
+                            place.setDistanceMeters(calculateDistance(place.getLatitude(), place.getLongitude()));
+                        }
+                    }
+                    int start = dreamPlaces.size();
+                    dreamPlaces.addAll(page.rows);
+                    adapter.notifyItemRangeInserted(start, page.rows.size());
+                    DistanceOrder.repairOrder(dreamPlaces, start, rowChanges);
+                    progressBar.setVisibility(View.GONE);
+                },
+                error -> {
+                    if (generation != sqliteGeneration) return;
+                    sqliteLoading = false; // the next scroll retries the same page
+                    progressBar.setVisibility(View.GONE);
+                    Toast.makeText(getContext(), "Failed to load places", Toast.LENGTH_SHORT).show();
+                });
     }
 
-    /** Sort places by numeric distance value and refresh RecyclerView. */
-    private void sortAndUpdateRecycler() {
-        Collections.sort(dreamPlaces, Comparator.comparing(dp -> {
-            try {
-                return Float.parseFloat(dp.getDistance().replace(" km away", ""));
-            } catch (Exception e) {
-                return 9999f; // fallback for missing/invalid distance
+    /** Background half of loadNextSQLitePage: query one page and report where paging continues. */
+    private static SQLitePage fetchSQLitePage(DreamPlaceSQLiteHelper dbHelper, double lat, double lng,
+                                              double radius, int offset) {
+        List<DreamPlace> rows = new ArrayList<>();
+        boolean hasMore = true;
+        while (rows.size() < PAGE_SIZE) {
+            int needed = PAGE_SIZE - rows.size();
+            List<DreamPlace> chunk = dbHelper.getPlacesOrderedByDistance(lat, lng, radius, needed, offset);
+            rows.addAll(chunk);
+            offset += chunk.size();
+            if (chunk.size() == needed) break;
+            if (radius > 0) {
+                radius = 0; // box exhausted → continue unbounded
+            } else {
+                hasMore = false; // table exhausted
+                break;
             }
-        }));
+        }
+        return new SQLitePage(rows, radius, hasMore);
+    }
+
+    /** One page of guest rows plus the paging state that follows it. */
+    private static final class SQLitePage {
+        final List<DreamPlace> rows;
+        final double radius;
+        final boolean hasMore;
+
+        SQLitePage(List<DreamPlace> rows, double radius, boolean hasMore) {
+            this.rows = rows;
+            this.radius = radius;
+            this.hasMore = hasMore;
+        }
+    }
+
+    /**
+     * Patch the loaded guest rows after a committed SQLite write.
+     * - Deleted and changed rows are taken out; changed rows are re-inserted at their distance rank.
+     * - A row that ranks past the loaded pages is left for paging to pick up, so sqliteOffset keeps
+     *   counting exactly the rows shown.
+     */
+    private void applyPlaceChanges(List<DreamPlace> changed, Set<String> deletedIds) {
+        // Changed rows are shared with the other observers: show copies
+        List<DreamPlace> rows = withHomeDistances(changed);
+        int grown = DistanceOrder.patch(dreamPlaces, rows, deletedIds, sqliteHasMore, rowChanges);
+        sqliteOffset = Math.max(0, sqliteOffset + grown);
+    }
+
+    /** Show the loaded Firestore places, nearest first. */
+    private void handleFirestoreResults(PlaceSpatialIndex index) {
+        showNearestFirst(index);
+        progressBar.setVisibility(View.GONE); // Hide once the first page is shown
+    }
+
+    /**
+     * Show the nearest places first without sorting the whole list.
+     * - A best-first walk over the spatial index yields the first page, and extends the order
+     *   lazily as the user scrolls (loadNextFirestorePage).
+     */
+    private void showNearestFirst(PlaceSpatialIndex index) {
+        firestoreCursor = index.nearestFirst(origin);
+        dreamPlaces.clear();
         adapter.updateList(dreamPlaces);
+        loadNextFirestorePage();
+    }
+
+    /**
+     * Patch the shown Firestore rows after a synced snapshot.
+     * - Deleted and changed rows are taken out; changed rows are re-inserted at their distance rank,
+     *   unless they rank past the shown pages (paging picks them up).
+     * - Paging continues on a fresh walk over the new index; rows already shown are skipped.
+     */
+    private void applyFirestoreChanges(PlaceSpatialIndex index, List<DreamPlace> changed, Set<String> deletedIds) {
+        List<DreamPlace> rows = new ArrayList<>(changed.size());
+        for (DreamPlace place : withHomeDistances(changed)) { // index rows are shared
+            if (!pendingDeleteIds.contains(place.getId())) rows.add(place);
+        }
+        DistanceOrder.patch(dreamPlaces, rows, deletedIds, firestoreCursor.hasNext(), rowChanges);
+        firestoreCursor = index.nearestFirst(origin);
+    }
+
+    /** Copies of shared rows carrying Home's distance. */
+    private List<DreamPlace> withHomeDistances(List<DreamPlace> places) {
+        List<DreamPlace> copies = new ArrayList<>(places.size());
+        for (DreamPlace place : places) {
+            copies.add(place.withDistanceMeters(calculateDistance(place.getLatitude(), place.getLongitude())));
+        }
+        return copies;
+    }
+
+    /**
+     * Append the next nearest-first page of the synced Firestore places.
+     * - Skips rows already shown (the walk restarts after each sync) and rows swiped away.
+     */
+    private void loadNextFirestorePage() {
+        if (firestoreCursor == null) return;
+        Set<String> skipIds = new HashSet<>(pendingDeleteIds);
+        for (DreamPlace place : dreamPlaces) skipIds.add(place.getId());
+
+        int start = dreamPlaces.size();
+        int appended = DistanceOrder.appendNearest(dreamPlaces, firestoreCursor, skipIds, PAGE_SIZE, origin);
+        if (appended > 0) {
+            adapter.notifyItemRangeInserted(start, appended);
+            DistanceOrder.repairOrder(dreamPlaces, start, rowChanges); // no-op unless the user moved since the walk started
+        }
     }
 
     /** Get greeting based on time of day. */
@@ -350,11 +603,9 @@ public class HomeFragment extends Fragment {
         else return "Good Night!";
     }
 
-    /** Utility: calculate distance in km between two lat/lng pairs. */
-    private double calculateDistance(double lat1, double lng1, double lat2, double lng2) {
-        if (lat1 == 0.0 && lng1 == 0.0) return 9999.0;
-        float[] results = new float[1];
-        Location.distanceBetween(lat1, lng1, lat2, lng2, results);
-        return results[0] / 1000.0;
+    /** Utility: haversine distance in meters from the user, NaN while the user location is unknown. */
+    private double calculateDistance(double lat, double lng) {
+        if (origin == null) return Double.NaN;
+        return GeoDistance.haversineMeters(origin, lat, lng);
     }
 }
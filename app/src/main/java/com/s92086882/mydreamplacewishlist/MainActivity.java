@@ -17,6 +17,7 @@ import com.google.firebase.FirebaseApp;
  * - Hosts a single fragment container (R.id.nav_host_fragment).
  * - Loads HomeFragment on first launch.
  * - Handles bottom navigation item selection to replace the active fragment.
+ * - Purges old guest tombstones (soft-deleted places) in the background when the app is left.
  * -
  * Notes:
  * - Uses .replace(...) without adding to back stack, so pressing the system back button
@@ -46,6 +47,17 @@ public class MainActivity extends AppCompatActivity {
         setupNavigation(); // wire bottom nav selection handling
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (SharedPreferencesHelper.isGuest(this)) {
+            // Hard-delete swiped places whose Undo window has passed, in batches on the writer thread
+            DreamPlaceSQLiteHelper dbHelper = DreamPlaceSQLiteHelper.getInstance(this);
+            DreamPlaceExecutors.getInstance().write(
+                    () -> dbHelper.purgeDeleted(DreamPlaceSQLiteHelper.TOMBSTONE_GRACE_MILLIS));
+        }
+    }
+
     /**
      * Sets up the BottomNavigationView to swap fragments when tabs are selected.
      * - Creates a new fragment each time a tab is selected and replaces the container content.
@@ -22,13 +22,18 @@ import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * MapFragment shows a Google Map with markers for all Dream Places.
@@ -37,7 +42,14 @@ import java.util.List;
  * - Initialize GoogleMap via child SupportMapFragment.
  * - Enable "My Location" (if permission granted) and center camera on user.
  * - Load markers from Firestore (logged-in) or SQLite (guest).
+ * - Guest markers follow the camera: only places inside the visible region are loaded (R*Tree query).
+ * - Guest markers are patched from SQLite change notifications (no reload after edits).
+ * - Logged-in markers also follow the camera, answered by the shared PlaceSpatialIndex
+ *   (SharedPlaceIndex) instead of adding a marker for every document.
+ * - Logged-in markers are patched from the session's snapshot listener (FirestorePlaceSync),
+ *   so opening the map never downloads the collection again.
  * - Customize marker icon based on "visited" status.
+ * - Tapping a marker shows its exact (ellipsoidal) distance from the last known location.
  * -
  * Notes:
  * - Permissions: Location permission is checked; if not granted, map still loads without blue dot.
@@ -47,8 +59,32 @@ public class MapFragment extends Fragment implements OnMapReadyCallback {
 
     private GoogleMap mMap;
     private FusedLocationProviderClient fusedLocationClient;
+    private Location lastLocation; // last known fix, for marker distances (null until known)
+    private final DistanceFormatter distanceFormatter = new DistanceFormatter();
+    private final char[] distanceChars = new char[DistanceFormatter.MAX_LENGTH];
     private boolean isGuest;
 
+    // Markers currently on the map, keyed by SQLite row ID (guest) or Firestore document ID
+    private final Map<String, Marker> markers = new HashMap<>();
+    private int boundsGeneration = 0; // only the latest camera position's query updates markers
+
+    // Logged-in: index over the user's places; the shared one is preferred when it is published
+    private PlaceSpatialIndex placeIndex;
+    private String dataSet;
+
+    // Guest mode: applies committed SQLite writes to the markers on screen
+    private final PlaceInvalidationTracker.Observer placesObserver = this::applyPlaceChanges;
+
+    // Logged-in mode: applies synced Firestore snapshots to the markers on screen
+    private final FirestorePlaceSync.Observer syncObserver = (index, complete, changed, deletedIds) -> {
+        placeIndex = index;
+        if (complete) {
+            showIndexedMarkers();
+        } else {
+            applyPlaceChanges(changed, deletedIds);
+        }
+    };
+
     public MapFragment() {
         // Required empty public constructor
     }
@@ -72,10 +108,23 @@ public class MapFragment extends Fragment implements OnMapReadyCallback {
         // Check if user is logged in or a guest
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         isGuest = (user == null);
+        if (isGuest) {
+            DreamPlaceSQLiteHelper.getInstance(requireContext()).getInvalidationTracker().addObserver(placesObserver);
+        } else {
+            FirestorePlaceSync.getInstance().addObserver(syncObserver);
+        }
 
         return view;
     }
 
+    @Override
+    public void onDestroyView() {
+        DreamPlaceSQLiteHelper.getInstance(requireContext()).getInvalidationTracker().removeObserver(placesObserver);
+        FirestorePlaceSync.getInstance().removeObserver(syncObserver);
+        markers.clear();
+        super.onDestroyView();
+    }
+
     /** Called when the GoogleMap instance is ready for interaction. */
     @Override
     public void onMapReady(@NonNull GoogleMap googleMap) {
@@ -84,6 +133,9 @@ public class MapFragment extends Fragment implements OnMapReadyCallback {
         // Enable zoom controls
         mMap.getUiSettings().setZoomControlsEnabled(true);
 
+        // Fill in the distance before the default tap behavior opens the info window
+        mMap.setOnMarkerClickListener(this::showExactDistance);
+
         // Try to enable location and zoom to user location
         enableLocationAndZoom();
 
@@ -98,8 +150,11 @@ public class MapFragment extends Fragment implements OnMapReadyCallback {
 
         // Load markers from the appropriate data source
         if (isGuest) {
+            // Refresh the visible markers whenever the user stops panning/zooming
+            mMap.setOnCameraIdleListener(this::loadFromSQLite);
             loadFromSQLite();
         } else {
+            mMap.setOnCameraIdleListener(this::showIndexedMarkers);
             loadFromFirestore();
         }
     }
@@ -123,56 +178,132 @@ public class MapFragment extends Fragment implements OnMapReadyCallback {
         fusedLocationClient.getLastLocation()
                 .addOnSuccessListener(location -> {
                     if (location != null) {
+                        lastLocation = location;
                         LatLng current = new LatLng(location.getLatitude(), location.getLongitude());
                         mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(current, 14f));
                     }
                 });
     }
 
-    // For Firebase users: load dream places from Firestore
+    /**
+     * For Firebase users: show the synced places in the visible region.
+     * - Already synced (Home/Search opened first): shown right away from the shared index;
+     *   otherwise the snapshot listener's first snapshot shows them (syncObserver).
+     */
     private void loadFromFirestore() {
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) return;
+        dataSet = SharedPlaceIndex.userDataSet(user.getUid());
+        FirestorePlaceSync.getInstance().start(requireContext(), user.getUid());
+        if (SharedPlaceIndex.getInstance().get(dataSet) != null) showIndexedMarkers();
+    }
 
-        FirebaseFirestore.getInstance().collection("users")
-                .document(user.getUid())
-                .collection("dream_places")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    for (DocumentSnapshot doc : querySnapshot) {
-                        Double lat = doc.getDouble("latitude");
-                        Double lng = doc.getDouble("longitude");
-                        String name = doc.getString("name");
-                        Boolean visited = doc.getBoolean("visited");
-
-                        if (lat != null && lng != null) {
-                            LatLng position = new LatLng(lat, lng);
-                            int iconRes = (visited != null && visited)
-                                    ? R.drawable.marker_visited
-                                    : R.drawable.marker_not_visited;
-                            mMap.addMarker(new MarkerOptions()
-                                    .position(position)
-                                    .title(name)
-                                    .icon(BitmapDescriptorFactory.fromResource(iconRes)));
-                        }
-                    }
-                });
+    /** Logged-in: markers for the places inside the visible region, from the spatial index. */
+    private void showIndexedMarkers() {
+        if (mMap == null || dataSet == null || getView() == null) return;
+        PlaceSpatialIndex shared = SharedPlaceIndex.getInstance().get(dataSet);
+        if (shared != null) placeIndex = shared; // includes writes applied since the download
+        if (placeIndex == null) return;
+
+        LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+        List<DreamPlace> places = placeIndex.withinBounds(bounds.southwest.latitude, bounds.southwest.longitude,
+                bounds.northeast.latitude, bounds.northeast.longitude);
+        Set<String> visibleIds = new HashSet<>();
+        for (DreamPlace place : places) {
+            visibleIds.add(place.getId());
+            if (markers.containsKey(place.getId())) continue;
+            addMarker(place.getId(), place.getName(), place.getLatitude(), place.getLongitude(), place.isVisited());
+        }
+        removeMarkersExcept(visibleIds);
     }
 
-    // For guest users: load dream places from local SQLite DB
+    /**
+     * For guest users: load dream places inside the visible map region from local SQLite DB.
+     * - The query runs on a reader thread; results for an outdated camera position are dropped.
+     */
     private void loadFromSQLite() {
-        DreamPlaceSQLiteHelper dbHelper = new DreamPlaceSQLiteHelper(requireContext());
-        List<DreamPlace> places = dbHelper.getAllDreamPlaces();
+        if (mMap == null || !isAdded() || getView() == null) return;
+        LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+        final int generation = ++boundsGeneration;
 
-        for (DreamPlace place : places) {
-            LatLng position = new LatLng(place.getLatitude(), place.getLongitude());
-            int iconRes = place.isVisited()
-                    ? R.drawable.marker_visited
-                    : R.drawable.marker_not_visited;
-            mMap.addMarker(new MarkerOptions()
-                    .position(position)
-                    .title(place.getName())
-                    .icon(BitmapDescriptorFactory.fromResource(iconRes)));
+        DreamPlaceSQLiteHelper dbHelper = DreamPlaceSQLiteHelper.getInstance(requireContext());
+        DreamPlaceExecutors.getInstance().read(getViewLifecycleOwner(),
+                () -> dbHelper.queryInBounds(bounds),
+                places -> {
+                    if (generation == boundsGeneration) showGuestMarkers(places);
+                });
+    }
+
+    /** Markers that left the region are removed, new ones added, the rest are kept as they are. */
+    private void showGuestMarkers(List<PlaceSummary> places) {
+        Set<String> visibleIds = new HashSet<>();
+        for (PlaceSummary place : places) {
+            visibleIds.add(place.getId());
+            if (markers.containsKey(place.getId())) continue;
+            addMarker(place.getId(), place.getName(), place.getLatitude(), place.getLongitude(), place.isVisited());
+        }
+        removeMarkersExcept(visibleIds);
+    }
+
+    /** Remove every marker whose place is not in visibleIds. */
+    private void removeMarkersExcept(Set<String> visibleIds) {
+        Iterator<Map.Entry<String, Marker>> iterator = markers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Marker> entry = iterator.next();
+            if (!visibleIds.contains(entry.getKey())) {
+                entry.getValue().remove();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Patch markers after a committed SQLite write (guest) or a synced snapshot (logged-in).
+     * - Deleted places lose their marker; changed places are redrawn if they sit in the visible region.
+     */
+    private void applyPlaceChanges(List<DreamPlace> changed, Set<String> deletedIds) {
+        if (mMap == null) return;
+        for (String id : deletedIds) {
+            Marker marker = markers.remove(id);
+            if (marker != null) marker.remove();
+        }
+
+        LatLngBounds bounds = mMap.getProjection().getVisibleRegion().latLngBounds;
+        for (DreamPlace place : changed) {
+            Marker marker = markers.remove(place.getId());
+            if (marker != null) marker.remove();
+            if (bounds.contains(new LatLng(place.getLatitude(), place.getLongitude()))) {
+                addMarker(place.getId(), place.getName(), place.getLatitude(), place.getLongitude(), place.isVisited());
+            }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Marker tap: put the exact distance from the last known location into the snippet.
+     * - One tap, one value, so the ellipsoidal formula (GeoDistance.vincentyMeters) is affordable here.
+     * @return false, so the map still centers on the marker and opens its info window
+     */
+    private boolean showExactDistance(Marker marker) {
+        Location location = lastLocation;
+        if (location != null) {
+            LatLng position = marker.getPosition();
+            double meters = GeoDistance.vincentyMeters(location.getLatitude(), location.getLongitude(),
+                    position.latitude, position.longitude);
+            int length = distanceFormatter.format(meters, distanceChars);
+            marker.setSnippet(new String(distanceChars, 0, length));
+        }
+        return false;
+    }
+
+    /** Add one marker and remember it by place ID. */
+    private void addMarker(String id, String name, double lat, double lng, boolean visited) {
+        int iconRes = visited
+                ? R.drawable.marker_visited
+                : R.drawable.marker_not_visited;
+        Marker marker = mMap.addMarker(new MarkerOptions()
+                .position(new LatLng(lat, lng))
+                .title(name)
+                .icon(BitmapDescriptorFactory.fromResource(iconRes)));
+        if (marker != null) markers.put(id, marker);
+    }
+}
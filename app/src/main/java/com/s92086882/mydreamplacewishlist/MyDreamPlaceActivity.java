@@ -29,6 +29,7 @@ import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
@@ -46,17 +47,21 @@ import java.util.Map;
  * - Embedded map pointing to the saved coordinates
  * -
  * Saves:
- * - Guest: updates SQLite via DreamPlaceSQLiteHelper
+ * - Guest: updates SQLite via DreamPlaceSQLiteHelper, on the shared writer thread
  * - Logged-in: updates Firestore document (and keeps photos list in sync)
  * -
  * Notes:
- * - Intent extra key may be "dream_place" (Search) or "dreamPlace" (Home).
+ * - Opened with only a place ID (EXTRA_PLACE_ID); the place comes from PlaceStore,
+ *   SQLite (guest) or Firestore (logged-in). The ID is also kept in saved state.
  * - MapView uses manual lifecycle forwarding (onResume/onPause/…).
  * - Firestore field name used below is "photoPaths"; creation code elsewhere uses "photos".
  *   Keep your reads/writes consistent app-wide to avoid mismatches.
  */
 public class MyDreamPlaceActivity extends AppCompatActivity {
 
+    /** Intent extra / saved-state key holding the ID of the place to show. */
+    public static final String EXTRA_PLACE_ID = "place_id";
+
     // UI Components
     private EditText nameEditText, cityEditText, notesEditText;
     private RecyclerView photoRecyclerView;
@@ -66,8 +71,10 @@ public class MyDreamPlaceActivity extends AppCompatActivity {
 
     // Adapters and data
     private PhotoAdapter photoAdapter;
-    private DreamPlace dreamPlace; // model passed in via Intent
+    private String placeId; // the only thing passed in via Intent
+    private DreamPlace dreamPlace; // working copy, hydrated from PlaceStore / SQLite / Firestore
     private List<Uri> photoUris; // working list of image URIs (for adapter)
+    private boolean placeLoaded; // true once dreamPlace is the full place, not a cached list row
 
     // --- Auth / DB helpers ---
     private boolean isGuest;
@@ -100,13 +107,15 @@ public class MyDreamPlaceActivity extends AppCompatActivity {
         // Init Firebase and local database
         mAuth = FirebaseAuth.getInstance();
         firestore = FirebaseFirestore.getInstance();
-        dbHelper = new DreamPlaceSQLiteHelper(this);
+        dbHelper = DreamPlaceSQLiteHelper.getInstance(this);
         isGuest = getSharedPreferences("auth", MODE_PRIVATE).getBoolean("isGuest", true);
 
         initViews();
         setupToolbar();
-        loadPlaceDataFromIntent(); // populate UI + map + photos
         setupListeners();
+        placeId = savedInstanceState != null ? savedInstanceState.getString(EXTRA_PLACE_ID)
+                : getIntent().getStringExtra(EXTRA_PLACE_ID);
+        loadPlace(); // populate UI + map + photos
     }
 
     /** Bind view references and basic Recycler/Map setup */
@@ -151,61 +160,127 @@ public class MyDreamPlaceActivity extends AppCompatActivity {
         return true;
     }
 
+    /** Keep just the ID; everything else is reloaded after process death. */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(EXTRA_PLACE_ID, placeId);
+    }
+
     /**
-     * Read DreamPlace passed via Intent and hydrate the UI + map + gallery.
-     * - Supports two extras names: "dream_place" (from Search) or "dreamPlace" (from Home).
-     * - Prepares PhotoAdapter and click-to-view/delete flow.
-     * - Sets up MapView camera + marker to this place.
+     * Resolve placeId into a DreamPlace and hydrate the UI.
+     * - A complete PlaceStore entry is used directly.
+     * - Otherwise the list row (if cached) is shown at once and the full place is loaded
+     *   from SQLite (guest, reader thread) or Firestore. Save stays disabled until then,
+     *   so a partial row can never overwrite the stored one.
      */
-    private void loadPlaceDataFromIntent() {
-        Intent intent = getIntent();
-        // Some parts of the app use "dream_place" (e.g., Search results)
-        if (intent != null && intent.hasExtra("dream_place")) {
-            dreamPlace = (DreamPlace) intent.getSerializableExtra("dream_place");
+    private void loadPlace() {
+        if (placeId == null) {
+            finish();
+            return;
+        }
+        PlaceStore store = PlaceStore.getInstance();
+        DreamPlace complete = store.getComplete(placeId);
+        if (complete != null) {
+            dreamPlace = new DreamPlace(complete);
+            placeLoaded = true;
+            bindPlace();
+            return;
         }
 
-        // Try "dreamPlace" (used in Home)
-        if (dreamPlace == null && intent.hasExtra("dreamPlace")) {
-            dreamPlace = (DreamPlace) intent.getSerializableExtra("dreamPlace");
+        DreamPlace cached = store.get(placeId);
+        if (cached != null) {
+            dreamPlace = new DreamPlace(cached);
+            bindPlace();
         }
+        saveButton.setEnabled(false);
 
-            if (dreamPlace != null) {
-                // Set basic fields
-                nameEditText.setText(dreamPlace.getName());
-                cityEditText.setText(dreamPlace.getCity());
-                notesEditText.setText(dreamPlace.getNotes());
-                // Set visited status and optional rating
-                visitedCheckBox.setChecked(dreamPlace.isVisited());
-                ratingBar.setRating(dreamPlace.getRating());
-                ratingBar.setVisibility(dreamPlace.isVisited() ? View.VISIBLE : View.GONE);
-
-                // Load photo URIs into adapter
-                photoUris = new ArrayList<>();
-                for (String uriStr : dreamPlace.getPhotoPaths()) {
-                    photoUris.add(Uri.parse(uriStr));
-                }
+        if (isGuest) {
+            DreamPlaceExecutors.getInstance().read(this, () -> dbHelper.getDreamPlaceById(placeId), this::onPlaceLoaded,
+                    error -> Toast.makeText(this, "Failed to load place", Toast.LENGTH_SHORT).show());
+        } else if (mAuth.getCurrentUser() != null) {
+            firestore.collection("users").document(mAuth.getCurrentUser().getUid())
+                    .collection("dream_places").document(placeId)
+                    .get()
+                    .addOnSuccessListener(doc -> onPlaceLoaded(doc.exists() ? fromDocument(doc) : null))
+                    .addOnFailureListener(e -> Toast.makeText(this, "Failed to load place", Toast.LENGTH_SHORT).show());
+        }
+    }
+
+    /** Full place arrived: cache it, rebind, allow saving (or leave if it no longer exists). */
+    private void onPlaceLoaded(DreamPlace fullPlace) {
+        if (isFinishing() || isDestroyed()) return;
+        if (fullPlace == null) {
+            Toast.makeText(this, "This place no longer exists", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+        PlaceStore.getInstance().put(fullPlace, true);
+        dreamPlace = new DreamPlace(fullPlace);
+        placeLoaded = true;
+        bindPlace();
+        saveButton.setEnabled(true);
+    }
+
+    /** Build a DreamPlace from its Firestore document (photos may be under "photoPaths" or "photos"). */
+    private static DreamPlace fromDocument(DocumentSnapshot doc) {
+        List<String> photos = SharedPlaceIndex.stringList(doc.get("photoPaths"));
+        if (photos == null) photos = SharedPlaceIndex.stringList(doc.get("photos"));
+        Double lat = doc.getDouble("latitude");
+        Double lng = doc.getDouble("longitude");
+        Double rating = doc.getDouble("rating");
+        DreamPlace place = new DreamPlace(photos != null ? photos : new ArrayList<>(),
+                doc.getString("name"), doc.getString("city"), Double.NaN,
+                Boolean.TRUE.equals(doc.getBoolean("visited")), rating != null ? rating.floatValue() : 0f,
+                lat != null ? lat : 0.0, lng != null ? lng : 0.0, doc.getString("notes"));
+        place.setId(doc.getId());
+        return place;
+    }
 
-                photoAdapter = new PhotoAdapter(photoUris);
-                photoRecyclerView.setAdapter(photoAdapter);
-
-                // On photo tap → open full screen viewer (with potential delete)
-                photoAdapter.setOnPhotoClickListener((position, uri) -> {
-                    lastViewedPosition = position;
-                    Intent viewerIntent = new Intent(MyDreamPlaceActivity.this, PhotoViewerActivity.class);
-                    viewerIntent.putExtra("photo_uri", uri.toString());
-                    startActivityForResult(viewerIntent, REQUEST_PHOTO_VIEW);
-                });
-
-                // Show location on map
-                mapView.getMapAsync(map -> {
-                    googleMap = map;
-                    MapsInitializer.initialize(this);
-                    googleMap.getUiSettings().setZoomControlsEnabled(true);
-                    LatLng location = new LatLng(dreamPlace.getLatitude(), dreamPlace.getLongitude());
-                    googleMap.addMarker(new MarkerOptions().position(location).title(dreamPlace.getName()));
-                    googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(location, 15f));
-                });
+    /**
+     * Hydrate the UI from dreamPlace.
+     * - Prepares PhotoAdapter and click-to-view/delete flow.
+     * - Sets up MapView camera + marker to this place.
+     */
+    private void bindPlace() {
+        // Set basic fields
+        nameEditText.setText(dreamPlace.getName());
+        cityEditText.setText(dreamPlace.getCity());
+        notesEditText.setText(dreamPlace.getNotes());
+        // Set visited status and optional rating
+        visitedCheckBox.setChecked(dreamPlace.isVisited());
+        ratingBar.setRating(dreamPlace.getRating());
+        ratingBar.setVisibility(dreamPlace.isVisited() ? View.VISIBLE : View.GONE);
+
+        // Load photo URIs into adapter
+        photoUris = new ArrayList<>();
+        if (dreamPlace.getPhotoPaths() != null) {
+            for (String uriStr : dreamPlace.getPhotoPaths()) {
+                photoUris.add(Uri.parse(uriStr));
+            }
         }
+
+        photoAdapter = new PhotoAdapter(photoUris);
+        photoRecyclerView.setAdapter(photoAdapter);
+
+        // On photo tap → open full screen viewer (with potential delete)
+        photoAdapter.setOnPhotoClickListener((position, uri) -> {
+            lastViewedPosition = position;
+            Intent viewerIntent = new Intent(MyDreamPlaceActivity.this, PhotoViewerActivity.class);
+            viewerIntent.putExtra("photo_uri", uri.toString());
+            startActivityForResult(viewerIntent, REQUEST_PHOTO_VIEW);
+        });
+
+        // Show location on map
+        mapView.getMapAsync(map -> {
+            googleMap = map;
+            MapsInitializer.initialize(this);
+            googleMap.clear(); // bindPlace may run twice (cached row, then full place)
+            googleMap.getUiSettings().setZoomControlsEnabled(true);
+            LatLng location = new LatLng(dreamPlace.getLatitude(), dreamPlace.getLongitude());
+            googleMap.addMarker(new MarkerOptions().position(location).title(dreamPlace.getName()));
+            googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(location, 15f));
+        });
     }
 
     /** Wire interactive bits (toggle rating visibility, Save button) */
@@ -250,7 +325,10 @@ public class MyDreamPlaceActivity extends AppCompatActivity {
         dreamPlace.setPhotoPaths(updatedPhotoPaths);
 
         if (isGuest) {
-            dbHelper.updateDreamPlace(dreamPlace);
+            // Full-state write, so a newer save of the same place replaces one still queued
+            DreamPlace place = dreamPlace;
+            PlaceStore.getInstance().put(new DreamPlace(place), true);
+            DreamPlaceExecutors.getInstance().write("update:" + place.getId(), () -> dbHelper.updateDreamPlace(place));
             Toast.makeText(this, "Updated locally (guest)", Toast.LENGTH_SHORT).show();
             finish();
         } else {
@@ -274,6 +352,8 @@ public class MyDreamPlaceActivity extends AppCompatActivity {
                     .collection("dream_places").document(dreamPlace.getId())
                     .update(updated)
                     .addOnSuccessListener(unused -> {
+                        // Lists follow the snapshot listener (FirestorePlaceSync); only the detail cache is ours
+                        PlaceStore.getInstance().put(new DreamPlace(dreamPlace), true);
                         Toast.makeText(this, "Updated in Firestore", Toast.LENGTH_SHORT).show();
                         finish();
                     })
@@ -306,12 +386,18 @@ public class MyDreamPlaceActivity extends AppCompatActivity {
      * Handle return from PhotoViewerActivity.
      * - If user deleted a photo there, remove it here, notify adapter, and persist change.
      * - If no more photos remain, we optionally finish() to return to previous screen.
+     * - Ignored until the full place is loaded: a cached list row has no notes and only
+     *   the cover photo, so it must not be cached as complete or written back.
      */
     @Override
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == REQUEST_PHOTO_VIEW && resultCode == RESULT_OK && data != null) {
             if (data.hasExtra("delete_photo_uri")) {
+                if (!placeLoaded) {
+                    Toast.makeText(this, "Still loading this place, try again", Toast.LENGTH_SHORT).show();
+                    return;
+                }
                 Uri deletedUri = Uri.parse(data.getStringExtra("delete_photo_uri"));
                 if (photoUris.remove(deletedUri)) {
                     photoAdapter.notifyDataSetChanged();
@@ -323,10 +409,13 @@ public class MyDreamPlaceActivity extends AppCompatActivity {
                         updatedPhotoPaths.add(uri.toString());
                     }
                     dreamPlace.setPhotoPaths(updatedPhotoPaths);
+                    PlaceStore.getInstance().put(new DreamPlace(dreamPlace), true);
 
                     // Save immediately after deletion
                     if (isGuest) {
-                        dbHelper.updateDreamPlace(dreamPlace);
+                        String placeId = dreamPlace.getId();
+                        DreamPlaceExecutors.getInstance().write(
+                                () -> dbHelper.deletePhotoFromPlace(placeId, deletedUri.toString()));
                     } else {
                         String uid = mAuth.getCurrentUser().getUid();
                         firestore.collection("users").document(uid)
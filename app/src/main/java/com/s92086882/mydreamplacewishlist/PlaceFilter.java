@@ -0,0 +1,279 @@
+package com.s92086882.mydreamplacewishlist;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A search query split into structured conditions plus the free text left over.
+ * -
+ * Responsibilities:
+ * - parse(): recognises visited:yes|no, rating>=4 (also >, <=, <, =; rating:4 means at least 4),
+ *   within:10km (or 500m, 2mi; a bare number is km) and city:Kandy (city:"Nuwara Eliya" for spaces).
+ *   Everything else is free text for the usual search.
+ * - One plan, three targets:
+ *   · SQLite (guests): DreamPlaceSQLiteHelper pushes visited/rating (idx_places_visited_rating)
+ *     and the radius bounding box into its WHERE clause.
+ *   · Firestore (logged-in): fetch() pushes the most selective condition into the query.
+ *   · Memory: matches() checks every condition, so whatever was not pushed down
+ *     (city, the exact radius) is evaluated on the candidates.
+ * -
+ * Notes:
+ * - A condition still being typed ("rating>=", "visited:ma") is consumed but ignored,
+ *   so half-typed filters never turn into a text search that matches nothing.
+ * - city: is a folded prefix match ("city:sao" finds "São Paulo"), which SQL and Firestore cannot
+ *   express, so it always runs in memory.
+ * - within: needs the user's location; without one the radius is ignored.
+ * - Immutable once parsed; safe to share with worker threads.
+ */
+public final class PlaceFilter {
+
+    private static final String FIELD_VISITED = "visited";
+    private static final String FIELD_RATING = "rating";
+
+    private static final Pattern CONDITION = Pattern.compile(
+            "(?i)\\b(visited|rating|within|city)\\s*(>=|<=|>|<|=|:)\\s*(\"[^\"]*\"?|[^\\s\"]*)");
+    private static final Pattern DISTANCE = Pattern.compile("(?i)(\\d+(?:\\.\\d+)?)\\s*(km|m|mi)?");
+
+    private static final double METERS_PER_MILE = 1609.344;
+
+    private String text = "";
+    @Nullable private Boolean visited;
+    // Ratings are stored as floats everywhere, so bounds are compared as floats too
+    private float minRating = Float.NEGATIVE_INFINITY;
+    private boolean minInclusive = true;
+    private float maxRating = Float.POSITIVE_INFINITY;
+    private boolean maxInclusive = true;
+    private double withinMeters; // 0 = no radius
+    private String city = "";    // folded, "" = any city
+
+    private PlaceFilter() {}
+
+    /** Split a typed query into conditions and free text. */
+    public static PlaceFilter parse(@Nullable String query) {
+        PlaceFilter filter = new PlaceFilter();
+        if (query == null) return filter;
+
+        StringBuilder text = new StringBuilder();
+        Matcher matcher = CONDITION.matcher(query);
+        int end = 0;
+        while (matcher.find()) {
+            text.append(query, end, matcher.start()).append(' ');
+            end = matcher.end();
+            filter.add(matcher.group(1).toLowerCase(Locale.ROOT), matcher.group(2), unquote(matcher.group(3)));
+        }
+        text.append(query.substring(end));
+        filter.text = text.toString().trim().replaceAll("\\s+", " ");
+        return filter;
+    }
+
+    // ----- Accessors -----
+
+    /** The free text of the query (conditions removed); "" when there is none. */
+    public String getText() {
+        return text;
+    }
+
+    /** Whether any condition constrains the places (besides the free text). */
+    public boolean hasConditions() {
+        return visited != null || hasRatingBounds() || withinMeters > 0 || !city.isEmpty();
+    }
+
+    @Nullable
+    public Boolean getVisited() {
+        return visited;
+    }
+
+    public boolean hasRatingBounds() {
+        return hasMinRating() || hasMaxRating();
+    }
+
+    public boolean hasMinRating() {
+        return minRating != Float.NEGATIVE_INFINITY;
+    }
+
+    public boolean hasMaxRating() {
+        return maxRating != Float.POSITIVE_INFINITY;
+    }
+
+    public float getMinRating() {
+        return minRating;
+    }
+
+    public boolean isMinRatingInclusive() {
+        return minInclusive;
+    }
+
+    public float getMaxRating() {
+        return maxRating;
+    }
+
+    public boolean isMaxRatingInclusive() {
+        return maxInclusive;
+    }
+
+    /** Radius around the user in meters; 0 when there is none. */
+    public double getWithinMeters() {
+        return withinMeters;
+    }
+
+    // ----- Evaluation -----
+
+    /**
+     * Whether a place satisfies every condition (the free text is not checked).
+     * - origin may be null (location unknown), in which case within: is ignored.
+     */
+    public boolean matches(DreamPlace place, @Nullable GeoDistance.Origin origin) {
+        if (visited != null && place.isVisited() != visited) return false;
+        if (!matchesRating(place.getRating())) return false;
+        if (withinMeters > 0 && origin != null
+                && !matchesLocation(origin, place.getLatitude(), place.getLongitude())) {
+            return false;
+        }
+        return matchesCity(place.getCity());
+    }
+
+    // Single conditions, also evaluated column by column (PlaceIndex.filter)
+
+    boolean matchesRating(float rating) {
+        if (rating < minRating || (rating == minRating && !minInclusive)) return false;
+        return !(rating > maxRating || (rating == maxRating && !maxInclusive));
+    }
+
+    boolean matchesCity(@Nullable String placeCity) {
+        return city.isEmpty() || PlaceSearchIndex.fold(placeCity).startsWith(city);
+    }
+
+    /** Whether a location lies within the radius (true when there is none). */
+    boolean matchesLocation(GeoDistance.Origin origin, double lat, double lng) {
+        if (withinMeters <= 0) return true;
+        if (lat == 0 && lng == 0) return false; // same "no coordinates" convention as the distance labels
+        return GeoDistance.haversineMeters(origin, lat, lng) <= withinMeters;
+    }
+
+    /**
+     * Fetch a superset of the matching documents, with one condition pushed into Firestore.
+     * - Priority: within: (geohash range queries, if backfilled and the location is known),
+     *   then the rating range, then visited:. Combining an equality with a range on another field
+     *   would need a composite index, so a single field keeps to the automatic indexes.
+     * - Callers still run matches() on the result for the conditions left over.
+     */
+    public Task<List<DocumentSnapshot>> fetch(CollectionReference places, @Nullable GeoDistance.Origin origin,
+                                              boolean geohashReady) {
+        if (withinMeters > 0 && origin != null && geohashReady) {
+            return FirestoreGeoQueries.nearby(places, origin.getLatitude(), origin.getLongitude(), withinMeters);
+        }
+
+        Query query = places;
+        if (hasRatingBounds()) {
+            // Widened to double exactly as the stored floats were
+            if (hasMinRating()) {
+                query = minInclusive
+                        ? query.whereGreaterThanOrEqualTo(FIELD_RATING, (double) minRating)
+                        : query.whereGreaterThan(FIELD_RATING, (double) minRating);
+            }
+            if (hasMaxRating()) {
+                query = maxInclusive
+                        ? query.whereLessThanOrEqualTo(FIELD_RATING, (double) maxRating)
+                        : query.whereLessThan(FIELD_RATING, (double) maxRating);
+            }
+        } else if (visited != null) {
+            query = query.whereEqualTo(FIELD_VISITED, visited);
+        }
+        return query.get().continueWith(task -> task.getResult().getDocuments());
+    }
+
+    // ----- Parsing -----
+
+    /** Apply one condition; unknown operators or unreadable values are ignored. */
+    private void add(String key, String operator, String value) {
+        switch (key) {
+            case "visited":
+                if (!operator.equals(":") && !operator.equals("=")) return;
+                Boolean flag = parseFlag(value);
+                if (flag != null) visited = flag;
+                break;
+            case "rating":
+                addRating(operator, value);
+                break;
+            case "within":
+                if (operator.equals(">") || operator.equals(">=")) return;
+                double meters = parseMeters(value);
+                if (meters > 0) withinMeters = withinMeters > 0 ? Math.min(withinMeters, meters) : meters;
+                break;
+            case "city":
+                if (operator.equals(":") || operator.equals("=")) city = PlaceSearchIndex.fold(value);
+                break;
+        }
+    }
+
+    /** Tighten the rating bounds; several conditions intersect. */
+    private void addRating(String operator, String value) {
+        float bound;
+        try {
+            bound = Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (Float.isNaN(bound) || Float.isInfinite(bound)) return;
+
+        boolean lower = operator.equals(">=") || operator.equals(">") || operator.equals(":") || operator.equals("=");
+        boolean upper = operator.equals("<=") || operator.equals("<") || operator.equals("=");
+        if (lower) {
+            boolean inclusive = !operator.equals(">");
+            if (bound > minRating || (bound == minRating && !inclusive)) {
+                minRating = bound;
+                minInclusive = inclusive;
+            }
+        }
+        if (upper) {
+            boolean inclusive = !operator.equals("<");
+            if (bound < maxRating || (bound == maxRating && !inclusive)) {
+                maxRating = bound;
+                maxInclusive = inclusive;
+            }
+        }
+    }
+
+    @Nullable
+    private static Boolean parseFlag(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "yes": case "y": case "true": case "1":
+                return true;
+            case "no": case "n": case "false": case "0":
+                return false;
+            default:
+                return null;
+        }
+    }
+
+    /** "10km", "500m", "2mi" or "10" (km) in meters; 0 if unreadable. */
+    private static double parseMeters(String value) {
+        Matcher matcher = DISTANCE.matcher(value);
+        if (!matcher.matches()) return 0;
+        double amount = Double.parseDouble(matcher.group(1));
+        String unit = matcher.group(2) == null ? "km" : matcher.group(2).toLowerCase(Locale.ROOT);
+        switch (unit) {
+            case "m":
+                return amount;
+            case "mi":
+                return amount * METERS_PER_MILE;
+            default:
+                return amount * 1000;
+        }
+    }
+
+    private static String unquote(String value) {
+        if (value.startsWith("\"")) value = value.substring(1);
+        if (value.endsWith("\"")) value = value.substring(0, value.length() - 1);
+        return value.trim();
+    }
+}
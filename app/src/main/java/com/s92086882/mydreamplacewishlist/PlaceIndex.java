@@ -0,0 +1,175 @@
+package com.s92086882.mydreamplacewishlist;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar (struct-of-arrays) snapshot of a list of Dream Places for sorting and filtering.
+ * -
+ * Responsibilities:
+ * - Copies the sortable/filterable fields into primitive arrays once (lat, lng, rating, visited, city).
+ * - Sorts and filters over those arrays and returns int[] permutations
+ *   (row numbers into the source list) instead of copying DreamPlace lists.
+ * - City names are dictionary-encoded: each row stores an int id, equal names share one id.
+ * - Search uses it to order a load by distance and to answer filter-only queries (PlaceFilter).
+ * -
+ * Notes:
+ * - Immutable after build; rebuild it when the underlying list is reloaded (covers()).
+ * - Row i always refers to the i-th place of the list it was built from (see place(int)).
+ * - Nearest-first paging (Home) and map bounds use the k-d tree (PlaceSpatialIndex) instead.
+ */
+public final class PlaceIndex {
+
+    private final List<DreamPlace> source;
+    private final DreamPlace[] places;
+    private final double[] lat;
+    private final double[] lng;
+    private final double[] cosLat; // precomputed for the distance key
+    private final float[] rating;
+    private final BitSet visited;
+    private final int[] cityId;
+    private final Map<String, Integer> cityIds = new HashMap<>();
+    private final List<String> cityNames = new ArrayList<>(); // by city id
+
+    private PlaceIndex(List<DreamPlace> source) {
+        this.source = source;
+        int n = source.size();
+        places = source.toArray(new DreamPlace[0]);
+        lat = new double[n];
+        lng = new double[n];
+        cosLat = new double[n];
+        rating = new float[n];
+        visited = new BitSet(n);
+        cityId = new int[n];
+        for (int i = 0; i < n; i++) {
+            DreamPlace place = places[i];
+            lat[i] = place.getLatitude();
+            lng[i] = place.getLongitude();
+            cosLat[i] = Math.cos(Math.toRadians(lat[i]));
+            rating[i] = place.getRating();
+            if (place.isVisited()) visited.set(i);
+            cityId[i] = encodeCity(place.getCity());
+        }
+    }
+
+    /** Build the index from places loaded from SQLite or Firestore. */
+    public static PlaceIndex build(List<DreamPlace> places) {
+        return new PlaceIndex(places);
+    }
+
+    // ----- Rows -----
+
+    public int size() {
+        return places.length;
+    }
+
+    /** Whether the index was built from this very list (loaded lists are replaced, never modified). */
+    public boolean covers(List<DreamPlace> places) {
+        return source == places;
+    }
+
+    /** The source place for row i. */
+    public DreamPlace place(int row) {
+        return places[row];
+    }
+
+    /** Map a permutation back to places, appending to target (the only place objects are touched). */
+    public void collect(int[] rows, List<DreamPlace> target) {
+        for (int row : rows) target.add(places[row]);
+    }
+
+    // ----- Sort -----
+
+    /** All rows ordered by distance from the origin, nearest first (stable for equal distances). */
+    public int[] sortByDistance(GeoDistance.Origin origin) {
+        double[] keys = distanceKeys(origin);
+        int[] rows = identity(places.length);
+        sortRows(rows, keys);
+        return rows;
+    }
+
+    // ----- Filter -----
+
+    /**
+     * Rows meeting every condition of a Search filter (its free text is not checked), in row order.
+     * - city: is folded and prefix-matched once per distinct city, then looked up per row by id.
+     * - origin may be null (location unknown), in which case within: is ignored, as in PlaceFilter.matches().
+     */
+    public int[] filter(PlaceFilter filter, @Nullable GeoDistance.Origin origin) {
+        boolean[] cityMatches = new boolean[cityNames.size()];
+        for (int id = 0; id < cityMatches.length; id++) cityMatches[id] = filter.matchesCity(cityNames.get(id));
+        boolean noCityMatches = filter.matchesCity(null);
+        Boolean visitedFilter = filter.getVisited();
+        boolean checkLocation = filter.getWithinMeters() > 0 && origin != null;
+
+        int[] rows = new int[places.length];
+        int count = 0;
+        for (int i = 0; i < places.length; i++) {
+            if (visitedFilter != null && visited.get(i) != visitedFilter) continue;
+            if (!filter.matchesRating(rating[i])) continue;
+            if (!(cityId[i] < 0 ? noCityMatches : cityMatches[cityId[i]])) continue;
+            if (checkLocation && !filter.matchesLocation(origin, lat[i], lng[i])) continue;
+            rows[count++] = i;
+        }
+        return trim(rows, count);
+    }
+
+    // ----- Internals -----
+
+    /** Per-row key that orders exactly like great-circle distance from the origin (GeoDistance.haversineKey). */
+    private double[] distanceKeys(GeoDistance.Origin origin) {
+        double[] keys = new double[places.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = GeoDistance.haversineKey(origin, lat[i], lng[i], cosLat[i]);
+        }
+        return keys;
+    }
+
+    private int encodeCity(String city) {
+        if (city == null) return -1;
+        Integer id = cityIds.get(city);
+        if (id == null) {
+            id = cityIds.size();
+            cityIds.put(city, id);
+            cityNames.add(city);
+        }
+        return id;
+    }
+
+    /** Stable merge sort of row numbers by keys[row]; no boxing, one scratch array. */
+    static void sortRows(int[] rows, double[] keys) {
+        int[] scratch = new int[rows.length];
+        for (int width = 1; width < rows.length; width <<= 1) {
+            for (int lo = 0; lo < rows.length - width; lo += width << 1) {
+                int mid = lo + width;
+                int hi = Math.min(lo + (width << 1), rows.length);
+                if (Double.compare(keys[rows[mid - 1]], keys[rows[mid]]) <= 0) continue; // already in order
+                int i = lo, j = mid, out = lo;
+                while (i < mid && j < hi) {
+                    scratch[out++] = Double.compare(keys[rows[j]], keys[rows[i]]) < 0 ? rows[j++] : rows[i++];
+                }
+                while (i < mid) scratch[out++] = rows[i++];
+                while (j < hi) scratch[out++] = rows[j++];
+                System.arraycopy(scratch, lo, rows, lo, hi - lo);
+            }
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) rows[i] = i;
+        return rows;
+    }
+
+    private static int[] trim(int[] rows, int count) {
+        if (count == rows.length) return rows;
+        int[] trimmed = new int[count];
+        System.arraycopy(rows, 0, trimmed, 0, count);
+        return trimmed;
+    }
+}
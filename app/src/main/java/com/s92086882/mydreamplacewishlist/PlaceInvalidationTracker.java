@@ -0,0 +1,59 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tells open screens which guest places changed, so they can patch their lists in place.
+ * -
+ * Responsibilities:
+ * - Owned by DreamPlaceSQLiteHelper; every committed write reports the row IDs it touched.
+ * - Delivers the changed rows (re-read as list rows) and the deleted IDs to observers.
+ * - Always notifies observers on the main thread, in commit order.
+ * -
+ * Notes:
+ * - Observers should register in onCreateView and unregister in onDestroyView.
+ * - Firestore (logged-in) data is not tracked here.
+ */
+public class PlaceInvalidationTracker {
+
+    /** Receives changes after each committed write. */
+    public interface Observer {
+        /**
+         * @param changed    inserted or updated places (summary fields only, no distance)
+         * @param deletedIds IDs of places that no longer exist
+         */
+        void onPlacesChanged(List<DreamPlace> changed, Set<String> deletedIds);
+    }
+
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /** Whether anyone is listening (lets writers skip re-reading changed rows). */
+    boolean hasObservers() {
+        return !observers.isEmpty();
+    }
+
+    /** Called by the helper after a write has committed. */
+    void dispatch(List<DreamPlace> changed, Set<String> deletedIds) {
+        if (changed.isEmpty() && deletedIds.isEmpty()) return;
+        final List<DreamPlace> changedRows = Collections.unmodifiableList(changed);
+        final Set<String> deleted = Collections.unmodifiableSet(deletedIds);
+        mainHandler.post(() -> {
+            for (Observer observer : observers) observer.onPlacesChanged(changedRows, deleted);
+        });
+    }
+}
@@ -0,0 +1,377 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.os.CancellationSignal;
+
+import androidx.annotation.Nullable;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable substring index over loaded places (name, city, notes), built once per load.
+ * -
+ * Responsibilities:
+ * - Folds every field once: NFKD, diacritics removed, lower-cased (locale-independent), whitespace collapsed,
+ *   so "sao paulo" finds "São Paulo" whatever the device locale.
+ * - Trigram posting lists: a query of 3+ characters intersects the (sorted) lists of its trigrams
+ *   and only verifies the surviving candidates, instead of scanning every place.
+ * - Ranks matches by field (name, then city, then notes) and by match position within it;
+ *   ties keep load order (nearest first).
+ * - fuzzySearch(): typo-tolerant token match on name and city through a TokenTrie, with an edit
+ *   budget that grows with each query word's length (0 up to 3 chars, 1 up to 6, then 2).
+ * -
+ * Notes:
+ * - Queries shorter than a trigram scan the precomputed keys (no folding per keystroke).
+ * - The index holds the list it was built from; covers() tells whether that list is still current.
+ * - Recent search() results are cached per index (SearchResultCache), so a reload invalidates them.
+ */
+public final class PlaceSearchIndex {
+
+    // Field order is also rank order: a name match beats a city match beats a notes match
+    private static final int NAME = 0, CITY = 1, NOTES = 2, FIELDS = 3;
+    private static final int GRAM = 3;
+
+    private final List<DreamPlace> places;
+    private final String[][] keys;                 // [row][field], folded
+    private final GramTable postings;              // trigram → ascending rows containing it
+    private final TokenTrie tokenTrie;             // distinct name/city words
+    private final int[][] tokenRows;               // word ID → ascending (row << 1 | 1 if in city)
+    private final SearchResultCache cache = new SearchResultCache();
+
+    private PlaceSearchIndex(List<DreamPlace> places, String[][] keys, GramTable postings,
+                             TokenTrie tokenTrie, int[][] tokenRows) {
+        this.places = places;
+        this.keys = keys;
+        this.postings = postings;
+        this.tokenTrie = tokenTrie;
+        this.tokenRows = tokenRows;
+    }
+
+    /** Fold and index the places (worker thread: O(total text length)). */
+    public static PlaceSearchIndex build(List<DreamPlace> places) {
+        String[][] keys = new String[places.size()][];
+        GramTable postings = new GramTable();
+        Map<String, Integer> tokenIds = new HashMap<>();
+        List<String> tokens = new ArrayList<>();
+        List<RowList> tokenLists = new ArrayList<>();
+        for (int row = 0; row < keys.length; row++) {
+            DreamPlace place = places.get(row);
+            String[] fields = new String[FIELDS];
+            fields[NAME] = fold(place.getName());
+            fields[CITY] = fold(place.getCity());
+            fields[NOTES] = fold(place.getNotes());
+            keys[row] = fields;
+            for (String field : fields) {
+                for (int i = 0; i + GRAM <= field.length(); i++) {
+                    postings.listFor(trigram(field, i)).add(row);
+                }
+            }
+            for (int field = NAME; field <= CITY; field++) {
+                for (String token : tokens(fields[field])) {
+                    Integer id = tokenIds.get(token);
+                    if (id == null) {
+                        id = tokens.size();
+                        tokenIds.put(token, id);
+                        tokens.add(token);
+                        tokenLists.add(new RowList());
+                    }
+                    tokenLists.get(id).add(row << 1 | field); // name entries sort before city ones
+                }
+            }
+        }
+        postings.trim();
+        int[][] tokenRows = new int[tokenLists.size()][];
+        for (int id = 0; id < tokenRows.length; id++) tokenRows[id] = tokenLists.get(id).toArray();
+        return new PlaceSearchIndex(places, keys, postings, new TokenTrie(tokens), tokenRows);
+    }
+
+    /** Whether this index was built from exactly this list. */
+    public boolean covers(List<DreamPlace> places) {
+        return this.places == places;
+    }
+
+    /** Search key form of text: NFKD, diacritics removed, lower-cased, whitespace collapsed. */
+    public static String fold(@Nullable String text) {
+        if (text == null || text.isEmpty()) return "";
+        String decomposed = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = folded.length() > 0; // leading whitespace is dropped
+            } else if (!isCombiningMark(c)) {
+                if (space) folded.append(' ');
+                space = false;
+                folded.append(Character.toLowerCase(c)); // locale-independent, unlike String.toLowerCase()
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Places whose name, city or notes contain the query (folded), best ranked first.
+     * - Served from the session cache when possible: repeated queries are not searched again,
+     *   and a query extending a cached one only re-checks that query's matches.
+     * - Polls the signal while verifying candidates; throws OperationCanceledException if cancelled.
+     */
+    public List<DreamPlace> search(String query, @Nullable CancellationSignal cancellationSignal) {
+        String folded = fold(query);
+        if (folded.isEmpty()) return new ArrayList<>(places);
+
+        int[] rows = cache.get(folded);
+        if (rows == null) {
+            int[] base = cache.narrowingBase(folded);
+            rows = match(base != null ? base : candidates(folded), folded, cancellationSignal);
+            cache.put(folded, rows);
+        }
+        List<DreamPlace> results = new ArrayList<>(rows.length);
+        for (int row : rows) results.add(places.get(row));
+        return results;
+    }
+
+    /** Hit / narrowed / miss counts of search() on this index (i.e. since the places were loaded). */
+    public SearchResultCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Places whose name or city words are within the edit budget of every query word (for when
+     * search() finds nothing, e.g. a misspelt foreign name).
+     * - Ranked by total edits, a name match before a city match; ties keep load order.
+     * - Checks the signal between query words; throws OperationCanceledException if cancelled.
+     */
+    public List<DreamPlace> fuzzySearch(String query, @Nullable CancellationSignal cancellationSignal) {
+        List<String> queryTokens = tokens(fold(query));
+        List<DreamPlace> results = new ArrayList<>();
+        if (queryTokens.isEmpty()) return results;
+
+        int[] matched = new int[keys.length]; // how many query words (in order) each row matched
+        int[] cost = new int[keys.length];
+        for (int word = 0; word < queryTokens.size(); word++) {
+            if (cancellationSignal != null) cancellationSignal.throwIfCanceled();
+            String token = queryTokens.get(word);
+            List<long[]> hits = new ArrayList<>(); // {edits, token ID}
+            tokenTrie.within(token, editBudget(token.length()), (id, edits) -> hits.add(new long[]{edits, id}));
+            hits.sort((a, b) -> Long.compare(a[0], b[0])); // a row's first hit is its closest word
+
+            for (long[] hit : hits) {
+                for (int entry : tokenRows[(int) hit[1]]) {
+                    int row = entry >>> 1;
+                    if (matched[row] != word) continue; // missed an earlier word, or already matched this one
+                    matched[row] = word + 1;
+                    cost[row] += 2 * (int) hit[0] + (entry & 1);
+                }
+            }
+        }
+
+        int count = 0;
+        long[] ranked = new long[keys.length]; // cost << 32 | row
+        for (int row = 0; row < keys.length; row++) {
+            if (matched[row] == queryTokens.size()) ranked[count++] = (long) cost[row] << 32 | row;
+        }
+        Arrays.sort(ranked, 0, count);
+        for (int i = 0; i < count; i++) results.add(places.get((int) ranked[i]));
+        return results;
+    }
+
+    // ----- Internals -----
+
+    /**
+     * Rows (all rows if candidates is null) whose keys contain folded, best ranked first.
+     * - Rank: field, then match position; equal ranks keep load order.
+     */
+    private int[] match(@Nullable int[] candidates, String folded, @Nullable CancellationSignal cancellationSignal) {
+        List<long[]> matches = new ArrayList<>(); // {rank, row}
+        int count = candidates == null ? keys.length : candidates.length;
+        for (int i = 0; i < count; i++) {
+            if (cancellationSignal != null && i % SearchPipeline.CANCEL_CHECK_INTERVAL == 0) {
+                cancellationSignal.throwIfCanceled();
+            }
+            int row = candidates == null ? i : candidates[i];
+            long rank = rank(keys[row], folded);
+            if (rank >= 0) matches.add(new long[]{rank, row});
+        }
+        matches.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        int[] rows = new int[matches.size()];
+        for (int i = 0; i < rows.length; i++) rows[i] = (int) matches.get(i)[1];
+        return rows;
+    }
+
+    /** Edits allowed for a query word: none for short words (too many accidental hits), then 1, then 2. */
+    private static int editBudget(int length) {
+        if (length <= 3) return 0;
+        return length <= 6 ? 1 : 2;
+    }
+
+    /** Words of a folded key (runs of letters and digits). */
+    private static List<String> tokens(String folded) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /** Rows containing every trigram of the query, or null when the query is too short to filter. */
+    @Nullable
+    private int[] candidates(String folded) {
+        if (folded.length() < GRAM) return null;
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= folded.length(); i++) grams.add(trigram(folded, i));
+
+        List<int[]> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            RowList list = postings.get(gram);
+            if (list == null) return new int[0]; // a trigram no place has
+            lists.add(list.rows);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length)); // intersect the smallest first
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) result = intersect(result, lists.get(i));
+        return result;
+    }
+
+    /** Sorted intersection; galloping through the longer list keeps skewed sizes cheap. */
+    private static int[] intersect(int[] small, int[] large) {
+        int[] out = new int[small.length];
+        int size = 0, from = 0;
+        for (int row : small) {
+            int at = gallop(large, from, row);
+            if (at == large.length) break;
+            if (large[at] == row) out[size++] = row;
+            from = at;
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    /** First index ≥ from holding a value ≥ target (large.length if none). */
+    private static int gallop(int[] large, int from, int target) {
+        int step = 1, high = from;
+        while (high < large.length && large[high] < target) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(large, from, Math.min(high + 1, large.length), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /** Field × position rank of the first field (in rank order) that contains the query, or -1. */
+    private static long rank(String[] fields, String folded) {
+        for (int field = NAME; field < FIELDS; field++) {
+            int position = fields[field].indexOf(folded);
+            if (position >= 0) return (long) field << 32 | position;
+        }
+        return -1;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    private static boolean isCombiningMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+
+    /** Posting list; rows arrive in ascending order. */
+    private static final class RowList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size > 0 && rows[size - 1] == row) return; // seen earlier in this place
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+
+        /** Drop spare capacity, so rows holds exactly the list. */
+        void trim() {
+            if (rows.length != size) rows = toArray();
+        }
+    }
+
+    /** Open-addressing map trigram → RowList (no boxed keys; the build does one lookup per trigram). */
+    private static final class GramTable {
+        private long[] grams = new long[1024];
+        private RowList[] lists = new RowList[1024];
+        private int size;
+
+        @Nullable
+        RowList get(long gram) {
+            int mask = grams.length - 1;
+            for (int slot = slot(gram, mask); lists[slot] != null; slot = (slot + 1) & mask) {
+                if (grams[slot] == gram) return lists[slot];
+            }
+            return null;
+        }
+
+        RowList listFor(long gram) {
+            int mask = grams.length - 1;
+            int slot = slot(gram, mask);
+            for (; lists[slot] != null; slot = (slot + 1) & mask) {
+                if (grams[slot] == gram) return lists[slot];
+            }
+            if (2 * (size + 1) > grams.length) {
+                grow();
+                return listFor(gram);
+            }
+            grams[slot] = gram;
+            size++;
+            return lists[slot] = new RowList();
+        }
+
+        void trim() {
+            for (RowList list : lists) {
+                if (list != null) list.trim();
+            }
+        }
+
+        private void grow() {
+            long[] oldGrams = grams;
+            RowList[] oldLists = lists;
+            grams = new long[oldGrams.length * 2];
+            lists = new RowList[oldLists.length * 2];
+            int mask = grams.length - 1;
+            for (int i = 0; i < oldLists.length; i++) {
+                if (oldLists[i] == null) continue;
+                int slot = slot(oldGrams[i], mask);
+                while (lists[slot] != null) slot = (slot + 1) & mask;
+                grams[slot] = oldGrams[i];
+                lists[slot] = oldLists[i];
+            }
+        }
+
+        private static int slot(long gram, int mask) {
+            return (int) ((gram * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+
+    /** Three chars packed into one key (UTF-16 units, 16 bits each). */
+    private static long trigram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+}
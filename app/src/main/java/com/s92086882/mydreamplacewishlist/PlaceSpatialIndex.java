@@ -0,0 +1,402 @@
+package com.s92086882.mydreamplacewishlist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable in-memory spatial index (2-d tree over latitude/longitude) shared by Home, Map and Search.
+ * -
+ * Responsibilities:
+ * - nearestFirst(): yields places in increasing great-circle distance, lazily (best-first search),
+ *   so a list can page through them without a full sort; nearest(k) is its first k.
+ * - withinRadius() and withinBounds(): prune whole subtrees instead of testing every place.
+ * - withChanges(): applies a write as a small overlay (added rows + hidden IDs) on the shared tree;
+ *   the tree is only rebuilt once the overlay grows past MAX_OVERLAY_SHARE of the rows.
+ * -
+ * Notes:
+ * - Subtree pruning uses a haversine lower bound for a lat/lng box, so results are exact,
+ *   including across the antimeridian.
+ * - Places are rows shared by every screen; callers must not change them (the distance included:
+ *   copy a row with DreamPlace.withDistanceMeters instead).
+ * - Instances are never modified, so one can be read from any thread.
+ */
+public final class PlaceSpatialIndex {
+
+    // Leaves hold up to this many rows (scanned linearly)
+    private static final int LEAF_SIZE = 8;
+
+    // Overlay (added + hidden rows) larger than 1/n of the tree triggers a rebuild; small sets always rebuild
+    private static final int MAX_OVERLAY_SHARE = 8;
+    private static final int MIN_OVERLAY = 32;
+
+    // Tree rows in k-d order; node [lo, hi) splits at mid = (lo + hi) / 2, on latitude at even depths
+    private final DreamPlace[] places;
+    private final double[] lat;
+    private final double[] lng;
+    private final double[] cosLat;
+    private final double[] split; // split value of the internal node whose mid is this row (mids are unique)
+
+    // Overlay since the last rebuild
+    private final List<DreamPlace> added;  // new or changed rows, not in the tree
+    private final Set<String> hiddenIds;   // tree rows that were deleted or changed
+
+    private PlaceSpatialIndex(DreamPlace[] places, List<DreamPlace> added, Set<String> hiddenIds) {
+        this.places = places;
+        this.added = added;
+        this.hiddenIds = hiddenIds;
+        int n = places.length;
+        lat = new double[n];
+        lng = new double[n];
+        cosLat = new double[n];
+        split = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = places[i].getLatitude();
+            lng[i] = places[i].getLongitude();
+        }
+        build(0, n, 0);
+        for (int i = 0; i < n; i++) cosLat[i] = Math.cos(Math.toRadians(lat[i]));
+    }
+
+    /** Same tree, different overlay. */
+    private PlaceSpatialIndex(PlaceSpatialIndex tree, List<DreamPlace> added, Set<String> hiddenIds) {
+        this.places = tree.places;
+        this.lat = tree.lat;
+        this.lng = tree.lng;
+        this.cosLat = tree.cosLat;
+        this.split = tree.split;
+        this.added = added;
+        this.hiddenIds = hiddenIds;
+    }
+
+    /** Build the index over places (the list is copied, not kept). */
+    public static PlaceSpatialIndex build(Collection<DreamPlace> places) {
+        return new PlaceSpatialIndex(places.toArray(new DreamPlace[0]), Collections.emptyList(), Collections.emptySet());
+    }
+
+    /**
+     * A new index with a committed write applied (the same shape PlaceInvalidationTracker reports).
+     * @param changed    inserted or updated rows
+     * @param deletedIds IDs of rows that no longer exist
+     */
+    public PlaceSpatialIndex withChanges(Collection<DreamPlace> changed, Set<String> deletedIds) {
+        Set<String> replaced = new HashSet<>(deletedIds);
+        for (DreamPlace place : changed) replaced.add(place.getId());
+
+        List<DreamPlace> nextAdded = new ArrayList<>(added.size() + changed.size());
+        for (DreamPlace place : added) {
+            if (!replaced.contains(place.getId())) nextAdded.add(place);
+        }
+        nextAdded.addAll(changed);
+        Set<String> nextHidden = new HashSet<>(hiddenIds);
+        nextHidden.addAll(replaced);
+
+        if (nextAdded.size() + nextHidden.size() > Math.max(MIN_OVERLAY, places.length / MAX_OVERLAY_SHARE)) {
+            List<DreamPlace> live = new ArrayList<>(places.length + nextAdded.size());
+            for (DreamPlace place : places) {
+                if (!nextHidden.contains(place.getId())) live.add(place);
+            }
+            live.addAll(nextAdded);
+            return build(live);
+        }
+        return new PlaceSpatialIndex(this, nextAdded, nextHidden);
+    }
+
+    // ----- Queries -----
+
+    /** Number of live places. */
+    public int size() {
+        return all().size();
+    }
+
+    /** Every live place, in index order. */
+    public List<DreamPlace> all() {
+        List<DreamPlace> result = new ArrayList<>(places.length + added.size());
+        for (DreamPlace place : places) {
+            if (isLive(place)) result.add(place);
+        }
+        result.addAll(added);
+        return result;
+    }
+
+    /** Places in increasing distance from origin, computed lazily; null origin = index order. */
+    public NearestIterator nearestFirst(GeoDistance.Origin origin) {
+        return new NearestIterator(origin);
+    }
+
+    /** The k places nearest to origin, nearest first. */
+    public List<DreamPlace> nearest(GeoDistance.Origin origin, int k) {
+        return nearestFirst(origin).next(k);
+    }
+
+    /** Places within radiusMeters of origin, in no particular order. */
+    public List<DreamPlace> withinRadius(GeoDistance.Origin origin, double radiusMeters) {
+        double maxKey = metersToKey(radiusMeters);
+        List<DreamPlace> result = new ArrayList<>();
+        collectWithin(origin, maxKey, 0, places.length, 0, -90, 90, -180, 180, result);
+        for (DreamPlace place : added) {
+            double key = GeoDistance.haversineKey(origin, place.getLatitude(), place.getLongitude(),
+                    Math.cos(Math.toRadians(place.getLatitude())));
+            if (key <= maxKey) result.add(place);
+        }
+        return result;
+    }
+
+    /**
+     * Places inside a lat/lng rectangle (e.g. a map's visible region), in no particular order.
+     * - west > east means the rectangle crosses the antimeridian.
+     */
+    public List<DreamPlace> withinBounds(double south, double west, double north, double east) {
+        List<DreamPlace> result = new ArrayList<>();
+        if (west <= east) {
+            collectInBox(south, north, west, east, 0, places.length, 0, -90, 90, -180, 180, result);
+        } else {
+            collectInBox(south, north, west, 180, 0, places.length, 0, -90, 90, -180, 180, result);
+            collectInBox(south, north, -180, east, 0, places.length, 0, -90, 90, -180, 180, result);
+        }
+        for (DreamPlace place : added) {
+            double placeLng = place.getLongitude();
+            boolean inLng = west <= east ? placeLng >= west && placeLng <= east : placeLng >= west || placeLng <= east;
+            if (inLng && place.getLatitude() >= south && place.getLatitude() <= north) result.add(place);
+        }
+        return result;
+    }
+
+    // ----- Best-first traversal -----
+
+    /**
+     * Yields live places nearest first (Hjaltason–Samet best-first search).
+     * - A priority queue holds subtrees keyed by their distance lower bound and rows keyed by
+     *   their exact key; a row is returned once nothing left in the queue can be closer.
+     * - Cost grows with the rows taken, not with the index size.
+     * - Not thread-safe; use it on one thread.
+     */
+    public final class NearestIterator {
+        private final GeoDistance.Origin origin;
+        private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+        private List<DreamPlace> unordered; // null origin: every live place, in index order
+        private int unorderedPosition;
+        private double lastKey = Double.NaN;
+
+        private NearestIterator(GeoDistance.Origin origin) {
+            this.origin = origin;
+            if (origin == null) {
+                unordered = all();
+                return;
+            }
+            if (places.length > 0) queue.add(new Entry(0, 0, places.length, -90, 90, -180, 180));
+            for (DreamPlace place : added) {
+                queue.add(new Entry(GeoDistance.haversineKey(origin, place.getLatitude(), place.getLongitude(),
+                        Math.cos(Math.toRadians(place.getLatitude()))), place));
+            }
+        }
+
+        public boolean hasNext() {
+            if (unordered != null) return unorderedPosition < unordered.size();
+            settle();
+            return !queue.isEmpty();
+        }
+
+        public DreamPlace next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            if (unordered != null) return unordered.get(unorderedPosition++);
+            Entry entry = queue.poll();
+            lastKey = entry.key;
+            return entry.place;
+        }
+
+        /** Up to k more places (fewer once the index is exhausted). */
+        public List<DreamPlace> next(int k) {
+            List<DreamPlace> page = new ArrayList<>(Math.max(0, k));
+            while (page.size() < k && hasNext()) page.add(next());
+            return page;
+        }
+
+        /** Great-circle distance of the place last returned by next(), NaN without an origin. */
+        public double lastDistanceMeters() {
+            return Double.isNaN(lastKey) ? Double.NaN : GeoDistance.keyToMeters(lastKey);
+        }
+
+        /** Expand subtrees until the queue head is a row (or the queue is empty). */
+        private void settle() {
+            while (!queue.isEmpty() && queue.peek().place == null) {
+                Entry node = queue.poll();
+                if (node.hi - node.lo <= LEAF_SIZE) {
+                    for (int i = node.lo; i < node.hi; i++) {
+                        if (!isLive(places[i])) continue;
+                        queue.add(new Entry(GeoDistance.haversineKey(origin, lat[i], lng[i], cosLat[i]), places[i]));
+                    }
+                    continue;
+                }
+                int mid = (node.lo + node.hi) >>> 1;
+                double at = split[mid];
+                if (node.depth % 2 == 0) {
+                    queue.add(new Entry(node.depth + 1, node.lo, mid, node.minLat, at, node.minLng, node.maxLng));
+                    queue.add(new Entry(node.depth + 1, mid, node.hi, at, node.maxLat, node.minLng, node.maxLng));
+                } else {
+                    queue.add(new Entry(node.depth + 1, node.lo, mid, node.minLat, node.maxLat, node.minLng, at));
+                    queue.add(new Entry(node.depth + 1, mid, node.hi, node.minLat, node.maxLat, at, node.maxLng));
+                }
+            }
+        }
+
+        /** Queue entry: a subtree with its bounding box, or a single row. */
+        private final class Entry implements Comparable<Entry> {
+            final double key;
+            final DreamPlace place; // null for subtrees
+            final int depth, lo, hi;
+            final double minLat, maxLat, minLng, maxLng;
+
+            Entry(double key, DreamPlace place) {
+                this.key = key;
+                this.place = place;
+                this.depth = this.lo = this.hi = 0;
+                this.minLat = this.maxLat = this.minLng = this.maxLng = 0;
+            }
+
+            Entry(int depth, int lo, int hi, double minLat, double maxLat, double minLng, double maxLng) {
+                this.key = boxKey(origin, minLat, maxLat, minLng, maxLng);
+                this.place = null;
+                this.depth = depth;
+                this.lo = lo;
+                this.hi = hi;
+                this.minLat = minLat;
+                this.maxLat = maxLat;
+                this.minLng = minLng;
+                this.maxLng = maxLng;
+            }
+
+            @Override
+            public int compareTo(Entry other) {
+                int c = Double.compare(key, other.key);
+                if (c != 0) return c;
+                // At equal keys, expand subtrees first so no row overtakes a closer one
+                return Boolean.compare(place != null, other.place != null);
+            }
+        }
+    }
+
+    // ----- Internals -----
+
+    private boolean isLive(DreamPlace place) {
+        return hiddenIds.isEmpty() || !hiddenIds.contains(place.getId());
+    }
+
+    /** Arrange rows [lo, hi) into a k-d subtree: median split on latitude (even depth) or longitude. */
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= LEAF_SIZE) return;
+        int mid = (lo + hi) >>> 1;
+        double[] axis = depth % 2 == 0 ? lat : lng;
+        select(lo, hi - 1, mid, axis);
+        split[mid] = axis[mid]; // read now: building the children moves rows around
+        build(lo, mid, depth + 1);
+        build(mid, hi, depth + 1);
+    }
+
+    /** Quickselect: afterwards row k holds its sorted value, rows before it ≤ and rows after it ≥. */
+    private void select(int left, int right, int k, double[] axis) {
+        while (left < right) {
+            double pivot = axis[(left + right) >>> 1];
+            int i = left, j = right;
+            while (i <= j) {
+                while (axis[i] < pivot) i++;
+                while (axis[j] > pivot) j--;
+                if (i <= j) swap(i++, j--);
+            }
+            if (k <= j) right = j;
+            else if (k >= i) left = i;
+            else return;
+        }
+    }
+
+    private void swap(int i, int j) {
+        DreamPlace place = places[i];
+        places[i] = places[j];
+        places[j] = place;
+        double t = lat[i];
+        lat[i] = lat[j];
+        lat[j] = t;
+        t = lng[i];
+        lng[i] = lng[j];
+        lng[j] = t;
+    }
+
+    private void collectWithin(GeoDistance.Origin origin, double maxKey, int lo, int hi, int depth,
+                               double minLat, double maxLat, double minLng, double maxLng, List<DreamPlace> out) {
+        if (lo >= hi || boxKey(origin, minLat, maxLat, minLng, maxLng) > maxKey) return;
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                if (isLive(places[i]) && GeoDistance.haversineKey(origin, lat[i], lng[i], cosLat[i]) <= maxKey) {
+                    out.add(places[i]);
+                }
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (depth % 2 == 0) {
+            collectWithin(origin, maxKey, lo, mid, depth + 1, minLat, split[mid], minLng, maxLng, out);
+            collectWithin(origin, maxKey, mid, hi, depth + 1, split[mid], maxLat, minLng, maxLng, out);
+        } else {
+            collectWithin(origin, maxKey, lo, mid, depth + 1, minLat, maxLat, minLng, split[mid], out);
+            collectWithin(origin, maxKey, mid, hi, depth + 1, minLat, maxLat, split[mid], maxLng, out);
+        }
+    }
+
+    private void collectInBox(double south, double north, double west, double east, int lo, int hi, int depth,
+                              double minLat, double maxLat, double minLng, double maxLng, List<DreamPlace> out) {
+        if (lo >= hi || maxLat < south || minLat > north || maxLng < west || minLng > east) return;
+        if (hi - lo <= LEAF_SIZE) {
+            for (int i = lo; i < hi; i++) {
+                if (isLive(places[i]) && lat[i] >= south && lat[i] <= north && lng[i] >= west && lng[i] <= east) {
+                    out.add(places[i]);
+                }
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (depth % 2 == 0) {
+            collectInBox(south, north, west, east, lo, mid, depth + 1, minLat, split[mid], minLng, maxLng, out);
+            collectInBox(south, north, west, east, mid, hi, depth + 1, split[mid], maxLat, minLng, maxLng, out);
+        } else {
+            collectInBox(south, north, west, east, lo, mid, depth + 1, minLat, maxLat, minLng, split[mid], out);
+            collectInBox(south, north, west, east, mid, hi, depth + 1, minLat, maxLat, split[mid], maxLng, out);
+        }
+    }
+
+    /**
+     * Lower bound of haversineKey from origin to any point in the box.
+     * - hav(θ) = hav(Δφ) + cosφ1·cosφ2·hav(Δλ); each term is bounded below separately by the
+     *   smallest latitude gap, the smallest cos of latitude in the box and the smallest
+     *   (antimeridian-wrapped) longitude gap.
+     */
+    private static double boxKey(GeoDistance.Origin origin, double minLat, double maxLat, double minLng, double maxLng) {
+        double originLat = origin.getLatitude();
+        double originLng = origin.getLongitude();
+        double dLat = originLat < minLat ? minLat - originLat : originLat > maxLat ? originLat - maxLat : 0;
+        double dLng = 0;
+        if (originLng < minLng || originLng > maxLng) {
+            dLng = Math.min(wrappedGap(minLng - originLng), wrappedGap(originLng - maxLng));
+        }
+        double cosBox = Math.max(0, Math.min(Math.cos(Math.toRadians(minLat)), Math.cos(Math.toRadians(maxLat))));
+        double sinLat = Math.sin(Math.toRadians(dLat) / 2);
+        double sinLng = Math.sin(Math.toRadians(dLng) / 2);
+        return sinLat * sinLat + origin.cosLat * cosBox * sinLng * sinLng;
+    }
+
+    /** Absolute longitude gap in degrees, the short way around (0..180). */
+    private static double wrappedGap(double degrees) {
+        double gap = Math.abs(degrees) % 360;
+        return gap > 180 ? 360 - gap : gap;
+    }
+
+    /** Inverse of GeoDistance.keyToMeters. */
+    private static double metersToKey(double meters) {
+        double half = Math.sin(Math.min(Math.PI, meters / GeoDistance.EARTH_RADIUS_METERS) / 2);
+        return half * half;
+    }
+}
@@ -0,0 +1,71 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Process-wide store of recently opened Dream Places, keyed by ID.
+ * -
+ * Responsibilities:
+ * - Lets screens hand a place to MyDreamPlaceActivity by ID instead of serializing it into the Intent.
+ * - Keeps the most recently opened places (LRU); older entries are evicted automatically.
+ * - Remembers whether an entry is complete (notes + full gallery) or just a list row.
+ * -
+ * Notes:
+ * - It is only a cache: after process death it starts empty, and the detail screen
+ *   reloads the place from SQLite or Firestore using the ID in its saved state.
+ * - Entries are shared objects; callers that edit a place should edit a copy.
+ */
+public final class PlaceStore {
+
+    // Detail screens opened back-to-back rarely exceed a handful; 32 keeps memory trivial
+    private static final int MAX_ENTRIES = 32;
+
+    private static final PlaceStore INSTANCE = new PlaceStore();
+
+    private final LruCache<String, Entry> recent = new LruCache<>(MAX_ENTRIES);
+
+    private PlaceStore() {}
+
+    public static PlaceStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Remember a place under its ID (ignored if it has none).
+     * @param complete true if notes and every photo are loaded, false for list rows
+     */
+    public void put(DreamPlace place, boolean complete) {
+        if (place == null || place.getId() == null) return;
+        recent.put(place.getId(), new Entry(place, complete));
+    }
+
+    /** The cached place (complete or list row), or null if not cached. */
+    @Nullable
+    public DreamPlace get(String id) {
+        Entry entry = id != null ? recent.get(id) : null;
+        return entry != null ? entry.place : null;
+    }
+
+    /** The cached place only if it was stored complete, otherwise null. */
+    @Nullable
+    public DreamPlace getComplete(String id) {
+        Entry entry = id != null ? recent.get(id) : null;
+        return entry != null && entry.complete ? entry.place : null;
+    }
+
+    public void remove(String id) {
+        if (id != null) recent.remove(id);
+    }
+
+    private static final class Entry {
+        final DreamPlace place;
+        final boolean complete;
+
+        Entry(DreamPlace place, boolean complete) {
+            this.place = place;
+            this.complete = complete;
+        }
+    }
+}
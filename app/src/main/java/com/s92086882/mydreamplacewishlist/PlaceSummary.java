@@ -0,0 +1,61 @@
+package com.s92086882.mydreamplacewishlist;
+
+/**
+ * Lightweight, read-only view of a Dream Place for lists and map markers.
+ * -
+ * Responsibilities:
+ * - Carries only what list rows and markers display (name, city, position, visited, rating, cover photo).
+ * - Leaves out notes and the full photo gallery, which are loaded only when the detail screen opens.
+ * -
+ * Notes:
+ * - Built by DreamPlaceSQLiteHelper from a narrow projection, so large tables stay cheap to scan.
+ */
+public class PlaceSummary {
+
+    private final String id; // SQLite row ID (as String, same as DreamPlace)
+    private final String name;
+    private final String city;
+    private final double latitude;
+    private final double longitude;
+    private final boolean visited;
+    private final float rating;
+    private final String coverPhoto; // First photo URI, or null if the place has none
+
+    public PlaceSummary(String id, String name, String city, double latitude, double longitude,
+                        boolean visited, float rating, String coverPhoto) {
+        this.id = id;
+        this.name = name;
+        this.city = city;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.visited = visited;
+        this.rating = rating;
+        this.coverPhoto = coverPhoto;
+    }
+
+    // ----- Getters -----
+    public String getId() {
+        return id;
+    }
+    public String getName() {
+        return name;
+    }
+    public String getCity() {
+        return city;
+    }
+    public double getLatitude() {
+        return latitude;
+    }
+    public double getLongitude() {
+        return longitude;
+    }
+    public boolean isVisited() {
+        return visited;
+    }
+    public float getRating() {
+        return rating;
+    }
+    public String getCoverPhoto() {
+        return coverPhoto;
+    }
+}
@@ -2,10 +2,11 @@ package com.s92086882.mydreamplacewishlist;
 
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.location.Location;
 import android.os.Bundle;
+import android.os.CancellationSignal;
 import android.text.Editable;
 import android.text.TextWatcher;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,6 +14,7 @@ import android.widget.EditText;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -20,32 +22,77 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Fragment for searching Dream Places by name or city.
  * Supports both guest (SQLite) and logged-in (Firestore) users.
+ * Guests search the SQLite full-text index (name, city, notes) on a background thread.
+ * Typing is debounced and searches are cancellable (SearchPipeline); results are diffed into the adapter.
+ * Logged-in search ignores case and accents ("sao paulo" finds "São Paulo") via a trigram PlaceSearchIndex.
+ * When nothing matches as typed, a typo-tolerant search over name and city words runs instead.
+ * Structured filters (visited:yes, rating>=4, within:10km, city:Kandy) narrow any search (PlaceFilter):
+ * guests push them into SQLite; logged-in users filter the loaded places, or query Firestore
+ * with the most selective condition while the places are still loading.
+ * Logged-in results are cached per load: backspacing is a cache hit, and typing on only
+ * re-checks the previous matches (session hit/narrowed/miss counts are shown in Settings).
+ * Guest places are loaded on the shared reader pool (DreamPlaceExecutors).
+ * Places come from the shared PlaceSpatialIndex (SharedPlaceIndex) when Home or Map already loaded them.
+ * Logged-in places follow the session's snapshot listener (FirestorePlaceSync) instead of a download per visit.
+ * Guest results are patched from SQLite change notifications instead of reloading every place,
+ * and logged-in results from each synced snapshot's changes; patched rows keep their distance rank.
  * Calculates distance if location permission is granted.
  */
 public class SearchFragment extends Fragment {
 
+    private static final String TAG = "SearchFragment";
+
     private EditText searchEditText;
     private RecyclerView resultsRecyclerView;
     private DreamPlaceAdapter adapter;
 
-    // Full list of dream places (from DB or Firestore)
-    private final List<DreamPlace> allPlaces = new ArrayList<>();
-    // Filtered results for search display
-    private final List<DreamPlace> filteredPlaces = new ArrayList<>();
+    // Full list of dream places (from DB or Firestore); replaced, never modified, as searches read it off the main thread
+    private volatile List<DreamPlace> allPlaces = Collections.emptyList();
 
     private boolean isGuest;
-    private Location userLocation;
+    private DreamPlaceSQLiteHelper db;
+    private GeoDistance.Origin userOrigin; // set once per location fix
+
+    // Searches run off the main thread once typing pauses; only the latest query's results are shown
+    private static final int SEARCH_LIMIT = 100;
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    private static final long FETCH_POLL_MS = 50; // how often a worker waiting on Firestore checks for cancellation
+    private SearchPipeline searchPipeline;
+    private volatile PlaceSearchIndex searchIndex; // folded keys, trigrams and words of allPlaces
+    private volatile PlaceIndex placeColumns;      // columns of allPlaces, for filter-only queries
+
+    // Logged-in mode: until places are loaded, filtered searches query Firestore directly
+    private volatile boolean placesLoaded;
+    private volatile CollectionReference placesCollection;
+    private volatile boolean geohashReady;
+
+    // Guest mode: applies committed SQLite writes to the loaded places
+    private final PlaceInvalidationTracker.Observer placesObserver = this::applyPlaceChanges;
+
+    // Logged-in mode: a new data set replaces the loaded places, later snapshots patch them
+    private final FirestorePlaceSync.Observer syncObserver = (index, complete, changed, deletedIds) -> {
+        if (complete || !placesLoaded) showPlaces(sortedByDistance(index));
+        else applyPlaceChanges(changed, deletedIds);
+    };
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container,
@@ -58,16 +105,26 @@ public class SearchFragment extends Fragment {
 
         // Setup RecyclerView
         resultsRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
-        adapter = new DreamPlaceAdapter(requireContext(), filteredPlaces, place -> {
+        adapter = new DreamPlaceAdapter(requireContext(), new ArrayList<>(), place -> {
             // When a place is clicked, open it in MyDreamPlaceActivity
+            // Hand over by ID; guest rows are summaries (no notes, cover photo only),
+            // so the detail screen always reloads the full place
+            PlaceStore.getInstance().put(place, false);
             Intent intent = new Intent(requireContext(), MyDreamPlaceActivity.class);
-            intent.putExtra("dream_place", place); // DreamPlace must implement Serializable
+            intent.putExtra(MyDreamPlaceActivity.EXTRA_PLACE_ID, place.getId());
             startActivity(intent);
         });
         resultsRecyclerView.setAdapter(adapter);
+        searchPipeline = new SearchPipeline(getViewLifecycleOwner(), adapter, SEARCH_DEBOUNCE_MS, this::search);
 
         // Check if user is a guest
         isGuest = SharedPreferencesHelper.isGuest(requireContext());
+        db = DreamPlaceSQLiteHelper.getInstance(requireContext());
+        if (isGuest) {
+            db.getInvalidationTracker().addObserver(placesObserver);
+        } else {
+            FirestorePlaceSync.getInstance().addObserver(syncObserver);
+        }
 
         // Request location permission if not already granted
         if (ContextCompat.checkSelfPermission(requireContext(), android.Manifest.permission.ACCESS_FINE_LOCATION)
@@ -81,7 +138,7 @@ public class SearchFragment extends Fragment {
         searchEditText.addTextChangedListener(new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterPlaces(s.toString());
+                searchPipeline.submit(s.toString());
             }
             @Override public void afterTextChanged(Editable s) {}
         });
@@ -106,7 +163,7 @@ public class SearchFragment extends Fragment {
         locationClient.getLastLocation()
                 .addOnSuccessListener(location -> {
                     if (location != null) {
-                        userLocation = location;
+                        userOrigin = new GeoDistance.Origin(location.getLatitude(), location.getLongitude());
                         loadAllPlaces(); // Load only after getting location
                     } else {
                         Toast.makeText(getContext(), "Unable to get location", Toast.LENGTH_SHORT).show();
@@ -122,113 +179,240 @@ public class SearchFragment extends Fragment {
     /**
      * Loads all dream places based on user type.
      * Guests → local SQLite DB, Logged-in users → Firebase Firestore.
-     * Also calculates distance if userLocation is available.
+     * Also calculates distance if the user location is available.
      */
     private void loadAllPlaces() {
+        if (getView() == null) return;
+        SharedPlaceIndex shared = SharedPlaceIndex.getInstance();
         if (isGuest) {
-            // Load places from SQLite for guest users
-            DreamPlaceSQLiteHelper db = new DreamPlaceSQLiteHelper(requireContext());
-            allPlaces.clear();
-            allPlaces.addAll(db.getAllDreamPlaces());
-
-            calculateDistanceForPlaces();
-            filteredPlaces.clear();
-            filteredPlaces.addAll(allPlaces);
-            adapter.notifyDataSetChanged();
+            // Reuse the shared guest index, else load places from SQLite and publish one (reader thread)
+            shared.watchGuestWrites(requireContext());
+            DreamPlaceExecutors.getInstance().read(getViewLifecycleOwner(), () -> {
+                long version = shared.version();
+                PlaceSpatialIndex index = shared.get(SharedPlaceIndex.GUEST);
+                if (index == null) {
+                    index = PlaceSpatialIndex.build(db.getAllDreamPlaces());
+                    shared.publishIfUnchanged(SharedPlaceIndex.GUEST, index, version);
+                }
+                return new LoadedPlaces(version, sortedByDistance(index));
+            }, loaded -> {
+                // A write applied meanwhile was patched into the old list, or is missing from this load
+                if (loaded.version != shared.version()) loadAllPlaces();
+                else showPlaces(loaded.places);
+            }, error -> Toast.makeText(getContext(), "Failed to load places", Toast.LENGTH_SHORT).show());
         } else {
-            // Load places from Firestore for logged-in users
+            // Logged-in: the synced index if there is one, else the listener's first snapshot (syncObserver)
             FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
             if (user == null) return;
-
-            FirebaseFirestore.getInstance()
+            placesCollection = FirebaseFirestore.getInstance()
                     .collection("users")
                     .document(user.getUid())
-                    .collection("dream_places")
-                    .get()
-                    .addOnSuccessListener(snapshot -> {
-                        allPlaces.clear();
-                        for (DocumentSnapshot doc : snapshot) {
-                            DreamPlace place = doc.toObject(DreamPlace.class);
-                            if (place != null) allPlaces.add(place);
-                        }
-
-                        calculateDistanceForPlaces();
-                        filteredPlaces.clear();
-                        filteredPlaces.addAll(allPlaces);
-                        adapter.notifyDataSetChanged();
-                    });
-        }
-        calculateDistanceForPlaces();
-
-        // Sort by distance if available
-        if (userLocation != null) {
-            allPlaces.sort((p1, p2) -> {
-                float d1 = parseDistance(p1.getDistance());
-                float d2 = parseDistance(p2.getDistance());
-                return Float.compare(d1, d2); // ascending
-            });
+                    .collection("dream_places");
+            geohashReady = SharedPreferencesHelper.isGeohashBackfilled(requireContext(), user.getUid());
+            FirestorePlaceSync.getInstance().start(requireContext(), user.getUid());
+            PlaceSpatialIndex synced = shared.get(SharedPlaceIndex.userDataSet(user.getUid()));
+            if (synced != null) showPlaces(sortedByDistance(synced));
         }
+    }
+
+    /** Replace the loaded places and re-apply the current query. */
+    private void showPlaces(List<DreamPlace> places) {
+        allPlaces = places;
+        placesLoaded = true;
+        searchPipeline.submitNow(searchEditText.getText().toString());
+    }
 
-        filteredPlaces.clear();
-        filteredPlaces.addAll(allPlaces);
-        adapter.notifyDataSetChanged();
+    /**
+     * The indexed places nearest first, as copies with distances filled in (the index's own rows,
+     * in index order, if the location is unknown).
+     * - Every place is listed, so one columnar sort (PlaceIndex) beats walking the k-d tree to the end.
+     */
+    private List<DreamPlace> sortedByDistance(PlaceSpatialIndex index) {
+        List<DreamPlace> places = index.all();
+        GeoDistance.Origin origin = userOrigin;
+        if (origin == null) return places;
+        PlaceIndex columns = PlaceIndex.build(places);
+        List<DreamPlace> sorted = new ArrayList<>(places.size());
+        columns.collect(columns.sortByDistance(origin), sorted);
+        return withDistances(sorted, origin); // index rows are shared with Home and Map
     }
-    private float parseDistance(String distanceText) {
-        if (distanceText == null) return Float.MAX_VALUE;
 
-        try {
-            if (distanceText.contains("km")) {
-                return Float.parseFloat(distanceText.replace(" km away", "")) * 1000;
-            } else if (distanceText.contains("m")) {
-                return Float.parseFloat(distanceText.replace(" m away", ""));
+    /**
+     * Evaluate a query on a SearchPipeline worker thread.
+     * - Filters (visited:, rating, within:, city:) are split off first; the rest is free text.
+     * - Guests: ranked full-text search in SQLite (also matches notes), with filters pushed into
+     *   the same statement; cancelling aborts the statement.
+     * - Logged-in users: accent- and case-insensitive substring match on the loaded Firestore places
+     *   (PlaceSearchIndex, built here once per load so the first keystroke finds it ready), then filters.
+     *   A filtered search before the places are loaded fetches from Firestore with a where clause;
+     *   a filter-only query (no text) on loaded places is evaluated column by column (PlaceIndex).
+     * - No exact match: typo-tolerant match on name and city words instead (fuzzy mode).
+     * - An empty query lists every loaded place.
+     * - Returned rows are never modified afterwards (the pipeline diffs their distances against the
+     *   next results): loaded rows got theirs when loaded, queried/fetched rows right after the query.
+     * @param query The user's typed search input
+     */
+    private List<DreamPlace> search(String query, CancellationSignal cancellationSignal)
+            throws ExecutionException, InterruptedException {
+        PlaceFilter filter = PlaceFilter.parse(query);
+        String text = filter.getText();
+        GeoDistance.Origin origin = userOrigin;
+        List<DreamPlace> places = allPlaces;
+        PlaceSearchIndex index;
+        List<DreamPlace> results;
+        if (isGuest) {
+            if (text.isEmpty() && !filter.hasConditions()) return places;
+            index = null;
+            results = db.searchPlaces(text, filter, origin, SEARCH_LIMIT, cancellationSignal);
+            calculateDistanceForPlaces(results); // rows of this query only
+        } else {
+            if (filter.hasConditions() && !placesLoaded) {
+                // One-off index over the fetched subset; the shared one stays for the full load
+                places = fetchFiltered(filter, origin, cancellationSignal);
+                calculateDistanceForPlaces(places); // rows of this fetch only
+                index = PlaceSearchIndex.build(places);
+                results = retainMatching(index.search(text, cancellationSignal), filter, origin, cancellationSignal);
+            } else if (text.isEmpty() && filter.hasConditions()) {
+                // Rows keep the load's (distance) order
+                index = null;
+                PlaceIndex columns = placeColumnsFor(places);
+                results = new ArrayList<>();
+                columns.collect(columns.filter(filter, origin), results);
+            } else {
+                index = searchIndexFor(places);
+                results = retainMatching(index.search(text, cancellationSignal), filter, origin, cancellationSignal);
             }
-        } catch (NumberFormatException e) {
-            return Float.MAX_VALUE;
         }
-        return Float.MAX_VALUE;
+
+        // Nothing matched as typed, e.g. a misspelt foreign name: "sigirya" still finds "Sigiriya"
+        if (results.isEmpty() && !text.isEmpty()) {
+            if (index == null) index = searchIndexFor(places);
+            results = retainMatching(index.fuzzySearch(text, cancellationSignal), filter, origin, cancellationSignal);
+        }
+        return results;
     }
 
     /**
-     * Filters the dream place list based on the query (name or city).
-     * @param query The user's typed search input
+     * Logged-in places matching the filter's most selective condition, straight from Firestore
+     * (the other conditions are applied afterwards).
+     * - The worker waits in FETCH_POLL_MS slices and checks the signal between them, so a newer
+     *   keystroke frees it at once; the abandoned query still completes and fills the cache.
      */
-    private void filterPlaces(String query) {
-        filteredPlaces.clear();
-        String lowerQuery = query.toLowerCase();
-
-        for (DreamPlace place : allPlaces) {
-            if (place.getName().toLowerCase().contains(lowerQuery) ||
-                    place.getCity().toLowerCase().contains(lowerQuery)) {
-                filteredPlaces.add(place);
+    private List<DreamPlace> fetchFiltered(PlaceFilter filter, @Nullable GeoDistance.Origin origin,
+                                           CancellationSignal cancellationSignal)
+            throws ExecutionException, InterruptedException {
+        CollectionReference collection = placesCollection;
+        if (collection == null) return Collections.emptyList(); // not signed in / not loading yet
+        Task<List<DocumentSnapshot>> fetch = filter.fetch(collection, origin, geohashReady);
+        while (true) {
+            cancellationSignal.throwIfCanceled();
+            try {
+                return SharedPlaceIndex.listRows(Tasks.await(fetch, FETCH_POLL_MS, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                // still running: check the signal again
             }
         }
-        adapter.notifyDataSetChanged();
+    }
+
+    /** The places meeting the filter's conditions, order kept (all of them if it has none). */
+    private static List<DreamPlace> retainMatching(List<DreamPlace> places, PlaceFilter filter,
+                                                   @Nullable GeoDistance.Origin origin,
+                                                   CancellationSignal cancellationSignal) {
+        if (!filter.hasConditions()) return places;
+        List<DreamPlace> kept = new ArrayList<>();
+        for (int i = 0; i < places.size(); i++) {
+            if (i % SearchPipeline.CANCEL_CHECK_INTERVAL == 0) cancellationSignal.throwIfCanceled();
+            DreamPlace place = places.get(i);
+            if (filter.matches(place, origin)) kept.add(place);
+        }
+        return kept;
+    }
+
+    /** The search index of places, built (on the calling worker) when the loaded list changed. */
+    private PlaceSearchIndex searchIndexFor(List<DreamPlace> places) {
+        PlaceSearchIndex index = searchIndex;
+        if (index == null || !index.covers(places)) {
+            index = PlaceSearchIndex.build(places);
+            searchIndex = index;
+        }
+        return index;
+    }
+
+    /** The columnar index of places, built (on the calling worker) when the loaded list changed. */
+    private PlaceIndex placeColumnsFor(List<DreamPlace> places) {
+        PlaceIndex columns = placeColumns;
+        if (columns == null || !columns.covers(places)) {
+            columns = PlaceIndex.build(places);
+            placeColumns = columns;
+        }
+        return columns;
     }
 
     /**
-     * Calculates the distance between userLocation and each place,
-     * and sets the formatted distance string in each DreamPlace object.
+     * Patch the loaded places after a committed SQLite write (guests) or a synced snapshot
+     * (logged-in), then re-apply the current query once changes pause.
+     * - Changed rows are re-inserted at their distance rank (DistanceOrder), so the list stays
+     *   nearest first without sorting it again; rows without a distance go last.
+     * - The search indexes are rebuilt by the next search, once per burst of changes (debounced).
      */
-    private void calculateDistanceForPlaces() {
-        if (userLocation == null) return;
+    private void applyPlaceChanges(List<DreamPlace> changed, Set<String> deletedIds) {
+        GeoDistance.Origin origin = userOrigin;
+        if (origin != null) changed = withDistances(changed, origin); // shared with the other observers
+
+        // A new list: searches may still be reading the current one
+        List<DreamPlace> places = new ArrayList<>(allPlaces);
+        DistanceOrder.patch(places, changed, deletedIds, false, DistanceOrder.IGNORE);
+        allPlaces = places;
+        searchPipeline.submit(searchEditText.getText().toString());
+    }
+
+    /** Guest places loaded on a reader thread, with the write count they were loaded at. */
+    private static final class LoadedPlaces {
+        final long version;
+        final List<DreamPlace> places;
 
-        for (DreamPlace place : allPlaces) {
+        LoadedPlaces(long version, List<DreamPlace> places) {
+            this.version = version;
+            this.places = places;
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        searchPipeline.cancel();
+        PlaceSearchIndex index = searchIndex;
+        if (index != null) Log.d(TAG, "Search cache: " + index.cacheStats());
+        DreamPlaceSQLiteHelper.getInstance(requireContext()).getInvalidationTracker().removeObserver(placesObserver);
+        FirestorePlaceSync.getInstance().removeObserver(syncObserver);
+        super.onDestroyView();
+    }
+
+    /**
+     * Calculates the (haversine) distance between the user and each place
+     * and stores it (in meters) on each DreamPlace; the adapter formats it.
+     * - Only for rows a search just created; shared or already shown rows get copies (withDistances).
+     */
+    private void calculateDistanceForPlaces(List<DreamPlace> places) {
+        GeoDistance.Origin origin = userOrigin;
+        if (origin == null) return;
+
+        for (DreamPlace place : places) {
             if (place.getLatitude() != 0 && place.getLongitude() != 0) {
-                float[] results = new float[1];
-                Location.distanceBetween(
-                        userLocation.getLatitude(), userLocation.getLongitude(),
-                        place.getLatitude(), place.getLongitude(),
-                        results
-                );
-                float distanceInMeters = results[0];
-                String distanceText = distanceInMeters < 1000
-                        ? String.format("%.0f m away", distanceInMeters)
-                        : String.format("%.2f km away", distanceInMeters / 1000);
-                place.setDistance(distanceText);
+                place.setDistanceMeters(GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude()));
             }
         }
     }
 
+    /** Copies of places with their distance from origin (rows without coordinates keep theirs). */
+    private static List<DreamPlace> withDistances(List<DreamPlace> places, GeoDistance.Origin origin) {
+        List<DreamPlace> copies = new ArrayList<>(places.size());
+        for (DreamPlace place : places) {
+            double lat = place.getLatitude(), lng = place.getLongitude();
+            copies.add(lat != 0 && lng != 0 ? place.withDistanceMeters(GeoDistance.haversineMeters(origin, lat, lng)) : place);
+        }
+        return copies;
+    }
+
     /**
      * Handles the result of location permission request.
      */
@@ -0,0 +1,190 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Debounced, cancellable search: query text in, diffed adapter updates out.
+ * -
+ * Responsibilities:
+ * - Debounce: a typed query only runs once the text has been still for debounceMillis.
+ * - Generations: every run gets a number; results of a superseded run are dropped on arrival.
+ * - Cancellation: starting a run cancels the previous run's CancellationSignal, so a SQLite
+ *   statement or an in-memory scan still in flight stops early instead of finishing for nothing.
+ * - The search and the DiffUtil diff both run on the reader pool (DreamPlaceExecutors);
+ *   the main thread only dispatches the precomputed updates to the adapter.
+ * -
+ * Notes:
+ * - Call from the main thread only.
+ * - Once attached, the pipeline owns the adapter's list; nothing else may change it.
+ * - Rows a Search returned must not be modified afterwards (copy them instead): the diff compares
+ *   the shown rows with the new ones, so a changed distance only shows if the old row kept its own.
+ * - Large result changes skip the diff (Myers is O(N·D)) and refresh the adapter instead,
+ *   which only rebinds the rows on screen.
+ */
+public final class SearchPipeline {
+
+    /** Runs one query on a worker thread; pass the signal on (SQLite) or poll it (loops). */
+    public interface Search {
+        List<DreamPlace> run(String query, CancellationSignal cancellationSignal) throws Exception;
+    }
+
+    // In-memory scans check the signal every this many rows
+    public static final int CANCEL_CHECK_INTERVAL = 256;
+
+    // Above this many old + new rows the diff costs more than a plain refresh saves
+    private static final int MAX_DIFF_ROWS = 2000;
+
+    private final LifecycleOwner owner;
+    private final DreamPlaceAdapter adapter;
+    private final long debounceMillis;
+    private final Search search;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private List<DreamPlace> shown = new ArrayList<>(); // the adapter's current list
+    private String pendingQuery = "";
+    private int generation = 0;
+    private CancellationSignal running;
+
+    private final Runnable debounced = () -> run(pendingQuery);
+
+    /** Search result plus its diff against the list that was shown when the run started. */
+    private static final class Result {
+        final List<DreamPlace> places;
+        @Nullable final DiffUtil.DiffResult diff;
+
+        Result(List<DreamPlace> places, @Nullable DiffUtil.DiffResult diff) {
+            this.places = places;
+            this.diff = diff;
+        }
+    }
+
+    public SearchPipeline(LifecycleOwner owner, DreamPlaceAdapter adapter, long debounceMillis, Search search) {
+        this.owner = owner;
+        this.adapter = adapter;
+        this.debounceMillis = debounceMillis;
+        this.search = search;
+        adapter.updateList(shown);
+    }
+
+    /** A keystroke: run the query once typing pauses for debounceMillis. */
+    public void submit(String query) {
+        cancel(); // whatever is running is already out of date
+        pendingQuery = query;
+        mainHandler.postDelayed(debounced, debounceMillis);
+    }
+
+    /** Run the query right away (e.g. the searched places were reloaded). */
+    public void submitNow(String query) {
+        pendingQuery = query;
+        run(query);
+    }
+
+    /** Drop the pending query and stop the running one (call from onDestroyView). */
+    public void cancel() {
+        mainHandler.removeCallbacks(debounced);
+        generation++;
+        if (running != null) running.cancel();
+        running = null;
+    }
+
+    private void run(String query) {
+        cancel();
+        final int runGeneration = generation;
+        final CancellationSignal signal = new CancellationSignal();
+        running = signal;
+        // Only the current generation is ever applied, so shown cannot change before this run lands
+        final List<DreamPlace> before = shown;
+
+        DreamPlaceExecutors.getInstance().read(owner, () -> {
+            try {
+                List<DreamPlace> places = new ArrayList<>(search.run(query, signal));
+                signal.throwIfCanceled();
+                DiffUtil.DiffResult diff = before.size() + places.size() <= MAX_DIFF_ROWS
+                        ? DiffUtil.calculateDiff(new PlaceDiff(before, places))
+                        : null;
+                return new Result(places, diff);
+            } catch (OperationCanceledException e) {
+                return null; // superseded by a newer query
+            }
+        }, result -> {
+            if (result == null || runGeneration != generation) return; // a newer query won
+            running = null;
+            shown = result.places;
+            if (result.diff != null) {
+                adapter.applyDiff(shown, result.diff);
+            } else {
+                adapter.updateList(shown);
+            }
+        }, error -> {
+            if (runGeneration == generation) running = null; // the rows stay as they were; next keystroke retries
+        });
+    }
+
+    /** Rows are the same place when their IDs match; distance-only changes rebind just the distance. */
+    static final class PlaceDiff extends DiffUtil.Callback {
+        private final List<DreamPlace> oldPlaces;
+        private final List<DreamPlace> newPlaces;
+
+        PlaceDiff(List<DreamPlace> oldPlaces, List<DreamPlace> newPlaces) {
+            this.oldPlaces = oldPlaces;
+            this.newPlaces = newPlaces;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldPlaces.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newPlaces.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return Objects.equals(oldPlaces.get(oldPosition).getId(), newPlaces.get(newPosition).getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            DreamPlace before = oldPlaces.get(oldPosition);
+            DreamPlace after = newPlaces.get(newPosition);
+            return sameRow(before, after)
+                    && Double.compare(before.getDistanceMeters(), after.getDistanceMeters()) == 0;
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldPosition, int newPosition) {
+            return sameRow(oldPlaces.get(oldPosition), newPlaces.get(newPosition))
+                    ? DreamPlaceAdapter.PAYLOAD_DISTANCE
+                    : null;
+        }
+
+        /** Everything the row shows except the distance. */
+        private static boolean sameRow(DreamPlace before, DreamPlace after) {
+            return Objects.equals(before.getName(), after.getName())
+                    && Objects.equals(before.getCity(), after.getCity())
+                    && before.isVisited() == after.isVisited()
+                    && before.getRating() == after.getRating()
+                    && Objects.equals(firstPhoto(before), firstPhoto(after));
+        }
+
+        @Nullable
+        private static String firstPhoto(DreamPlace place) {
+            List<String> photos = place.getPhotoPaths();
+            return photos == null || photos.isEmpty() ? null : photos.get(0);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.s92086882.mydreamplacewishlist;
+
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recent query → result rows of one PlaceSearchIndex, for a search session.
+ * -
+ * Responsibilities:
+ * - Exact hits: a query seen recently (e.g. after a backspace) returns its rows without searching.
+ * - Narrowing: a query containing a cached one (typing "colo" after "col") can only match rows
+ *   that query matched, so only those rows are checked again.
+ * - Counts hits, narrowed searches and misses, per cache (stats()) and over every cache since the
+ *   process started (totals(), shown in Settings).
+ * -
+ * Notes:
+ * - Rows are positions in the index's place list; the cache lives and dies with its index,
+ *   so a reload (new index) starts with an empty cache and nothing stale can be returned.
+ * - Bounded by total rows held (LRU), so a few broad queries cannot pin large arrays.
+ * - Plain Java (LinkedHashMap in access order, not android.util.LruCache), so PlaceSearchIndex
+ *   runs in JVM unit tests.
+ * - Thread-safe: searches of superseded queries may still be finishing on other workers.
+ */
+final class SearchResultCache {
+
+    // ~400 KB of row ints; enough for dozens of typical result sets
+    static final int MAX_ROWS = 100_000;
+
+    // Totals over every cache of the process
+    private static final AtomicInteger TOTAL_HITS = new AtomicInteger();
+    private static final AtomicInteger TOTAL_NARROWED = new AtomicInteger();
+    private static final AtomicInteger TOTAL_MISSES = new AtomicInteger();
+
+    /** Counters since the cache was created. */
+    public static final class Stats {
+        public final int hits;
+        public final int narrowed;
+        public final int misses;
+
+        Stats(int hits, int narrowed, int misses) {
+            this.hits = hits;
+            this.narrowed = narrowed;
+            this.misses = misses;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", narrowed=" + narrowed + ", misses=" + misses;
+        }
+    }
+
+    // Access order: iteration starts at the least recently used query
+    private final LinkedHashMap<String, int[]> results = new LinkedHashMap<>(16, 0.75f, true);
+    private int size; // sum of sizeOf() over results
+
+    private int hits;
+    private int narrowed;
+    private int misses;
+
+    /** Rows of a cached query (counted as a hit), or null. */
+    @Nullable
+    synchronized int[] get(String query) {
+        int[] rows = results.get(query);
+        if (rows != null) {
+            hits++;
+            TOTAL_HITS.incrementAndGet();
+        }
+        return rows;
+    }
+
+    /**
+     * The smallest cached result among queries that query contains, or null (counted as a miss).
+     * - Every match of query also matches such a shorter query, so these rows are a superset.
+     */
+    @Nullable
+    synchronized int[] narrowingBase(String query) {
+        int[] base = null;
+        for (Map.Entry<String, int[]> entry : results.entrySet()) { // iterating does not reorder
+            if (!query.contains(entry.getKey())) continue;
+            if (base == null || entry.getValue().length < base.length) base = entry.getValue();
+        }
+        if (base != null) {
+            narrowed++;
+            TOTAL_NARROWED.incrementAndGet();
+        } else {
+            misses++;
+            TOTAL_MISSES.incrementAndGet();
+        }
+        return base;
+    }
+
+    /** Cache rows for query, then drop least recently used queries until MAX_ROWS is respected. */
+    synchronized void put(String query, int[] rows) {
+        int[] previous = results.put(query, rows);
+        if (previous != null) size -= sizeOf(previous);
+        size += sizeOf(rows);
+        Iterator<int[]> eldest = results.values().iterator();
+        while (size > MAX_ROWS && eldest.hasNext()) {
+            size -= sizeOf(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    synchronized Stats stats() {
+        return new Stats(hits, narrowed, misses);
+    }
+
+    /** Counters summed over every cache since the process started. */
+    static Stats totals() {
+        return new Stats(TOTAL_HITS.get(), TOTAL_NARROWED.get(), TOTAL_MISSES.get());
+    }
+
+    private static int sizeOf(int[] rows) {
+        return rows.length + 1; // empty results still take an entry
+    }
+}
@@ -1,7 +1,9 @@
 package com.s92086882.mydreamplacewishlist;
 
 import android.os.Bundle;
+import android.view.View;
 import android.widget.ImageView;
+import android.widget.RadioGroup;
 import android.widget.TextView;
 
 import androidx.activity.EdgeToEdge;
@@ -11,17 +13,26 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
 /**
- * Simple Settings screen scaffold.
+ * Settings screen.
  * -
  * Responsibilities:
  * - Displays a custom toolbar with a back arrow and title.
  * - Applies edge-to-edge window insets so the toolbar avoids the status bar/cutouts.
- * - Provides a hook (setupListeners) to add actual settings interactions later.
+ * - Signed-in accounts: choose how places are first loaded (FirestorePlaceSync.ReadPolicy, stored
+ *   by SharedPreferencesHelper; the listener reads it when it starts).
+ * - Diagnostics: search result cache counters of this app session (SearchResultCache.totals())
+ *   and the place listener's cache vs server reads (FirestorePlaceSync.readStats()),
+ *   refreshed whenever the screen is shown.
  */
 public class SettingsActivity extends AppCompatActivity {
 
     private ImageView backButton; // left arrow icon in the toolbar
     private TextView headerTitle; // centered title text
+    private View readPolicySection;
+    private RadioGroup readPolicyGroup;
+    private TextView searchCacheStats;
+    private TextView firestoreReadStats;
+    private boolean isGuest;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -46,6 +57,17 @@ public class SettingsActivity extends AppCompatActivity {
         backButton = findViewById(R.id.back_button);
         headerTitle = findViewById(R.id.header_title);
         headerTitle.setText("Settings");
+        readPolicySection = findViewById(R.id.read_policy_section);
+        readPolicyGroup = findViewById(R.id.read_policy_group);
+        searchCacheStats = findViewById(R.id.search_cache_stats);
+        firestoreReadStats = findViewById(R.id.firestore_read_stats);
+        isGuest = getSharedPreferences("auth", MODE_PRIVATE).getBoolean("isGuest", true);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showDiagnostics(); // counters move while other screens are used
     }
 
     private void setupToolbar() {
@@ -54,6 +76,34 @@ public class SettingsActivity extends AppCompatActivity {
     }
 
     private void setupListeners() {
-        // Add more interactions here
+        // Guests read SQLite only: the Firestore read policy does not apply to them
+        readPolicySection.setVisibility(isGuest ? View.GONE : View.VISIBLE);
+        firestoreReadStats.setVisibility(isGuest ? View.GONE : View.VISIBLE);
+
+        // Check the stored policy before listening, so restoring it does not write it back
+        readPolicyGroup.check(SharedPreferencesHelper.getFirestoreReadPolicy(this) == FirestorePlaceSync.ReadPolicy.SERVER
+                ? R.id.read_policy_server
+                : R.id.read_policy_cache_then_server);
+        readPolicyGroup.setOnCheckedChangeListener((group, checkedId) ->
+                SharedPreferencesHelper.setFirestoreReadPolicy(this, checkedId == R.id.read_policy_server
+                        ? FirestorePlaceSync.ReadPolicy.SERVER
+                        : FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER));
+    }
+
+    /** Show the session's counters. */
+    private void showDiagnostics() {
+        SearchResultCache.Stats search = SearchResultCache.totals();
+        searchCacheStats.setText("Search cache: " + search.hits + " hits, " + search.narrowed + " narrowed, "
+                + search.misses + " misses");
+
+        FirestorePlaceSync.ReadStats reads = FirestorePlaceSync.getInstance().readStats();
+        firestoreReadStats.setText("Places read: " + reads.cacheDocuments + " from the device cache"
+                + afterMillis(reads.firstCacheMillis, "shown after ") + ", " + reads.serverDocuments
+                + " from the server" + afterMillis(reads.firstServerMillis, "after "));
+    }
+
+    /** " (shown after 45 ms)" style suffix, or "" when that read has not happened. */
+    private static String afterMillis(long millis, String prefix) {
+        return millis < 0 ? "" : " (" + prefix + millis + " ms)";
     }
 }
\ No newline at end of file
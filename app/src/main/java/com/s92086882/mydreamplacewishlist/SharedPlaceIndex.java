@@ -0,0 +1,133 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Process-wide holder of the current PlaceSpatialIndex, so Home, Map and Search share one index.
+ * -
+ * Responsibilities:
+ * - Keeps the index of one data set: the guest's SQLite places or one Firebase user's places.
+ * - Applies writes incrementally (PlaceSpatialIndex.withChanges) instead of rebuilding:
+ *   guest writes arrive from the PlaceInvalidationTracker, Firestore changes from the session's
+ *   snapshot listener (FirestorePlaceSync).
+ * -
+ * Notes:
+ * - Only complete data sets are published (every place of the guest or user), never a page.
+ * - A data set loaded off the main thread is published with publishIfUnchanged(): a write applied
+ *   while it loaded may be missing from it, so it is dropped and loaded again.
+ * - Indexes are immutable, so get() can be called from any thread and read without locking.
+ * - Their rows are read-only too: each screen shows its own distance, so it copies a row before
+ *   setting one (DreamPlace.withDistanceMeters).
+ */
+public final class SharedPlaceIndex {
+
+    public static final String GUEST = "guest";
+
+    private static final SharedPlaceIndex INSTANCE = new SharedPlaceIndex();
+
+    private String dataSet;
+    private PlaceSpatialIndex index;
+    private long version = 0; // applyChanges() calls so far, whatever the data set
+    private boolean watchingGuestWrites = false;
+
+    private SharedPlaceIndex() {}
+
+    public static SharedPlaceIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /** Data set key of a logged-in user's Firestore places. */
+    public static String userDataSet(String uid) {
+        return "user:" + uid;
+    }
+
+    /** The index for dataSet, or null if none was published (or another data set replaced it). */
+    @Nullable
+    public synchronized PlaceSpatialIndex get(String dataSet) {
+        return dataSet.equals(this.dataSet) ? index : null;
+    }
+
+    /** Replace the shared index with a freshly loaded, complete data set. */
+    public synchronized void publish(String dataSet, PlaceSpatialIndex index) {
+        this.dataSet = dataSet;
+        this.index = index;
+    }
+
+    /**
+     * Publish a data set loaded after version() returned version, unless a write was applied since
+     * (the load may have missed it). Returns whether it was published.
+     */
+    public synchronized boolean publishIfUnchanged(String dataSet, PlaceSpatialIndex index, long version) {
+        if (version != this.version) return false;
+        publish(dataSet, index);
+        return true;
+    }
+
+    /** Number of writes applied so far; read it before loading a data set to publish. */
+    public synchronized long version() {
+        return version;
+    }
+
+    /** Apply a committed write to the index of dataSet (ignored if that data set is not held). */
+    public synchronized void applyChanges(String dataSet, Collection<DreamPlace> changed, Set<String> deletedIds) {
+        version++;
+        if (index != null && dataSet.equals(this.dataSet)) index = index.withChanges(changed, deletedIds);
+    }
+
+    /** List rows (what a Firestore index holds) from a user's place documents, skipping incomplete ones. */
+    public static List<DreamPlace> listRows(List<DocumentSnapshot> docs) {
+        List<DreamPlace> places = new ArrayList<>();
+        for (DocumentSnapshot doc : docs) {
+            String name = doc.getString("name");
+            String city = doc.getString("city");
+            String notes = doc.getString("notes");
+            Double lat = doc.getDouble("latitude");
+            Double lng = doc.getDouble("longitude");
+            Boolean visited = doc.getBoolean("visited");
+            Double ratingRaw = doc.getDouble("rating");
+            List<String> photoUrls = stringList(doc.get("photos"));
+
+            if (lat == null || lng == null || name == null || city == null || photoUrls == null) continue;
+
+            float rating = ratingRaw != null ? ratingRaw.floatValue() : 0f;
+            boolean isVisited = visited != null && visited;
+
+            // Distance is per screen, filled in when a row is shown
+            DreamPlace place = new DreamPlace(photoUrls, name, city, Double.NaN, isVisited, rating, lat, lng, notes);
+            place.setId(doc.getId()); // Firestore document ID
+            places.add(place);
+        }
+        return places;
+    }
+
+    /** A Firestore array field as strings (non-string elements skipped), or null if it is not an array. */
+    @Nullable
+    static List<String> stringList(@Nullable Object value) {
+        if (!(value instanceof List)) return null;
+        List<String> strings = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            if (element instanceof String) strings.add((String) element);
+        }
+        return strings;
+    }
+
+    /**
+     * Keep the guest index in step with SQLite writes (registers once; the helper and this
+     * holder both live as long as the process).
+     */
+    public synchronized void watchGuestWrites(Context context) {
+        if (watchingGuestWrites) return;
+        watchingGuestWrites = true;
+        DreamPlaceSQLiteHelper.getInstance(context).getInvalidationTracker()
+                .addObserver((changed, deletedIds) -> applyChanges(GUEST, changed, deletedIds));
+    }
+}
@@ -15,6 +15,8 @@ import android.content.SharedPreferences;
  * - KEY_IS_GUEST → boolean flag:
  *      true  = guest user (local SQLite storage).
  *      false = authenticated user (Firestore/Firebase storage).
+ * - KEY_GEOHASH_BACKFILLED_PREFIX + uid → true once that user's Firestore places all carry a geohash.
+ * - KEY_FIRESTORE_READ_POLICY → FirestorePlaceSync.ReadPolicy name (default CACHE_THEN_SERVER).
  * -
  * Default behavior:
  * - If preference not set, we assume guest (safe fallback).
@@ -23,6 +25,8 @@ public class SharedPreferencesHelper {
 
     private static final String PREF_NAME = "auth"; // file name for SharedPreferences
     private static final String KEY_IS_GUEST = "isGuest"; // key for guest flag
+    private static final String KEY_GEOHASH_BACKFILLED_PREFIX = "geohashBackfilled_"; // per Firebase user
+    private static final String KEY_FIRESTORE_READ_POLICY = "firestoreReadPolicy";
 
     /** Returns whether the current user is a guest (default = true). */
     public static boolean isGuest(Context context) {
@@ -35,4 +39,34 @@ public class SharedPreferencesHelper {
         SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         prefs.edit().putBoolean(KEY_IS_GUEST, isGuest).apply();
     }
-}
\ No newline at end of file
+
+    /** Returns whether the user's Firestore places were backfilled with geohashes (default = false). */
+    public static boolean isGeohashBackfilled(Context context, String uid) {
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        return prefs.getBoolean(KEY_GEOHASH_BACKFILLED_PREFIX + uid, false);
+    }
+
+    /** Records that the user's Firestore places all carry a geohash. */
+    public static void setGeohashBackfilled(Context context, String uid) {
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        prefs.edit().putBoolean(KEY_GEOHASH_BACKFILLED_PREFIX + uid, true).apply();
+    }
+
+    /** Returns how logged-in places are first shown (default = cache, then server). */
+    public static FirestorePlaceSync.ReadPolicy getFirestoreReadPolicy(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        String name = prefs.getString(KEY_FIRESTORE_READ_POLICY, null);
+        if (name == null) return FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER;
+        try {
+            return FirestorePlaceSync.ReadPolicy.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER; // value from an older app version
+        }
+    }
+
+    /** Sets how logged-in places are first shown (applies from the next sign-in / app start). */
+    public static void setFirestoreReadPolicy(Context context, FirestorePlaceSync.ReadPolicy policy) {
+        SharedPreferences prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        prefs.edit().putString(KEY_FIRESTORE_READ_POLICY, policy.name()).apply();
+    }
+}
@@ -0,0 +1,175 @@
+package com.s92086882.mydreamplacewishlist;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable trie of distinct search tokens that finds every token within k edits (Levenshtein)
+ * of a query, stepping a Levenshtein automaton (one banded DP row per trie depth) down the trie.
+ * -
+ * Responsibilities:
+ * - Shared prefixes are compared once: a node's DP row is derived from its parent's row.
+ * - Subtrees are skipped once no token in them can end within the budget (row cells plus the
+ *   length gap to the subtree's shortest/longest token), so a query visits a small part of the trie.
+ * - Nodes live in flat arrays in breadth-first order, so each node's children are contiguous.
+ * -
+ * Notes:
+ * - Token IDs are positions in the list given to the constructor.
+ * - Queries allocate their own rows, so any thread may query.
+ */
+final class TokenTrie {
+
+    /** Receives one token within the edit budget. */
+    interface Visitor {
+        void onMatch(int tokenId, int edits);
+    }
+
+    // Node n's children are nodes childStart[n] until childStart[n + 1]
+    private final char[] label;
+    private final int[] childStart;
+    private final int[] tokenId;   // -1 when no token ends at the node
+    private final int[] minLength; // shortest / longest token in the node's subtree
+    private final int[] maxLength;
+
+    TokenTrie(List<String> tokens) {
+        // Linked build form: first child / next sibling
+        Builder builder = new Builder();
+        for (int id = 0; id < tokens.size(); id++) builder.add(tokens.get(id), id);
+
+        // Breadth-first renumbering makes every child list one contiguous range
+        int n = builder.size;
+        label = new char[n];
+        childStart = new int[n + 1];
+        tokenId = new int[n];
+        minLength = new int[n];
+        maxLength = new int[n];
+        int[] order = new int[n]; // new number → builder node
+        int[] depth = new int[n];
+        order[0] = 0;
+        int next = 1;
+        for (int i = 0; i < n; i++) {
+            int node = order[i];
+            label[i] = builder.label[node];
+            tokenId[i] = builder.tokenId[node];
+            childStart[i] = next;
+            for (int child = builder.firstChild[node]; child != -1; child = builder.nextSibling[child]) {
+                depth[next] = depth[i] + 1;
+                order[next++] = child;
+            }
+        }
+        childStart[n] = n;
+
+        // Children come after parents, so a reverse pass folds subtree lengths upwards
+        for (int i = n - 1; i >= 0; i--) {
+            int shortest = tokenId[i] >= 0 ? depth[i] : Integer.MAX_VALUE;
+            int longest = tokenId[i] >= 0 ? depth[i] : -1;
+            for (int child = childStart[i]; child < childStart[i + 1]; child++) {
+                shortest = Math.min(shortest, minLength[child]);
+                longest = Math.max(longest, maxLength[child]);
+            }
+            minLength[i] = shortest;
+            maxLength[i] = longest;
+        }
+    }
+
+    /** Report every token within maxEdits of query (any order, each once). */
+    void within(String query, int maxEdits, Visitor visitor) {
+        if (maxLength[0] < 0) return; // no tokens
+        char[] chars = query.toCharArray();
+        int[][] rows = new int[maxLength[0] + 1][chars.length + 2];
+        for (int i = 0; i <= chars.length; i++) rows[0][i] = Math.min(i, maxEdits + 1);
+        walk(0, 0, chars, maxEdits, rows, visitor);
+    }
+
+    // ----- Internals -----
+
+    /**
+     * Visit the children of node (at depth) and recurse where a match is still possible.
+     * - DP rows are banded: a cell more than maxEdits off the diagonal already exceeds the budget,
+     *   so each row only computes the 2 * maxEdits + 1 cells around it; the rest read as maxEdits + 1.
+     */
+    private void walk(int node, int depth, char[] query, int maxEdits, int[][] rows, Visitor visitor) {
+        int[] previous = rows[depth];
+        int[] current = rows[depth + 1];
+        int row = depth + 1;
+        int over = maxEdits + 1;
+        int low = Math.max(1, row - maxEdits);
+        int high = Math.min(query.length, row + maxEdits);
+        for (int child = childStart[node]; child < childStart[node + 1]; child++) {
+            char c = label[child];
+            current[low - 1] = low == 1 ? Math.min(row, over) : over;
+            for (int i = low; i <= high; i++) {
+                int substitute = previous[i - 1] + (query[i - 1] == c ? 0 : 1);
+                current[i] = Math.min(over, Math.min(substitute, Math.min(previous[i], current[i - 1]) + 1));
+            }
+            current[high + 1] = over; // read by the next row as its previous[high + 1]
+
+            int edits = high == query.length ? current[query.length] : over;
+            if (tokenId[child] >= 0 && edits <= maxEdits) visitor.onMatch(tokenId[child], edits);
+            if (childStart[child] < childStart[child + 1]
+                    && lowerBound(current, low - 1, high, row, query.length, child) <= maxEdits) {
+                walk(child, row, query, maxEdits, rows, visitor);
+            }
+        }
+    }
+
+    /**
+     * Fewest edits any token below node can end with: a full alignment crosses this row at some
+     * cell i, then still has to bridge the gap between the query's rest and the token's rest.
+     */
+    private int lowerBound(int[] current, int from, int to, int row, int queryLength, int node) {
+        int restMin = minLength[node] - row;
+        int restMax = maxLength[node] - row;
+        int bound = Integer.MAX_VALUE;
+        for (int i = from; i <= to; i++) {
+            int queryRest = queryLength - i;
+            int gap = queryRest < restMin ? restMin - queryRest : queryRest > restMax ? queryRest - restMax : 0;
+            bound = Math.min(bound, current[i] + gap);
+        }
+        return bound;
+    }
+
+    /** Growable first-child / next-sibling trie, only used while building. */
+    private static final class Builder {
+        char[] label = new char[64];
+        int[] firstChild = new int[64];
+        int[] nextSibling = new int[64];
+        int[] tokenId = new int[64];
+        int size;
+
+        Builder() {
+            newNode('\0'); // root
+        }
+
+        void add(String token, int id) {
+            int node = 0;
+            for (int i = 0; i < token.length(); i++) {
+                char c = token.charAt(i);
+                int child = firstChild[node];
+                while (child != -1 && label[child] != c) child = nextSibling[child];
+                if (child == -1) {
+                    child = newNode(c);
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+            }
+            tokenId[node] = id;
+        }
+
+        private int newNode(char c) {
+            if (size == label.length) {
+                int capacity = size * 2;
+                label = Arrays.copyOf(label, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                nextSibling = Arrays.copyOf(nextSibling, capacity);
+                tokenId = Arrays.copyOf(tokenId, capacity);
+            }
+            label[size] = c;
+            firstChild[size] = -1;
+            nextSibling[size] = -1;
+            tokenId[size] = -1;
+            return size++;
+        }
+    }
+}
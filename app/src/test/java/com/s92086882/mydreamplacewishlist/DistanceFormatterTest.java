@@ -0,0 +1,40 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DistanceFormatterTest {
+
+    private final DistanceFormatter formatter = new DistanceFormatter();
+
+    private String format(double meters) {
+        char[] target = new char[DistanceFormatter.MAX_LENGTH];
+        return new String(target, 0, formatter.format(meters, target));
+    }
+
+    @Test
+    public void metersBelowOneKilometer() {
+        assertEquals("0 m away", format(0));
+        assertEquals("850 m away", format(850.4));
+        assertEquals("999 m away", format(999.49));
+    }
+
+    @Test
+    public void unitIsChosenAfterRounding() {
+        assertEquals("1.0 km away", format(999.5));
+        assertEquals("1.0 km away", format(999.99));
+        assertEquals("1.0 km away", format(1000));
+    }
+
+    @Test
+    public void kilometersWithOneDecimal() {
+        assertEquals("2.5 km away", format(2450));
+        assertEquals("12.3 km away", format(12_340));
+    }
+
+    @Test
+    public void unknownDistanceWritesNothing() {
+        assertEquals("", format(Double.NaN));
+    }
+}
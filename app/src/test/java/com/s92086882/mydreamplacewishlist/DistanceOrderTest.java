@@ -0,0 +1,229 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DistanceOrderTest {
+
+    // ----- repairOrder -----
+
+    @Test
+    public void repairOrderSortsAndReportsReplayableMoves() {
+        Random random = new Random(1);
+        for (int round = 0; round < 50; round++) {
+            List<DreamPlace> rows = new ArrayList<>();
+            for (int i = 0; i < 40; i++) rows.add(row("p" + i, random.nextInt(20) * 100.0));
+            Recorder recorder = new Recorder(rows);
+            DistanceOrder.repairOrder(rows, 1, recorder);
+
+            assertInOrder(rows);
+            assertEquals(rows, recorder.mirror); // the adapter sees the same list
+        }
+    }
+
+    @Test
+    public void repairOrderMovesOnlyDisplacedRowsAndKeepsTies() {
+        List<DreamPlace> rows = new ArrayList<>(Arrays.asList(
+                row("a", 100), row("b", 200), row("c", 200), row("d", 150), row("e", 300)));
+        Recorder recorder = new Recorder(rows);
+        DistanceOrder.repairOrder(rows, 1, recorder);
+        assertEquals(Arrays.asList("a", "d", "b", "c", "e"), ids(rows));
+        assertEquals(1, recorder.moves);
+    }
+
+    @Test
+    public void repairOrderFromAppendedRowsOnly() {
+        // A page appended after the user moved: only rows from start on are out of place
+        List<DreamPlace> rows = new ArrayList<>(Arrays.asList(
+                row("a", 100), row("b", 300), row("c", 200), row("d", 250)));
+        Recorder recorder = new Recorder(rows);
+        DistanceOrder.repairOrder(rows, 2, recorder);
+        assertEquals(Arrays.asList("a", "c", "d", "b"), ids(rows));
+        assertEquals(rows, recorder.mirror);
+    }
+
+    // ----- insertionPoint -----
+
+    @Test
+    public void insertionPointGoesAfterEqualDistances() {
+        List<DreamPlace> rows = Arrays.asList(row("a", 100), row("b", 200), row("c", 200), row("d", Double.NaN));
+        assertEquals(0, DistanceOrder.insertionPoint(rows, 50));
+        assertEquals(1, DistanceOrder.insertionPoint(rows, 100));
+        assertEquals(3, DistanceOrder.insertionPoint(rows, 200));
+        assertEquals(3, DistanceOrder.insertionPoint(rows, 1e9)); // still before the row without a distance
+        assertEquals(4, DistanceOrder.insertionPoint(rows, Double.NaN));
+        assertEquals(0, DistanceOrder.insertionPoint(Collections.emptyList(), 100));
+    }
+
+    // ----- patch -----
+
+    @Test
+    public void patchMovesInsertsAndDeletesRows() {
+        List<DreamPlace> rows = new ArrayList<>(Arrays.asList(
+                row("a", 100), row("b", 200), row("c", 300), row("d", 400)));
+        Recorder recorder = new Recorder(rows);
+        DreamPlace moved = row("d", 150);  // edited to a nearer location
+        DreamPlace added = row("e", 250);
+        int grown = DistanceOrder.patch(rows, Arrays.asList(moved, added), Collections.singleton("b"), false, recorder);
+
+        assertEquals(Arrays.asList("a", "d", "e", "c"), ids(rows));
+        assertSame(moved, rows.get(1));
+        assertEquals(0, grown);
+        assertEquals(rows, recorder.mirror);
+    }
+
+    @Test
+    public void patchLeavesRowsPastTheLoadedPagesToPaging() {
+        List<DreamPlace> rows = new ArrayList<>(Arrays.asList(row("a", 100), row("b", 200)));
+        Recorder recorder = new Recorder(rows);
+        int grown = DistanceOrder.patch(rows, Arrays.asList(row("far", 900), row("near", 50)),
+                Collections.emptySet(), true, recorder);
+        assertEquals(Arrays.asList("near", "a", "b"), ids(rows));
+        assertEquals(1, grown);
+
+        // Nothing left to page in: the far row is appended
+        grown = DistanceOrder.patch(rows, Collections.singletonList(row("far", 900)), Collections.emptySet(),
+                false, recorder);
+        assertEquals(Arrays.asList("near", "a", "b", "far"), ids(rows));
+        assertEquals(1, grown);
+        assertEquals(rows, recorder.mirror);
+    }
+
+    @Test
+    public void patchMovingTheLastRowPastTheEndDropsIt() {
+        List<DreamPlace> rows = new ArrayList<>(Arrays.asList(row("a", 100), row("b", 200)));
+        int grown = DistanceOrder.patch(rows, Collections.singletonList(row("b", 5_000)), Collections.emptySet(),
+                true, DistanceOrder.IGNORE);
+        assertEquals(Collections.singletonList("a"), ids(rows));
+        assertEquals(-1, grown);
+    }
+
+    @Test
+    public void patchKeepsRandomListsInOrder() {
+        Random random = new Random(2);
+        List<DreamPlace> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) rows.add(row("p" + i, random.nextInt(1_000)));
+        rows.sort(Comparator.comparingDouble(DreamPlace::getDistanceMeters));
+        Recorder recorder = new Recorder(rows);
+        for (int round = 0; round < 200; round++) {
+            List<DreamPlace> changed = new ArrayList<>();
+            Set<String> deletedIds = new HashSet<>();
+            for (int j = 0; j < 3; j++) {
+                changed.add(row("p" + (random.nextInt(50) * 3 + j), random.nextInt(1_000))); // distinct IDs
+                deletedIds.add("p" + random.nextInt(150));
+            }
+            DistanceOrder.patch(rows, changed, deletedIds, false, recorder);
+            assertInOrder(rows);
+            for (String id : deletedIds) assertFalse(ids(rows).contains(id));
+        }
+        assertEquals(rows, recorder.mirror);
+    }
+
+    // ----- appendNearest -----
+
+    @Test
+    public void pagesFormTheNearestFirstOrder() {
+        List<DreamPlace> places = TestPlaces.unnamed(500, 3);
+        GeoDistance.Origin origin = new GeoDistance.Origin(6.9271, 79.8612);
+        PlaceSpatialIndex.NearestIterator cursor = PlaceSpatialIndex.build(places).nearestFirst(origin);
+        List<DreamPlace> rows = new ArrayList<>();
+        Set<String> skipIds = new HashSet<>();
+
+        List<Integer> pages = new ArrayList<>();
+        int appended;
+        while ((appended = DistanceOrder.appendNearest(rows, cursor, skipIds, 20, origin)) > 0) pages.add(appended);
+        assertEquals(25, pages.size());
+        for (int size : pages) assertEquals(20, size);
+
+        List<Double> expected = new ArrayList<>();
+        for (DreamPlace place : places) {
+            expected.add(GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude()));
+        }
+        Collections.sort(expected);
+        for (int i = 0; i < rows.size(); i++) assertEquals(expected.get(i), rows.get(i).getDistanceMeters(), 1e-6);
+    }
+
+    @Test
+    public void appendNearestSkipsShownRowsAndCopies() {
+        List<DreamPlace> places = TestPlaces.unnamed(30, 4);
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        GeoDistance.Origin origin = new GeoDistance.Origin(0, 0);
+        List<DreamPlace> nearest = index.nearest(origin, 30);
+        Set<String> skipIds = new HashSet<>(Arrays.asList(nearest.get(0).getId(), nearest.get(2).getId()));
+
+        List<DreamPlace> rows = new ArrayList<>();
+        assertEquals(10, DistanceOrder.appendNearest(rows, index.nearestFirst(origin), skipIds, 10, origin));
+        assertEquals(nearest.get(1).getId(), rows.get(0).getId());
+        assertEquals(nearest.get(3).getId(), rows.get(1).getId());
+        assertEquals(12, skipIds.size()); // appended rows are skipped from now on
+        assertNotSame(nearest.get(1), rows.get(0)); // index rows are never handed out
+        assertTrue(Double.isNaN(nearest.get(1).getDistanceMeters()));
+
+        // Without an origin: index order, no distances
+        rows.clear();
+        assertEquals(5, DistanceOrder.appendNearest(rows, index.nearestFirst(null), new HashSet<>(), 5, null));
+        assertTrue(Double.isNaN(rows.get(0).getDistanceMeters()));
+    }
+
+    // ----- Helpers -----
+
+    private static DreamPlace row(String id, double distanceMeters) {
+        DreamPlace place = new DreamPlace(null, id, null, distanceMeters, false, 0f, 0, 0, null);
+        place.setId(id);
+        return place;
+    }
+
+    private static List<String> ids(List<DreamPlace> rows) {
+        List<String> ids = new ArrayList<>();
+        for (DreamPlace place : rows) ids.add(place.getId());
+        return ids;
+    }
+
+    private static void assertInOrder(List<DreamPlace> rows) {
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(Double.compare(rows.get(i - 1).getDistanceMeters(), rows.get(i).getDistanceMeters()) <= 0);
+        }
+    }
+
+    /** Replays the reported edits on a copy of the list, the way a RecyclerView adapter applies them. */
+    private static final class Recorder implements DistanceOrder.Listener {
+        final List<DreamPlace> rows;
+        final List<DreamPlace> mirror;
+        int moves;
+
+        Recorder(List<DreamPlace> rows) {
+            this.rows = rows;
+            this.mirror = new ArrayList<>(rows);
+        }
+
+        @Override
+        public void onInserted(int position) {
+            mirror.add(position, rows.get(position));
+        }
+
+        @Override
+        public void onRemoved(int position) {
+            mirror.remove(position);
+        }
+
+        @Override
+        public void onMoved(int from, int to) {
+            mirror.add(to, mirror.remove(from));
+            moves++;
+        }
+    }
+}
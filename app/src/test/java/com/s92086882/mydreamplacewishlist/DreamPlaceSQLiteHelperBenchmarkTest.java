@@ -0,0 +1,124 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.app.Application;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Per-operation latency of the shared WAL handle vs the old open/query/close pattern.
+ * -
+ * Notes:
+ * - Runs on Robolectric's native SQLite, so absolute numbers are the host's, not a phone's;
+ *   the ratio is what matters.
+ * - The open/close side uses a bare SQLiteDatabase.openDatabase per call, which skips the
+ *   version check the old per-call helper also paid, so it understates the old cost.
+ * - Report-only: median / p95 per operation go to Log (shown with -Drobolectric.logging=stdout);
+ *   only correctness is asserted, never timing.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class) // plain Application: no Firebase in unit tests
+public class DreamPlaceSQLiteHelperBenchmarkTest {
+
+    private static final int PLACES = 2_000;
+    private static final int WARMUP = 200;
+    private static final int RUNS = 1_000;
+    private static final String TAG = "SQLiteBenchmark";
+
+    @After
+    public void closeDatabase() {
+        // Robolectric gives each test a fresh data dir; don't keep a handle to the old file
+        DreamPlaceSQLiteHelper.resetInstance();
+    }
+
+    @Test
+    public void sharedHandleVsOpenClosePerCall() {
+        Context context = RuntimeEnvironment.getApplication();
+        DreamPlaceSQLiteHelper helper = DreamPlaceSQLiteHelper.getInstance(context);
+        List<DreamPlace> seed = new ArrayList<>();
+        for (int i = 0; i < PLACES; i++) {
+            seed.add(new DreamPlace(Collections.singletonList("https://example.com/" + i + ".jpg"),
+                    "Place " + i, "City " + (i % 50), Double.NaN, i % 2 == 0, i % 5,
+                    6.9 + i * 1e-4, 79.8 + i * 1e-4, "notes"));
+        }
+        helper.addDreamPlaces(seed);
+        String path = context.getDatabasePath("dream_places.db").getPath();
+
+        // ----- Point reads (detail screen) -----
+        long[] shared = time(i -> assertNotNull(helper.getDreamPlaceById(seed.get(i % PLACES).getId())));
+        long[] openClose = time(i -> {
+            SQLiteDatabase db = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READWRITE);
+            String id = seed.get(i % PLACES).getId();
+            try (Cursor place = db.rawQuery("SELECT name, city, notes, latitude, longitude, visited, rating "
+                    + "FROM places WHERE id = ? AND deleted_at IS NULL", new String[]{id});
+                 Cursor photos = db.rawQuery("SELECT uri FROM place_photos WHERE place_id = ? ORDER BY position",
+                         new String[]{id})) {
+                assertTrue(place.moveToFirst());
+                photos.moveToFirst();
+            }
+            db.close();
+        });
+        report("read", shared, openClose);
+
+        // ----- Single inserts (guest save) -----
+        long[] sharedWrites = time(i -> assertTrue(helper.addDreamPlace(
+                new DreamPlace(null, "New " + i, "City", Double.NaN, false, 0f, 7.0, 80.0, null), 7.0, 80.0) > 0));
+        long[] openCloseWrites = time(i -> {
+            SQLiteDatabase db = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READWRITE);
+            ContentValues values = new ContentValues();
+            values.put("name", "Old " + i);
+            values.put("city", "City");
+            values.put("latitude", 7.0);
+            values.put("longitude", 80.0);
+            assertTrue(db.insert("places", null, values) > 0);
+            db.close();
+        });
+        report("insert", sharedWrites, openCloseWrites);
+    }
+
+    // ----- Helpers -----
+
+    private interface Operation {
+        void run(int i);
+    }
+
+    /** Nanoseconds per call of RUNS timed calls (after WARMUP untimed ones), sorted ascending. */
+    private static long[] time(Operation operation) {
+        for (int i = 0; i < WARMUP; i++) operation.run(i);
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            operation.run(WARMUP + i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+
+    private static void report(String operation, long[] shared, long[] openClose) {
+        Log.i(TAG, String.format("%s: shared median %.1f µs, p95 %.1f µs | open/close median %.1f µs, p95 %.1f µs",
+                operation, median(shared) / 1e3, shared[shared.length * 95 / 100] / 1e3,
+                median(openClose) / 1e3, openClose[openClose.length * 95 / 100] / 1e3));
+    }
+}
@@ -0,0 +1,501 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.app.Application;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * DreamPlaceSQLiteHelper against a real database (Robolectric's SQLite).
+ * -
+ * Notes:
+ * - Each test gets a fresh database file; the shared helper is dropped after each test.
+ * - Checks on the R*Tree or full-text table are skipped if the SQLite build lacks that module.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class) // plain Application: no Firebase in unit tests
+public class DreamPlaceSQLiteHelperTest {
+
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+    private static final int DATABASE_VERSION = 9;
+
+    private DreamPlaceSQLiteHelper helper;
+
+    @Before
+    public void openHelper() {
+        helper = DreamPlaceSQLiteHelper.getInstance(RuntimeEnvironment.getApplication());
+    }
+
+    @After
+    public void closeHelper() {
+        DreamPlaceSQLiteHelper.resetInstance();
+    }
+
+    // ----- R*Tree -----
+
+    @Test
+    public void spatialIndexFollowsInsertUpdateAndDelete() {
+        assumeTrue(hasTable(DreamPlaceSQLiteHelper.RTREE_TABLE_NAME));
+        String id = add("Galle Fort", "Galle", 6.0267, 80.2170);
+        assertRtreeRow(id, 6.0267, 80.2170);
+
+        DreamPlace moved = helper.getDreamPlaceById(id);
+        moved.setLatitude(7.2906);
+        moved.setLongitude(80.6337);
+        helper.updateDreamPlace(moved);
+        assertRtreeRow(id, 7.2906, 80.6337);
+
+        helper.deleteDreamPlaceById(id);
+        assertEquals(0, count("SELECT COUNT(*) FROM places_rtree WHERE id = ?", id));
+    }
+
+    @Test
+    public void queryInBoundsReturnsOnlyPlacesInside() {
+        String inside = add("Temple of the Tooth", "Kandy", 7.2936, 80.6413);
+        add("Galle Fort", "Galle", 6.0267, 80.2170);
+        add("Nine Arches Bridge", "Ella", 6.8768, 81.0608);
+
+        List<PlaceSummary> found = helper.queryInBounds(
+                new LatLngBounds(new LatLng(7.0, 80.5), new LatLng(7.5, 80.8)));
+        assertEquals(1, found.size());
+        assertEquals(inside, found.get(0).getId());
+    }
+
+    @Test
+    public void queryInBoundsAcrossTheAntimeridian() {
+        String west = add("Suva", "Fiji", -18.1416, 178.4419);
+        String east = add("Apia", "Samoa", -13.8333, -171.7667);
+        add("Colombo", "Colombo", 6.9271, 79.8612);
+
+        List<PlaceSummary> found = helper.queryInBounds(
+                new LatLngBounds(new LatLng(-20, 170), new LatLng(-10, -170)));
+        Set<String> ids = new HashSet<>();
+        for (PlaceSummary place : found) ids.add(place.getId());
+        assertEquals(new HashSet<>(Arrays.asList(west, east)), ids);
+    }
+
+    @Test
+    public void queryWithinRadiusIsNearestFirstWithDistances() {
+        double lat = 6.9271, lng = 79.8612;
+        String far = add("Far", "North", lat + northDegrees(40_000), lng);
+        String near = add("Near", "North", lat + northDegrees(10_000), lng);
+        add("Outside", "North", lat + northDegrees(60_000), lng);
+
+        List<DreamPlace> found = helper.queryWithinRadius(lat, lng, 50_000);
+        assertEquals(Arrays.asList(near, far), ids(found));
+        assertEquals(10_000, found.get(0).getDistanceMeters(), 1);
+        assertEquals(40_000, found.get(1).getDistanceMeters(), 1);
+        assertTrue(helper.queryWithinRadius(lat, lng, 0).isEmpty());
+    }
+
+    // ----- Full-text index -----
+
+    @Test
+    public void fullTextIndexFollowsInsertUpdateAndDelete() {
+        assumeTrue(hasTable(DreamPlaceSQLiteHelper.FTS_TABLE_NAME));
+        String id = add("Sigiriya Rock", "Dambulla", 7.9570, 80.7603);
+        assertEquals(Arrays.asList(id), ids(helper.searchPlaces("sigi", 10, null)));
+
+        DreamPlace renamed = helper.getDreamPlaceById(id);
+        renamed.setName("Lion Rock");
+        helper.updateDreamPlace(renamed);
+        assertEquals(0, ftsMatches("sigiriya"));
+        assertTrue(helper.searchPlaces("sigi", 10, null).isEmpty());
+        assertEquals(Arrays.asList(id), ids(helper.searchPlaces("lion", 10, null)));
+
+        helper.deleteDreamPlaceById(id);
+        assertEquals(0, ftsMatches("lion"));
+        assertTrue(helper.searchPlaces("lion", 10, null).isEmpty());
+    }
+
+    @Test
+    public void searchRanksNameAboveNotes() {
+        DreamPlace inNotes = new DreamPlace(new ArrayList<>(), "Temple of the Tooth", "Central", Double.NaN,
+                false, 0f, 7.2936, 80.6413, "Near Kandy lake");
+        String notesId = String.valueOf(helper.addDreamPlace(inNotes, 7.2936, 80.6413));
+        String nameId = add("Kandy Lake", "Central", 7.2916, 80.6424);
+        add("Galle Fort", "Southern", 6.0267, 80.2170);
+
+        assertEquals(Arrays.asList(nameId, notesId), ids(helper.searchPlaces("kandy", 10, null)));
+        assertEquals(Arrays.asList(nameId), ids(helper.searchPlaces("kandy", 1, null)));
+        assertEquals(Arrays.asList(nameId, notesId), ids(helper.searchPlaces("kan lak", 10, null)));
+        assertTrue(helper.searchPlaces("kan fort", 10, null).isEmpty()); // every word must match
+    }
+
+    @Test
+    public void searchAppliesFilterConditions() {
+        DreamPlace visited = new DreamPlace(new ArrayList<>(), "Ella Rock", "Ella", Double.NaN,
+                true, 4f, 6.8667, 81.0466, null);
+        String visitedId = String.valueOf(helper.addDreamPlace(visited, 6.8667, 81.0466));
+        add("Ella Gap", "Ella", 6.8720, 81.0500);
+
+        assertEquals(2, helper.searchPlaces("ella", 10, null).size());
+        assertEquals(Arrays.asList(visitedId), ids(helper.searchPlaces("ella",
+                PlaceFilter.parse("visited:yes rating>=4"), null, 10, null)));
+    }
+
+    // ----- Upgrade from v1 -----
+
+    @Test
+    public void upgradeFromV1KeepsPlacesAndMovesPhotos() {
+        Context context = RuntimeEnvironment.getApplication();
+        writeV1Database(context);
+
+        SQLiteDatabase db = helper.getReadableDatabase();
+        assertEquals(DATABASE_VERSION, db.getVersion());
+
+        DreamPlace galle = helper.getDreamPlaceById("1");
+        assertEquals("Galle Fort", galle.getName());
+        assertEquals("ramparts at sunset", galle.getNotes());
+        assertTrue(galle.isVisited());
+        assertEquals(4.5f, galle.getRating(), 0f);
+        assertEquals(Arrays.asList("content://photos/1", "content://photos/2"), galle.getPhotoPaths());
+        assertEquals(new ArrayList<String>(), helper.getDreamPlaceById("2").getPhotoPaths());
+        assertEquals(0, count("SELECT COUNT(*) FROM places WHERE photos IS NOT NULL"));
+
+        // Backfilled trig columns and geohash: distance order and radius queries work on old rows
+        List<DreamPlace> nearGalle = helper.getAllPlacesOrderedByDistance(6.0267, 80.2170);
+        assertEquals(Arrays.asList("1", "2"), ids(nearGalle));
+        assertEquals(0, nearGalle.get(0).getDistanceMeters(), 1);
+        assertEquals(Arrays.asList("1"), ids(helper.queryWithinRadius(6.0267, 80.2170, 10_000)));
+        assertEquals(Geohash.encode(6.0267, 80.2170),
+                DatabaseUtils.stringForQuery(db, "SELECT geohash FROM places WHERE id = 1", null));
+
+        // Backfilled R*Tree and full-text rows
+        if (hasTable(DreamPlaceSQLiteHelper.RTREE_TABLE_NAME)) assertRtreeRow("1", 6.0267, 80.2170);
+        if (hasTable(DreamPlaceSQLiteHelper.FTS_TABLE_NAME)) {
+            assertEquals(Arrays.asList("1"), ids(helper.searchPlaces("ramparts", 10, null)));
+        }
+        assertEquals(2, helper.getAllDreamPlaces().size()); // no tombstones yet
+    }
+
+    @Test
+    public void upgradedSchemaMatchesFreshInstall() {
+        Context context = RuntimeEnvironment.getApplication();
+        writeV1Database(context);
+        Set<String> upgraded = schemaObjects();
+        assertFalse(upgraded.contains("idx_places_trig"));
+
+        DreamPlaceSQLiteHelper.resetInstance();
+        assertTrue(context.deleteDatabase("dream_places.db"));
+        helper = DreamPlaceSQLiteHelper.getInstance(context);
+        assertEquals(schemaObjects(), upgraded);
+    }
+
+    // ----- Photos -----
+
+    @Test
+    public void photosKeepTheirOrderAndCover() {
+        String id = add("Galle Fort", "Galle", 6.0267, 80.2170, "a", "b", "c", "d");
+        assertEquals(Arrays.asList("a", "b", "c", "d"), helper.getPhotoUris(id));
+        assertEquals(Arrays.asList("a"), helper.getAllDreamPlaces().get(0).getPhotoPaths()); // list rows: cover only
+
+        helper.movePhoto(id, 3, 0);
+        assertEquals(Arrays.asList("d", "a", "b", "c"), helper.getPhotoUris(id));
+        helper.movePhoto(id, 0, 2);
+        assertEquals(Arrays.asList("a", "b", "d", "c"), helper.getPhotoUris(id));
+        assertEquals(Arrays.asList("a"), helper.getAllDreamPlaces().get(0).getPhotoPaths());
+        assertPositions(id, 4);
+    }
+
+    @Test
+    public void deletePhotoShiftsTheRest() {
+        String id = add("Galle Fort", "Galle", 6.0267, 80.2170, "a", "b", "c");
+        helper.deletePhotoFromPlace(id, "a");
+        assertEquals(Arrays.asList("b", "c"), helper.getPhotoUris(id));
+        assertEquals(Arrays.asList("b"), helper.getAllDreamPlaces().get(0).getPhotoPaths()); // new cover
+        assertPositions(id, 2);
+
+        helper.deletePhotoFromPlace(id, "missing");
+        assertEquals(Arrays.asList("b", "c"), helper.getPhotoUris(id));
+    }
+
+    @Test
+    public void addPhotoAppendsAtTheEnd() {
+        String id = add("Galle Fort", "Galle", 6.0267, 80.2170, "a");
+        assertTrue(helper.addPhoto(id, "b") > 0);
+        String empty = add("Ella Rock", "Ella", 6.8667, 81.0466);
+        assertTrue(helper.addPhoto(empty, "first") > 0);
+
+        assertEquals(Arrays.asList("a", "b"), helper.getPhotoUris(id));
+        assertEquals(Arrays.asList("first"), helper.getPhotoUris(empty));
+        assertPositions(id, 2);
+    }
+
+    @Test
+    public void updateRewritesChangedPhotoListsOnly() {
+        String id = add("Galle Fort", "Galle", 6.0267, 80.2170, "a", "b");
+        long firstPhotoRow = count("SELECT MIN(photo_id) FROM place_photos WHERE place_id = ?", id);
+
+        DreamPlace place = helper.getDreamPlaceById(id);
+        place.setNotes("lighthouse");
+        helper.updateDreamPlace(place);
+        assertEquals(firstPhotoRow, count("SELECT MIN(photo_id) FROM place_photos WHERE place_id = ?", id));
+
+        place.setPhotoPaths(new ArrayList<>(Arrays.asList("c", "a")));
+        helper.updateDreamPlace(place);
+        assertEquals(Arrays.asList("c", "a"), helper.getPhotoUris(id));
+        assertEquals("lighthouse", helper.getDreamPlaceById(id).getNotes());
+    }
+
+    // ----- Batch writes -----
+
+    @Test
+    public void addDreamPlacesCommitsInBatchesAndSetsIds() {
+        List<DreamPlace> places = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            places.add(new DreamPlace(new ArrayList<>(Arrays.asList("p" + i)), "Place " + i, "City", Double.NaN,
+                    false, 0f, 6.9 + i * 0.01, 79.8, null));
+        }
+        List<Integer> progress = new ArrayList<>();
+        List<Integer> notified = new ArrayList<>();
+        helper.getInvalidationTracker().addObserver((changed, deletedIds) -> notified.add(changed.size()));
+
+        assertEquals(7, helper.addDreamPlaces(places, 3, (done, total) -> {
+            assertEquals(7, total);
+            progress.add(done);
+        }));
+        ShadowLooper.idleMainLooper();
+
+        assertEquals(Arrays.asList(3, 6, 7), progress);
+        assertEquals(Arrays.asList(3, 3, 1), notified); // one notification per committed batch
+        for (int i = 0; i < 7; i++) {
+            DreamPlace stored = helper.getDreamPlaceById(places.get(i).getId());
+            assertEquals("Place " + i, stored.getName());
+            assertEquals(Arrays.asList("p" + i), stored.getPhotoPaths());
+            assertEquals(6.9 + i * 0.01, stored.getLatitude(), 0);
+        }
+    }
+
+    @Test
+    public void updateDreamPlacesSkipsMissingAndDeletedRows() {
+        List<DreamPlace> places = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            places.add(new DreamPlace(new ArrayList<>(), "Place " + i, "City", Double.NaN,
+                    false, 0f, 6.9, 79.8, null));
+        }
+        assertEquals(4, helper.addDreamPlaces(places));
+        helper.markDeleted(places.get(3).getId());
+
+        List<DreamPlace> edits = new ArrayList<>();
+        for (DreamPlace place : places) {
+            DreamPlace edit = new DreamPlace(place);
+            edit.setName(place.getName() + " (edited)");
+            edit.setVisited(true);
+            edit.setPhotoPaths(new ArrayList<>(Arrays.asList("new")));
+            edits.add(edit);
+        }
+        edits.add(new DreamPlace(new ArrayList<>(), "No id", "City", Double.NaN, false, 0f, 0, 0, null));
+        List<Integer> progress = new ArrayList<>();
+
+        assertEquals(3, helper.updateDreamPlaces(edits, 2, (done, total) -> progress.add(done)));
+        assertEquals(Arrays.asList(2, 4, 5), progress);
+        for (int i = 0; i < 3; i++) {
+            DreamPlace stored = helper.getDreamPlaceById(places.get(i).getId());
+            assertEquals("Place " + i + " (edited)", stored.getName());
+            assertTrue(stored.isVisited());
+            assertEquals(Arrays.asList("new"), stored.getPhotoPaths());
+        }
+        assertEquals(4, count("SELECT COUNT(*) FROM places")); // the "No id" place was not inserted
+        helper.restoreDeleted(places.get(3).getId());
+        assertEquals("Place 3", helper.getDreamPlaceById(places.get(3).getId()).getName()); // tombstone untouched
+    }
+
+    // ----- Soft delete -----
+
+    @Test
+    public void markDeletedHidesThePlaceAndRestoreBringsItBack() {
+        String id = add("Galle Fort", "Galle", 6.0267, 80.2170, "a");
+        List<Set<String>> deleted = new ArrayList<>();
+        List<List<String>> changed = new ArrayList<>();
+        helper.getInvalidationTracker().addObserver((rows, deletedIds) -> {
+            changed.add(ids(rows));
+            deleted.add(deletedIds);
+        });
+
+        helper.markDeleted(id);
+        helper.markDeleted(id); // already a tombstone: no second notification
+        ShadowLooper.idleMainLooper();
+        assertEquals(Arrays.asList(Collections.singleton(id)), deleted);
+        assertNull(helper.getDreamPlaceById(id));
+        assertTrue(helper.getAllDreamPlaces().isEmpty());
+        assertTrue(helper.getAllPlacesOrderedByDistance(6.0267, 80.2170).isEmpty());
+        assertTrue(helper.queryInBounds(new LatLngBounds(new LatLng(6, 80), new LatLng(7, 81))).isEmpty());
+        assertTrue(helper.searchPlaces("galle", 10, null).isEmpty());
+        assertEquals(1, count("SELECT COUNT(*) FROM place_photos WHERE place_id = ?", id)); // kept for Undo
+
+        helper.restoreDeleted(id);
+        ShadowLooper.idleMainLooper();
+        assertEquals(Arrays.asList(Collections.<String>emptyList(), Arrays.asList(id)), changed);
+        assertEquals(Arrays.asList("a"), helper.getDreamPlaceById(id).getPhotoPaths());
+        assertEquals(Arrays.asList(id), ids(helper.searchPlaces("galle", 10, null)));
+    }
+
+    @Test
+    public void purgeDeletedRemovesOldTombstonesAndTheirRows() {
+        List<DreamPlace> places = new ArrayList<>();
+        for (int i = 0; i < DreamPlaceSQLiteHelper.DEFAULT_BATCH_SIZE + 100; i++) {
+            places.add(new DreamPlace(new ArrayList<>(Arrays.asList("p" + i)), "Place " + i, "City", Double.NaN,
+                    false, 0f, 6.9, 79.8, null));
+        }
+        helper.addDreamPlaces(places);
+        String kept = places.get(0).getId();
+        for (int i = 1; i < places.size(); i++) helper.markDeleted(places.get(i).getId());
+
+        assertEquals(0, helper.purgeDeleted(60_000)); // still within the grace period
+        assertEquals(places.size(), count("SELECT COUNT(*) FROM places"));
+
+        assertEquals(places.size() - 1, helper.purgeDeleted(0)); // more than one batch
+        assertEquals(1, count("SELECT COUNT(*) FROM places"));
+        assertEquals(1, count("SELECT COUNT(*) FROM place_photos"));
+        if (hasTable(DreamPlaceSQLiteHelper.RTREE_TABLE_NAME)) {
+            assertEquals(1, count("SELECT COUNT(*) FROM places_rtree"));
+        }
+        if (hasTable(DreamPlaceSQLiteHelper.FTS_TABLE_NAME)) assertEquals(1, ftsMatches("place"));
+        assertEquals(Arrays.asList(kept), ids(helper.getAllDreamPlaces()));
+    }
+
+    @Test
+    public void deleteDreamPlaceByIdRemovesEverything() {
+        String id = add("Galle Fort", "Galle", 6.0267, 80.2170, "a", "b");
+        List<Set<String>> deleted = new ArrayList<>();
+        helper.getInvalidationTracker().addObserver((rows, deletedIds) -> deleted.add(deletedIds));
+
+        helper.deleteDreamPlaceById(id);
+        ShadowLooper.idleMainLooper();
+        assertEquals(Arrays.asList(Collections.singleton(id)), deleted);
+        assertEquals(0, count("SELECT COUNT(*) FROM places"));
+        assertEquals(0, count("SELECT COUNT(*) FROM place_photos"));
+        helper.restoreDeleted(id); // nothing left to restore
+        assertNull(helper.getDreamPlaceById(id));
+    }
+
+    // ----- LIKE fallback -----
+
+    @Test
+    public void likePatternMatchesWildcardsLiterally() {
+        assertTrue(like("50% off", "50%"));
+        assertFalse(like("500 off", "50%"));
+        assertTrue(like("old_town", "d_t"));
+        assertFalse(like("oldstown", "d_t"));
+        assertTrue(like("C:\\photos", "C:\\"));
+        assertFalse(like("C:photos", "C:\\"));
+        assertTrue(like("Galle Fort", "LE fo")); // still a case-insensitive substring match
+    }
+
+    // ----- Helpers -----
+
+    private String add(String name, String city, double lat, double lng, String... photos) {
+        DreamPlace place = new DreamPlace(new ArrayList<>(Arrays.asList(photos)), name, city, Double.NaN,
+                false, 0f, lat, lng, null);
+        long id = helper.addDreamPlace(place, lat, lng);
+        assertTrue(id > 0);
+        return String.valueOf(id);
+    }
+
+    /** Latitude offset of a point the given distance due north (on the helper's sphere). */
+    private static double northDegrees(double meters) {
+        return Math.toDegrees(meters / EARTH_RADIUS_METERS);
+    }
+
+    private static List<String> ids(List<DreamPlace> places) {
+        List<String> ids = new ArrayList<>();
+        for (DreamPlace place : places) ids.add(place.getId());
+        return ids;
+    }
+
+    private long count(String sql, String... args) {
+        return DatabaseUtils.longForQuery(helper.getReadableDatabase(), sql, args);
+    }
+
+    /** Rows the full-text index itself holds for a word (not filtered through the places table). */
+    private long ftsMatches(String word) {
+        return count("SELECT COUNT(*) FROM places_fts WHERE places_fts MATCH ?", word);
+    }
+
+    /** Whether SQLite's LIKE, as the search fallback runs it, finds query in text. */
+    private boolean like(String text, String query) {
+        return count("SELECT ? LIKE ? ESCAPE '\\'", text, DreamPlaceSQLiteHelper.likeContains(query)) == 1;
+    }
+
+    /** Tables, indexes and triggers by name (SQLite's own objects excluded). */
+    private Set<String> schemaObjects() {
+        Set<String> names = new HashSet<>();
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery(
+                "SELECT name FROM sqlite_master WHERE name NOT LIKE 'sqlite_%'", null)) {
+            while (cursor.moveToNext()) names.add(cursor.getString(0));
+        }
+        return names;
+    }
+
+    /** Photo positions of a place are exactly 0..count-1. */
+    private void assertPositions(String placeId, int count) {
+        List<Integer> positions = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery(
+                "SELECT position FROM place_photos WHERE place_id = ? ORDER BY position", new String[]{placeId})) {
+            while (cursor.moveToNext()) positions.add(cursor.getInt(0));
+        }
+        for (int i = 0; i < count; i++) expected.add(i);
+        assertEquals(expected, positions);
+    }
+
+    /** The schema and rows as the first release wrote them (photos comma-joined in the places row). */
+    private static void writeV1Database(Context context) {
+        File file = context.getDatabasePath("dream_places.db");
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        SQLiteDatabase v1 = SQLiteDatabase.openOrCreateDatabase(file, null);
+        v1.execSQL("CREATE TABLE places (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, city TEXT, " +
+                "notes TEXT, latitude REAL, longitude REAL, photos TEXT, visited INTEGER, rating REAL)");
+        v1.execSQL("INSERT INTO places (name, city, notes, latitude, longitude, photos, visited, rating) VALUES " +
+                "('Galle Fort', 'Galle', 'ramparts at sunset', 6.0267, 80.2170, " +
+                "'content://photos/1,content://photos/2', 1, 4.5)");
+        v1.execSQL("INSERT INTO places (name, city, notes, latitude, longitude, photos, visited, rating) VALUES " +
+                "('Temple of the Tooth', 'Kandy', NULL, 7.2936, 80.6413, '', 0, 0)");
+        v1.setVersion(1);
+        v1.close();
+    }
+
+    private boolean hasTable(String table) {
+        return count("SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?", table) > 0;
+    }
+
+    /** R*Tree boxes are 32-bit floats, hence the tolerance. */
+    private void assertRtreeRow(String id, double lat, double lng) {
+        try (Cursor cursor = helper.getReadableDatabase().rawQuery(
+                "SELECT min_lat, max_lat, min_lng, max_lng FROM places_rtree WHERE id = ?", new String[]{id})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(lat, cursor.getDouble(0), 1e-4);
+            assertEquals(lat, cursor.getDouble(1), 1e-4);
+            assertEquals(lng, cursor.getDouble(2), 1e-4);
+            assertEquals(lng, cursor.getDouble(3), 1e-4);
+        }
+    }
+}
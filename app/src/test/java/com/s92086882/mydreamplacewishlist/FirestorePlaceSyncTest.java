@@ -0,0 +1,269 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.app.Application;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FirestorePlaceSync's snapshot handling under each read policy, driven by fake snapshots.
+ * -
+ * Notes:
+ * - Each test uses its own user, since SharedPlaceIndex keeps what the previous one published.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class) // plain Application: no Firebase in unit tests
+public class FirestorePlaceSyncTest {
+
+    private final FirestorePlaceSync sync = FirestorePlaceSync.getInstance();
+    private final List<Call> calls = new ArrayList<>();
+    private final FirestorePlaceSync.Observer observer =
+            (index, complete, changed, deletedIds) -> calls.add(new Call(index, complete, changed, deletedIds));
+
+    @Before
+    public void addObserver() {
+        sync.addObserver(observer);
+    }
+
+    @After
+    public void stopSync() {
+        sync.removeObserver(observer);
+        sync.stop();
+    }
+
+    // ----- CACHE_THEN_SERVER -----
+
+    @Test
+    public void cacheThenServerShowsCacheThenAppliesServerChanges() {
+        String uid = "cache-then-server";
+        sync.begin(uid);
+        DreamPlace galle = row("1", "Galle Fort"), kandy = row("2", "Kandy Lake");
+
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(true, Arrays.asList(galle, kandy)));
+        assertEquals(1, calls.size());
+        assertTrue(calls.get(0).complete);
+        assertEquals(2, calls.get(0).index.size());
+        assertEquals(2, sync.readStats().cacheDocuments);
+        assertTrue(sync.readStats().firstCacheMillis >= 0);
+        assertEquals(-1, sync.readStats().firstServerMillis);
+
+        // Server handover: one document changed; all documents came from the server
+        DreamPlace renamed = row("2", "Kandy Lake Walk");
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(false, Arrays.asList(galle, renamed)).changed(renamed));
+        assertEquals(2, calls.size());
+        assertFalse(calls.get(1).complete);
+        assertEquals(Arrays.asList(renamed), calls.get(1).changed);
+        assertEquals(2, sync.readStats().serverDocuments);
+        assertTrue(sync.readStats().firstServerMillis >= 0);
+
+        // Later server snapshots count only their changed documents
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(false, Arrays.asList(renamed)).deleted("1"));
+        assertEquals(Collections.singleton("1"), calls.get(2).deletedIds);
+        assertEquals(3, sync.readStats().serverDocuments);
+        assertEquals(2, sync.readStats().cacheDocuments);
+        assertEquals(1, SharedPlaceIndex.getInstance().get(SharedPlaceIndex.userDataSet(uid)).size());
+    }
+
+    @Test
+    public void metadataOnlySnapshotNotifiesNobody() {
+        String uid = "metadata-only";
+        sync.begin(uid);
+        DreamPlace galle = row("1", "Galle Fort");
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(true, Arrays.asList(galle)));
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(false, Arrays.asList(galle)));
+        assertEquals(1, calls.size());
+        assertEquals(1, sync.readStats().serverDocuments);
+    }
+
+    // ----- SERVER -----
+
+    @Test
+    public void serverPolicySkipsCacheSnapshots() {
+        String uid = "server";
+        sync.begin(uid);
+        DreamPlace galle = row("1", "Galle Fort"), kandy = row("2", "Kandy Lake");
+
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.SERVER, new FakeSnapshot(true, Arrays.asList(galle)));
+        assertTrue(calls.isEmpty());
+        assertNull(SharedPlaceIndex.getInstance().get(SharedPlaceIndex.userDataSet(uid)));
+        assertEquals(0, sync.readStats().cacheDocuments);
+        assertEquals(-1, sync.readStats().firstCacheMillis);
+
+        // The first server snapshot is complete, even though its changes are relative to the skipped one
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.SERVER,
+                new FakeSnapshot(false, Arrays.asList(galle, kandy)).changed(kandy));
+        assertEquals(1, calls.size());
+        assertTrue(calls.get(0).complete);
+        assertEquals(Arrays.asList(galle, kandy), calls.get(0).changed);
+        assertEquals(2, sync.readStats().serverDocuments);
+
+        // After that, local writes (cache-only snapshots) are applied like any change
+        DreamPlace added = row("3", "Ella Rock");
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.SERVER,
+                new FakeSnapshot(true, Arrays.asList(galle, kandy, added)).changed(added));
+        assertEquals(Arrays.asList(added), calls.get(1).changed);
+        assertEquals(1, sync.readStats().cacheDocuments);
+    }
+
+    // ----- Re-attach -----
+
+    @Test
+    public void reattachedListenerReconcilesWithPublishedRows() {
+        String uid = "reattach";
+        sync.begin(uid);
+        DreamPlace galle = row("1", "Galle Fort"), kandy = row("2", "Kandy Lake"), ella = row("3", "Ella Rock");
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(false, Arrays.asList(galle, kandy, ella)));
+
+        // The listener failed and start() attached a new one: unchanged rows are not re-sent
+        sync.begin(uid);
+        DreamPlace renamed = row("2", "Kandy Lake Walk"), added = row("4", "Sigiriya");
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(true, Arrays.asList(copy(galle), renamed, added)));
+        assertEquals(2, calls.size());
+        assertFalse(calls.get(1).complete);
+        assertEquals(new HashSet<>(Arrays.asList(renamed, added)), new HashSet<>(calls.get(1).changed));
+        assertEquals(Collections.singleton("3"), calls.get(1).deletedIds);
+        assertEquals(3, calls.get(1).index.size());
+    }
+
+    @Test
+    public void reattachWithNothingChangedNotifiesNobody() {
+        String uid = "reattach-unchanged";
+        sync.begin(uid);
+        DreamPlace galle = row("1", "Galle Fort");
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(true, Arrays.asList(galle)));
+        sync.begin(uid);
+        sync.onSnapshot(uid, FirestorePlaceSync.ReadPolicy.CACHE_THEN_SERVER,
+                new FakeSnapshot(true, Arrays.asList(copy(galle))));
+        assertEquals(1, calls.size());
+    }
+
+    // ----- sameRow -----
+
+    @Test
+    public void sameRowComparesEveryShownField() {
+        DreamPlace place = row("1", "Galle Fort");
+        assertTrue(FirestorePlaceSync.sameRow(place, copy(place)));
+        assertTrue(FirestorePlaceSync.sameRow(place, place.withDistanceMeters(1234))); // distance is per screen
+
+        DreamPlace other = copy(place);
+        other.setName("Galle");
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+        other = copy(place);
+        other.setCity("Matara");
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+        other = copy(place);
+        other.setNotes("ramparts");
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+        other = copy(place);
+        other.setLatitude(6.03);
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+        other = copy(place);
+        other.setLongitude(80.22);
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+        other = copy(place);
+        other.setVisited(true);
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+        other = copy(place);
+        other.setRating(3f);
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+        other = copy(place);
+        other.setPhotoPaths(Arrays.asList("https://example.com/1.jpg", "https://example.com/2.jpg"));
+        assertFalse(FirestorePlaceSync.sameRow(place, other));
+    }
+
+    // ----- Helpers -----
+
+    private static DreamPlace row(String id, String name) {
+        DreamPlace place = new DreamPlace(Arrays.asList("https://example.com/" + id + ".jpg"), name, "City",
+                Double.NaN, false, 0f, 6.0267, 80.2170, null);
+        place.setId(id);
+        return place;
+    }
+
+    private static DreamPlace copy(DreamPlace place) {
+        return new DreamPlace(place);
+    }
+
+    private static final class Call {
+        final PlaceSpatialIndex index;
+        final boolean complete;
+        final List<DreamPlace> changed;
+        final Set<String> deletedIds;
+
+        Call(PlaceSpatialIndex index, boolean complete, List<DreamPlace> changed, Set<String> deletedIds) {
+            this.index = index;
+            this.complete = complete;
+            this.changed = new ArrayList<>(changed);
+            this.deletedIds = new HashSet<>(deletedIds);
+        }
+    }
+
+    /** A listener snapshot: every row, plus the changes relative to the previous snapshot. */
+    private static final class FakeSnapshot implements FirestorePlaceSync.SnapshotView {
+        private final boolean fromCache;
+        private final List<DreamPlace> rows;
+        private final List<DreamPlace> changed = new ArrayList<>();
+        private final Set<String> deletedIds = new HashSet<>();
+
+        FakeSnapshot(boolean fromCache, List<DreamPlace> rows) {
+            this.fromCache = fromCache;
+            this.rows = rows;
+        }
+
+        FakeSnapshot changed(DreamPlace... places) {
+            changed.addAll(Arrays.asList(places));
+            return this;
+        }
+
+        FakeSnapshot deleted(String... ids) {
+            deletedIds.addAll(Arrays.asList(ids));
+            return this;
+        }
+
+        @Override
+        public boolean isFromCache() {
+            return fromCache;
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        @Override
+        public List<DreamPlace> rows() {
+            return new ArrayList<>(rows);
+        }
+
+        @Override
+        public int collectChanges(List<DreamPlace> changed, Set<String> deletedIds) {
+            changed.addAll(this.changed);
+            deletedIds.addAll(this.deletedIds);
+            return this.changed.size() + this.deletedIds.size();
+        }
+    }
+}
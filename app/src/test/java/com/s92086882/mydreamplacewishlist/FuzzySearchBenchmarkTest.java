@@ -0,0 +1,75 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Latency of PlaceSearchIndex.fuzzySearch() at 50k places (the typo fallback runs per keystroke).
+ * -
+ * Notes:
+ * - Queries are real name words with one or two random edits, one or two words per query,
+ *   the case the fallback exists for ("sigirya" → "Sigiriya").
+ * - A few untimed passes first, so the JIT has compiled the search before timing starts.
+ * - Report-only: prints median / p99 against the 5 ms budget (host JVM; a phone is slower, the
+ *   ratio to the budget is what to watch). Only correctness is asserted: the fallback must find
+ *   rows for most queries (a deletion can shorten a word below the length its edits need).
+ */
+public class FuzzySearchBenchmarkTest {
+
+    private static final int PLACES = 50_000;
+    private static final int QUERIES = 2_000;
+    private static final int WARMUP_PASSES = 3;
+
+    @Test
+    public void fuzzySearchLatencyAt50k() {
+        List<DreamPlace> places = TestPlaces.random(PLACES, 7);
+        long start = System.nanoTime();
+        PlaceSearchIndex index = PlaceSearchIndex.build(places);
+        double buildMs = (System.nanoTime() - start) / 1e6;
+
+        Random random = new Random(8);
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String[] words = places.get(random.nextInt(PLACES)).getName().toLowerCase().split(" ");
+            String query = typo(random, words[0]);
+            if (random.nextBoolean()) query += " " + typo(random, words[1]);
+            queries[i] = query;
+        }
+
+        for (int pass = 0; pass < WARMUP_PASSES; pass++) {
+            for (String query : queries) index.fuzzySearch(query, null);
+        }
+        long[] nanos = new long[QUERIES];
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long begin = System.nanoTime();
+            if (!index.fuzzySearch(queries[i], null).isEmpty()) found++;
+            nanos[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(nanos);
+        long p99 = nanos[QUERIES * 99 / 100];
+        System.out.printf("fuzzy, %,d places: build %.0f ms | median %.2f ms, p99 %.2f ms | %d/%d queries found rows%n",
+                PLACES, buildMs, nanos[QUERIES / 2] / 1e6, p99 / 1e6, found, QUERIES);
+        assertTrue(found + "/" + QUERIES + " queries found rows", found >= QUERIES / 2);
+    }
+
+    /** One edit for words up to 6 chars, two beyond (the index's edit budget). */
+    private static String typo(Random random, String word) {
+        StringBuilder typo = new StringBuilder(word);
+        int edits = word.length() <= 3 ? 0 : word.length() <= 6 ? 1 : 2;
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(typo.length());
+            if (random.nextBoolean()) {
+                typo.deleteCharAt(position);
+            } else {
+                typo.setCharAt(position, (char) ('a' + random.nextInt(26)));
+            }
+        }
+        return typo.toString();
+    }
+}
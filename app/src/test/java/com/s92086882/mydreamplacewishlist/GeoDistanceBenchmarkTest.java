@@ -0,0 +1,86 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.app.Application;
+import android.location.Location;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cost per call of each GeoDistance tier vs Location.distanceBetween, over the same place pairs.
+ * -
+ * Notes:
+ * - Stands in for a JMH suite, which this build does not have: each sample times BATCH calls
+ *   after WARMUP untimed samples, and the results are summed so the JIT cannot drop the calls.
+ * - Runs on the host JVM (Robolectric executes the platform's Location code), so the numbers
+ *   are the host's, not a phone's; the ratios are what matter.
+ * - Report-only: median / p95 nanoseconds per call go to Log (shown with -Drobolectric.logging=stdout);
+ *   nothing about timing is asserted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class) // plain Application: no Firebase in unit tests
+public class GeoDistanceBenchmarkTest {
+
+    private static final int PAIRS = 10_000;
+    private static final int BATCH = PAIRS;
+    private static final int WARMUP = 20;
+    private static final int SAMPLES = 50;
+    private static final String TAG = "GeoDistanceBenchmark";
+
+    @Test
+    public void kernelsVsLocationDistanceBetween() {
+        // One user fix, places within a few hundred kilometers of it (what the lists rank)
+        Random random = new Random(1);
+        GeoDistance.Origin origin = new GeoDistance.Origin(6.9271, 79.8612);
+        double[] lats = new double[PAIRS], lngs = new double[PAIRS], cosLats = new double[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            lats[i] = origin.getLatitude() + (random.nextDouble() - 0.5) * 4;
+            lngs[i] = origin.getLongitude() + (random.nextDouble() - 0.5) * 4;
+            cosLats[i] = Math.cos(Math.toRadians(lats[i]));
+        }
+        float[] results = new float[1];
+
+        report("equirectangular", time(i -> GeoDistance.equirectangularMeters(origin, lats[i], lngs[i])));
+        report("haversine key", time(i -> GeoDistance.haversineKey(origin, lats[i], lngs[i], cosLats[i])));
+        report("haversine", time(i -> GeoDistance.haversineMeters(origin, lats[i], lngs[i])));
+        report("vincenty", time(i -> GeoDistance.vincentyMeters(origin.getLatitude(), origin.getLongitude(),
+                lats[i], lngs[i])));
+        report("Location.distanceBetween", time(i -> {
+            Location.distanceBetween(origin.getLatitude(), origin.getLongitude(), lats[i], lngs[i], results);
+            return results[0];
+        }));
+    }
+
+    // ----- Helpers -----
+
+    private interface Kernel {
+        double distance(int i);
+    }
+
+    /** Nanoseconds per call of SAMPLES timed batches (after WARMUP untimed ones), sorted ascending. */
+    private static double[] time(Kernel kernel) {
+        double sum = 0;
+        double[] nanos = new double[SAMPLES];
+        for (int sample = -WARMUP; sample < SAMPLES; sample++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BATCH; i++) sum += kernel.distance(i);
+            if (sample >= 0) nanos[sample] = (System.nanoTime() - start) / (double) BATCH;
+        }
+        assertTrue(Double.isFinite(sum)); // keeps the results alive
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String kernel, double[] nanos) {
+        Log.i(TAG, String.format("%s: median %.1f ns, p95 %.1f ns per call",
+                kernel, nanos[nanos.length / 2], nanos[nanos.length * 95 / 100]));
+    }
+}
@@ -0,0 +1,95 @@
+package com.s92086882.mydreamplacewishlist;
+
+import android.app.Application;
+import android.location.Location;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * GeoDistance's tiers against the platform's Location.distanceBetween (WGS-84, float result).
+ * -
+ * Notes:
+ * - Pairs closer to antipodal than 1 000 km are skipped: the platform's iteration may not
+ *   converge there, and GeoDistance deliberately falls back to the sphere.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class) // plain Application: no Firebase in unit tests
+public class GeoDistanceLocationTest {
+
+    private static final double NEAR_ANTIPODAL_METERS = Math.PI * GeoDistance.EARTH_RADIUS_METERS - 1_000_000;
+
+    @Test
+    public void vincentyMatchesLocationDistanceBetween() {
+        Random random = new Random(1);
+        float[] results = new float[1];
+        int compared = 0;
+        for (int i = 0; i < 5_000; i++) {
+            double lat1 = -85 + 170 * random.nextDouble(), lng1 = -180 + 360 * random.nextDouble();
+            double lat2 = -85 + 170 * random.nextDouble(), lng2 = -180 + 360 * random.nextDouble();
+            if (GeoDistance.haversineMeters(new GeoDistance.Origin(lat1, lng1), lat2, lng2) > NEAR_ANTIPODAL_METERS) {
+                continue;
+            }
+            Location.distanceBetween(lat1, lng1, lat2, lng2, results);
+            // Float result: about 7 significant digits
+            assertEquals(results[0], GeoDistance.vincentyMeters(lat1, lng1, lat2, lng2), 1e-6 * results[0] + 0.01);
+            compared++;
+        }
+        assertTrue(compared > 4_000);
+    }
+
+    @Test
+    public void vincentyMatchesLocationDistanceBetweenAtListRanges() {
+        // What the lists show: a few meters to a few hundred kilometers
+        Random random = new Random(2);
+        float[] results = new float[1];
+        for (int i = 0; i < 5_000; i++) {
+            double lat1 = -80 + 160 * random.nextDouble(), lng1 = -180 + 360 * random.nextDouble();
+            double spread = Math.pow(10, -4 + 6 * random.nextDouble()); // 1e-4° .. 100°, clamped below
+            double lat2 = Math.max(-89, Math.min(89, lat1 + (random.nextDouble() - 0.5) * Math.min(spread, 4)));
+            double lng2 = lng1 + (random.nextDouble() - 0.5) * Math.min(spread, 4);
+            Location.distanceBetween(lat1, lng1, lat2, lng2, results);
+            assertEquals(results[0], GeoDistance.vincentyMeters(lat1, lng1, lat2, lng2), 1e-6 * results[0] + 0.01);
+        }
+    }
+
+    @Test
+    public void haversineIsWithinSixTenthsOfAPercentOfLocation() {
+        Random random = new Random(3);
+        float[] results = new float[1];
+        double worst = 0;
+        for (int i = 0; i < 5_000; i++) {
+            GeoDistance.Origin origin = TestPlaces.origin(random);
+            double lat = -60 + 120 * random.nextDouble(), lng = -180 + 360 * random.nextDouble();
+            double sphere = GeoDistance.haversineMeters(origin, lat, lng);
+            if (sphere > NEAR_ANTIPODAL_METERS) continue;
+            Location.distanceBetween(origin.getLatitude(), origin.getLongitude(), lat, lng, results);
+            if (results[0] < 1) continue;
+            worst = Math.max(worst, Math.abs(sphere - results[0]) / results[0]);
+        }
+        assertTrue("worst haversine error " + worst, worst < 0.006);
+    }
+
+    @Test
+    public void equirectangularIsCloseToLocationAtShortRange() {
+        Random random = new Random(4);
+        float[] results = new float[1];
+        for (int i = 0; i < 5_000; i++) {
+            GeoDistance.Origin origin = TestPlaces.origin(random);
+            // Up to ~5 km each way, the "has the user moved?" range; sphere vs ellipsoid adds up to 0.6%
+            double lat = origin.getLatitude() + (random.nextDouble() - 0.5) * 0.09;
+            double lng = origin.getLongitude() + (random.nextDouble() - 0.5) * 0.09;
+            Location.distanceBetween(origin.getLatitude(), origin.getLongitude(), lat, lng, results);
+            if (results[0] < 1) continue;
+            double error = Math.abs(GeoDistance.equirectangularMeters(origin, lat, lng) - results[0]) / results[0];
+            assertTrue("equirectangular error " + error, error < 0.007);
+        }
+    }
+}
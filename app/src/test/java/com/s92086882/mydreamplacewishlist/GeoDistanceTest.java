@@ -0,0 +1,102 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeoDistanceTest {
+
+    // ----- Vincenty vs published WGS-84 / GRS80 geodesics -----
+
+    @Test
+    public void vincentyMatchesReferenceGeodesics() {
+        // Flinders Peak → Buninyong (Geoscience Australia worked example): 54 972.271 m
+        assertEquals(54972.271, GeoDistance.vincentyMeters(
+                dms(-37, 57, 3.72030), dms(144, 25, 29.52440),
+                dms(-37, 39, 10.15610), dms(143, 55, 35.38390)), 0.001);
+        // Quarter meridian, equator → pole: 10 001 965.729 m
+        assertEquals(10001965.729, GeoDistance.vincentyMeters(0, 0, 90, 0), 0.001);
+        // Along the equator the geodesic is an arc of radius a: 1° = 111 319.491 m
+        assertEquals(6378137.0 * Math.toRadians(1), GeoDistance.vincentyMeters(0, 10, 0, 11), 0.001);
+        assertEquals(0, GeoDistance.vincentyMeters(6.9271, 79.8612, 6.9271, 79.8612), 0);
+    }
+
+    @Test
+    public void vincentyFallsBackNearAntipodes() {
+        double meters = GeoDistance.vincentyMeters(0, 0, 0.5, 179.7);
+        assertTrue(Double.isFinite(meters));
+        assertEquals(GeoDistance.haversineMeters(new GeoDistance.Origin(0, 0), 0.5, 179.7), meters, 0.01 * meters);
+    }
+
+    // ----- Haversine vs ellipsoid -----
+
+    @Test
+    public void haversineIsWithinSixTenthsOfAPercentOfTheEllipsoid() {
+        Random random = new Random(1);
+        double worst = 0;
+        for (int i = 0; i < 20_000; i++) {
+            double lat1 = -80 + 160 * random.nextDouble(), lng1 = -180 + 360 * random.nextDouble();
+            double lat2 = -80 + 160 * random.nextDouble(), lng2 = -180 + 360 * random.nextDouble();
+            double exact = GeoDistance.vincentyMeters(lat1, lng1, lat2, lng2);
+            if (exact < 1) continue;
+            double sphere = GeoDistance.haversineMeters(new GeoDistance.Origin(lat1, lng1), lat2, lng2);
+            worst = Math.max(worst, Math.abs(sphere - exact) / exact);
+        }
+        assertTrue("worst haversine error " + worst, worst < 0.006);
+    }
+
+    @Test
+    public void haversineMatchesSphericalReference() {
+        // 1° along any meridian of the mean-radius sphere
+        assertEquals(GeoDistance.EARTH_RADIUS_METERS * Math.toRadians(1),
+                GeoDistance.haversineMeters(new GeoDistance.Origin(45, 10), 46, 10), 1e-6);
+        // Half the circumference between antipodes
+        assertEquals(Math.PI * GeoDistance.EARTH_RADIUS_METERS,
+                GeoDistance.haversineMeters(new GeoDistance.Origin(0, 0), 0, 180), 1e-6);
+    }
+
+    @Test
+    public void haversineKeyOrdersLikeMeters() {
+        Random random = new Random(2);
+        GeoDistance.Origin origin = new GeoDistance.Origin(6.9271, 79.8612);
+        for (int i = 0; i < 10_000; i++) {
+            double lat = -90 + 180 * random.nextDouble(), lng = -180 + 360 * random.nextDouble();
+            double key = GeoDistance.haversineKey(origin, lat, lng, Math.cos(Math.toRadians(lat)));
+            assertEquals(GeoDistance.haversineMeters(origin, lat, lng), GeoDistance.keyToMeters(key), 1e-6);
+        }
+    }
+
+    // ----- Equirectangular vs haversine at short range -----
+
+    @Test
+    public void equirectangularIsCloseToHaversineAtShortRange() {
+        Random random = new Random(3);
+        double worst = 0;
+        for (int i = 0; i < 20_000; i++) {
+            GeoDistance.Origin origin = new GeoDistance.Origin(-60 + 120 * random.nextDouble(),
+                    -180 + 360 * random.nextDouble());
+            // Up to ~10 km each way; the "has the user moved?" checks use far less
+            double lat = origin.getLatitude() + (random.nextDouble() - 0.5) * 0.18;
+            double lng = origin.getLongitude() + (random.nextDouble() - 0.5) * 0.18;
+            double sphere = GeoDistance.haversineMeters(origin, lat, lng);
+            if (sphere < 1) continue;
+            worst = Math.max(worst, Math.abs(GeoDistance.equirectangularMeters(origin, lat, lng) - sphere) / sphere);
+        }
+        assertTrue("worst equirectangular error " + worst, worst < 0.0005);
+    }
+
+    @Test
+    public void equirectangularCrossesTheAntimeridianTheShortWay() {
+        GeoDistance.Origin origin = new GeoDistance.Origin(0, 179.99);
+        double meters = GeoDistance.equirectangularMeters(origin, 0, -179.99);
+        assertEquals(GeoDistance.haversineMeters(origin, 0, -179.99), meters, 0.01);
+    }
+
+    private static double dms(int degrees, int minutes, double seconds) {
+        double value = Math.abs(degrees) + minutes / 60.0 + seconds / 3600.0;
+        return degrees < 0 ? -value : value;
+    }
+}
@@ -0,0 +1,92 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GeohashTest {
+
+    @Test
+    public void encodeMatchesKnownHashes() {
+        assertEquals("ezs42", Geohash.encode(42.6, -5.6, 5));
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals(Geohash.PRECISION, Geohash.encode(6.9271, 79.8612).length());
+    }
+
+    @Test
+    public void nearbyRangesCoverEveryPointInTheCircle() {
+        Random random = new Random(1);
+        for (int circle = 0; circle < 2_000; circle++) {
+            double lat = -80 + 160 * random.nextDouble();
+            double lng = circle % 10 == 0 ? 179.999 - 0.002 * random.nextDouble() // on the antimeridian
+                    : -180 + 360 * random.nextDouble();
+            double radius = 10 * Math.pow(10, random.nextDouble() * 5); // 10 m .. 1 000 km
+            List<Geohash.Range> ranges = Geohash.nearbyRanges(lat, lng, radius);
+            assertTrue("too many ranges: " + ranges.size(), ranges.size() <= 16);
+
+            for (int point = 0; point < 50; point++) {
+                // A random point strictly inside the circle (the rim is left to floating-point)
+                double[] inside = destination(lat, lng, 360 * random.nextDouble(),
+                        0.999 * radius * Math.sqrt(random.nextDouble()));
+                String hash = Geohash.encode(inside[0], inside[1]);
+                if (!covered(ranges, hash)) {
+                    fail(String.format("(%f, %f) r=%.0f m misses %s at (%f, %f)",
+                            lat, lng, radius, hash, inside[0], inside[1]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rangesAreSortedAndDisjoint() {
+        List<Geohash.Range> ranges = Geohash.nearbyRanges(51.5074, -0.1278, 25_000);
+        for (int i = 0; i < ranges.size(); i++) {
+            Geohash.Range range = ranges.get(i);
+            assertTrue(range.start.compareTo(range.end) < 0);
+            if (i > 0) assertTrue(ranges.get(i - 1).end.compareTo(range.start) < 0);
+        }
+    }
+
+    @Test
+    public void circlesReachingAPoleScanEverything() {
+        List<Geohash.Range> ranges = Geohash.nearbyRanges(89.9, 0, 50_000);
+        assertEquals(1, ranges.size());
+        assertTrue(covered(ranges, Geohash.encode(-45, 120)));
+    }
+
+    @Test
+    public void smallCirclesUseFineCells() {
+        // A 100 m circle should not scan a whole city: its cells are at least 6 chars (~1.2 km)
+        for (Geohash.Range range : Geohash.nearbyRanges(6.9271, 79.8612, 100)) {
+            assertTrue(range.start, range.start.length() >= 6);
+        }
+    }
+
+    // ----- Helpers -----
+
+    private static boolean covered(List<Geohash.Range> ranges, String hash) {
+        for (Geohash.Range range : ranges) {
+            if (hash.compareTo(range.start) >= 0 && hash.compareTo(range.end) <= 0) return true;
+        }
+        return false;
+    }
+
+    /** The point meters away from (lat, lng) along an initial bearing, on the same sphere as Geohash. */
+    private static double[] destination(double lat, double lng, double bearingDegrees, double meters) {
+        double angle = meters / GeoDistance.EARTH_RADIUS_METERS;
+        double lat1 = Math.toRadians(lat), bearing = Math.toRadians(bearingDegrees);
+        double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angle)
+                + Math.cos(lat1) * Math.sin(angle) * Math.cos(bearing));
+        double lng2 = Math.toRadians(lng) + Math.atan2(Math.sin(bearing) * Math.sin(angle) * Math.cos(lat1),
+                Math.cos(angle) - Math.sin(lat1) * Math.sin(lat2));
+        double degrees = Math.toDegrees(lng2);
+        if (degrees >= 180) degrees -= 360;
+        if (degrees < -180) degrees += 360;
+        return new double[]{Math.toDegrees(lat2), degrees};
+    }
+}
@@ -0,0 +1,133 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PlaceFilterTest {
+
+    // ----- parse() -----
+
+    @Test
+    public void plainTextHasNoConditions() {
+        PlaceFilter filter = PlaceFilter.parse("  old   fort ");
+        assertEquals("old fort", filter.getText());
+        assertFalse(filter.hasConditions());
+        assertEquals("", PlaceFilter.parse(null).getText());
+    }
+
+    @Test
+    public void conditionsAreSplitFromTheText() {
+        PlaceFilter filter = PlaceFilter.parse("beach visited:no rating>=4 within:10km city:Galle fort");
+        assertEquals("beach fort", filter.getText());
+        assertEquals(Boolean.FALSE, filter.getVisited());
+        assertEquals(4f, filter.getMinRating(), 0);
+        assertTrue(filter.isMinRatingInclusive());
+        assertFalse(filter.hasMaxRating());
+        assertEquals(10_000, filter.getWithinMeters(), 1e-9);
+        assertTrue(filter.hasConditions());
+    }
+
+    @Test
+    public void visitedAcceptsYesNoForms() {
+        for (String yes : new String[]{"yes", "Y", "true", "1"}) {
+            assertEquals(yes, Boolean.TRUE, PlaceFilter.parse("visited:" + yes).getVisited());
+        }
+        for (String no : new String[]{"no", "N", "FALSE", "0"}) {
+            assertEquals(no, Boolean.FALSE, PlaceFilter.parse("visited=" + no).getVisited());
+        }
+        assertNull(PlaceFilter.parse("visited>yes").getVisited());
+    }
+
+    @Test
+    public void ratingOperators() {
+        PlaceFilter above = PlaceFilter.parse("rating>3.5");
+        assertEquals(3.5f, above.getMinRating(), 0);
+        assertFalse(above.isMinRatingInclusive());
+
+        PlaceFilter atLeast = PlaceFilter.parse("rating:4"); // ":" means at least
+        assertEquals(4f, atLeast.getMinRating(), 0);
+        assertTrue(atLeast.isMinRatingInclusive());
+        assertFalse(atLeast.hasMaxRating());
+
+        PlaceFilter below = PlaceFilter.parse("rating<2");
+        assertFalse(below.hasMinRating());
+        assertEquals(2f, below.getMaxRating(), 0);
+        assertFalse(below.isMaxRatingInclusive());
+
+        PlaceFilter exactly = PlaceFilter.parse("rating=3");
+        assertEquals(3f, exactly.getMinRating(), 0);
+        assertEquals(3f, exactly.getMaxRating(), 0);
+    }
+
+    @Test
+    public void severalRatingConditionsIntersect() {
+        PlaceFilter filter = PlaceFilter.parse("rating>=2 rating>3 rating<=4.5 rating<5");
+        assertEquals(3f, filter.getMinRating(), 0);
+        assertFalse(filter.isMinRatingInclusive());
+        assertEquals(4.5f, filter.getMaxRating(), 0);
+        assertTrue(filter.isMaxRatingInclusive());
+
+        // Same bound, exclusive wins
+        PlaceFilter tie = PlaceFilter.parse("rating>=3 rating>3");
+        assertFalse(tie.isMinRatingInclusive());
+    }
+
+    @Test
+    public void withinUnits() {
+        assertEquals(500, PlaceFilter.parse("within:500m").getWithinMeters(), 1e-9);
+        assertEquals(2 * 1609.344, PlaceFilter.parse("within:2mi").getWithinMeters(), 1e-9);
+        assertEquals(7_500, PlaceFilter.parse("within:7.5").getWithinMeters(), 1e-9); // bare number = km
+        assertEquals(3_000, PlaceFilter.parse("within:3KM").getWithinMeters(), 1e-9);
+        assertEquals(1_000, PlaceFilter.parse("within:5km within:1km").getWithinMeters(), 1e-9); // smallest wins
+        assertEquals(0, PlaceFilter.parse("within>5km").getWithinMeters(), 0);
+    }
+
+    @Test
+    public void quotedCityKeepsItsSpaces() {
+        PlaceFilter filter = PlaceFilter.parse("city:\"Nuwara Eliya\" tea");
+        assertEquals("tea", filter.getText());
+        assertTrue(filter.matchesCity("Nuwara Eliya"));
+        assertFalse(filter.matchesCity("Nuwara"));
+    }
+
+    @Test
+    public void halfTypedConditionsAreConsumedButIgnored() {
+        for (String query : new String[]{"rating>=", "visited:ma", "within:", "city:", "rating:abc", "within:far"}) {
+            PlaceFilter filter = PlaceFilter.parse("fort " + query);
+            assertEquals(query, "fort", filter.getText());
+            assertFalse(query, filter.hasConditions());
+        }
+    }
+
+    @Test
+    public void keysAreCaseInsensitiveAndWholeWords() {
+        assertEquals(Boolean.TRUE, PlaceFilter.parse("VISITED:yes").getVisited());
+        PlaceFilter notAKey = PlaceFilter.parse("unvisited:yes");
+        assertNull(notAKey.getVisited());
+        assertEquals("unvisited:yes", notAKey.getText());
+    }
+
+    // ----- matches() -----
+
+    @Test
+    public void matchesChecksEveryCondition() {
+        DreamPlace place = new DreamPlace(null, "Fort", "São Paulo", Double.NaN, true, 4f, -23.55, -46.63, null);
+        GeoDistance.Origin nearby = new GeoDistance.Origin(-23.56, -46.65);
+        assertTrue(PlaceFilter.parse("visited:yes rating>=4 city:sao within:5km").matches(place, nearby));
+        assertFalse(PlaceFilter.parse("visited:no").matches(place, nearby));
+        assertFalse(PlaceFilter.parse("rating>4").matches(place, nearby));
+        assertFalse(PlaceFilter.parse("city:rio").matches(place, nearby));
+        assertFalse(PlaceFilter.parse("within:1km").matches(place, nearby));
+        assertTrue(PlaceFilter.parse("within:1km").matches(place, null)); // no location: radius ignored
+    }
+
+    @Test
+    public void placesWithoutCoordinatesAreOutsideEveryRadius() {
+        DreamPlace unplaced = new DreamPlace(null, "Somewhere", "Colombo", Double.NaN, false, 0f, 0, 0, null);
+        assertFalse(PlaceFilter.parse("within:20000km").matches(unplaced, new GeoDistance.Origin(1, 1)));
+    }
+}
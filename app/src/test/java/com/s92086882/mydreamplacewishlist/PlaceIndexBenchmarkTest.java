@@ -0,0 +1,95 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PlaceIndex at 10k, 100k and 1M places vs the object-list code it replaced.
+ * -
+ * Notes:
+ * - Sort: columnar keys + int[] merge sort vs Collections.sort of DreamPlace objects with a
+ *   comparator that computes both distances per comparison (what Search did before).
+ * - Filter: one pass over the columns vs PlaceFilter.matches() per object.
+ * - Each operation runs RUNS times after a warm-up (once at 1M, where the object sort alone
+ *   takes seconds); the median is printed in milliseconds.
+ * - Report-only: both sides must return the same rows, but no timing is asserted.
+ */
+public class PlaceIndexBenchmarkTest {
+
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final int RUNS = 5;
+
+    @Test
+    public void sortAndFilterAtScale() {
+        GeoDistance.Origin origin = new GeoDistance.Origin(6.9271, 79.8612);
+        PlaceFilter filter = PlaceFilter.parse("visited:no rating>=3 city:ka");
+        for (int n : SIZES) {
+            List<DreamPlace> places = TestPlaces.unnamed(n, n);
+            int runs = n >= 1_000_000 ? 1 : RUNS;
+
+            long start = System.nanoTime();
+            PlaceIndex index = PlaceIndex.build(places);
+            double buildMs = (System.nanoTime() - start) / 1e6;
+
+            int[][] sorted = new int[1][];
+            double columnSort = median(runs, () -> sorted[0] = index.sortByDistance(origin));
+            List<DreamPlace> objectSorted = new ArrayList<>();
+            double objectSort = median(runs, () -> {
+                objectSorted.clear();
+                objectSorted.addAll(places);
+                objectSorted.sort((a, b) -> Double.compare(
+                        GeoDistance.haversineMeters(origin, a.getLatitude(), a.getLongitude()),
+                        GeoDistance.haversineMeters(origin, b.getLatitude(), b.getLongitude())));
+            });
+            List<DreamPlace> columnSorted = new ArrayList<>();
+            index.collect(sorted[0], columnSorted);
+            assertEquals(n, columnSorted.size());
+            for (int i = 1; i < n; i++) {
+                assertTrue(meters(origin, columnSorted.get(i - 1)) <= meters(origin, columnSorted.get(i)));
+            }
+            for (int i = 0; i < n; i++) {
+                assertEquals(meters(origin, objectSorted.get(i)), meters(origin, columnSorted.get(i)), 1e-6);
+            }
+
+            int[][] filtered = new int[1][];
+            double columnFilter = median(runs, () -> filtered[0] = index.filter(filter, origin));
+            int[][] objectFiltered = new int[1][];
+            double objectFilter = median(runs, () -> {
+                int[] rows = new int[n];
+                int count = 0;
+                for (int i = 0; i < n; i++) {
+                    if (filter.matches(places.get(i), origin)) rows[count++] = i;
+                }
+                objectFiltered[0] = Arrays.copyOf(rows, count);
+            });
+            assertArrayEquals(objectFiltered[0], filtered[0]);
+
+            System.out.printf("n=%,d: build %.1f ms | sort %.1f ms (objects %.1f ms) | filter %.2f ms (objects %.2f ms)%n",
+                    n, buildMs, columnSort, objectSort, columnFilter, objectFilter);
+        }
+    }
+
+    private static double meters(GeoDistance.Origin origin, DreamPlace place) {
+        return GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude());
+    }
+
+    /** Median wall time of the timed runs (after one warm-up run), in milliseconds. */
+    private static double median(int runs, Runnable operation) {
+        operation.run();
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[runs / 2] / 1e6;
+    }
+}
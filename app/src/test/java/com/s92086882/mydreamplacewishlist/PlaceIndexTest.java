@@ -0,0 +1,98 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlaceIndexTest {
+
+    private static final String[] FILTERS = {
+            "visited:yes", "visited:no", "rating>=3.5", "rating>4", "rating<2 visited:no", "rating=2.5",
+            "rating:3 rating<=4", "city:sa", "city:\"sao paulo\"", "city:zurich", "within:2000km",
+            "within:500km visited:yes rating>=1", "city:ka within:5000km"};
+
+    @Test
+    public void sortByDistanceMatchesBruteForce() {
+        List<DreamPlace> places = TestPlaces.random(3_000, 1);
+        PlaceIndex index = PlaceIndex.build(places);
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            GeoDistance.Origin origin = TestPlaces.origin(random);
+            int[] rows = index.sortByDistance(origin);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < places.size(); i++) expected.add(i);
+            // Stable: equal keys keep row order, like the index's merge sort
+            Collections.sort(expected, (a, b) -> Double.compare(key(origin, places.get(a)), key(origin, places.get(b))));
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), rows);
+        }
+    }
+
+    @Test
+    public void filterMatchesPlaceFilterOnEveryRow() {
+        List<DreamPlace> places = TestPlaces.random(3_000, 3);
+        PlaceIndex index = PlaceIndex.build(places);
+        GeoDistance.Origin origin = new GeoDistance.Origin(10, 20);
+        for (String query : FILTERS) {
+            PlaceFilter filter = PlaceFilter.parse(query);
+            assertArrayEquals(query, bruteForce(places, filter, origin), index.filter(filter, origin));
+            assertArrayEquals(query + " (no location)", bruteForce(places, filter, null), index.filter(filter, null));
+        }
+    }
+
+    @Test
+    public void filterWithoutConditionsKeepsEveryRow() {
+        List<DreamPlace> places = TestPlaces.random(100, 4);
+        int[] rows = PlaceIndex.build(places).filter(PlaceFilter.parse("just text"), null);
+        assertEquals(places.size(), rows.length);
+    }
+
+    @Test
+    public void collectMapsRowsBackToPlaces() {
+        List<DreamPlace> places = TestPlaces.random(10, 5);
+        PlaceIndex index = PlaceIndex.build(places);
+        List<DreamPlace> collected = new ArrayList<>();
+        index.collect(new int[]{3, 0, 7}, collected);
+        assertEquals(places.get(3), collected.get(0));
+        assertEquals(places.get(0), collected.get(1));
+        assertEquals(places.get(7), collected.get(2));
+    }
+
+    @Test
+    public void coversOnlyTheListItWasBuiltFrom() {
+        List<DreamPlace> places = TestPlaces.random(10, 6);
+        PlaceIndex index = PlaceIndex.build(places);
+        assertTrue(index.covers(places));
+        assertFalse(index.covers(new ArrayList<>(places)));
+    }
+
+    @Test
+    public void emptyIndex() {
+        PlaceIndex index = PlaceIndex.build(Collections.emptyList());
+        assertEquals(0, index.sortByDistance(new GeoDistance.Origin(0, 0)).length);
+        assertEquals(0, index.filter(PlaceFilter.parse("visited:yes"), null).length);
+    }
+
+    // ----- Helpers -----
+
+    private static double key(GeoDistance.Origin origin, DreamPlace place) {
+        return GeoDistance.haversineKey(origin, place.getLatitude(), place.getLongitude(),
+                Math.cos(Math.toRadians(place.getLatitude())));
+    }
+
+    private static int[] bruteForce(List<DreamPlace> places, PlaceFilter filter, GeoDistance.Origin origin) {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < places.size(); i++) {
+            if (filter.matches(places.get(i), origin)) rows.add(i);
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
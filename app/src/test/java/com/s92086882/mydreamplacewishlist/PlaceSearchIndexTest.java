@@ -0,0 +1,158 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PlaceSearchIndexTest {
+
+    // ----- Substring search -----
+
+    @Test
+    public void searchMatchesBruteForce() {
+        List<DreamPlace> places = TestPlaces.random(1_000, 10);
+        for (int i = 0; i < places.size(); i += 3) places.get(i).setNotes("Near the " + places.get(i).getCity());
+        Random random = new Random(11);
+        List<String> queries = new ArrayList<>(Arrays.asList("", "k", "ka", "SAO", "são p", "zurich", "o paulo",
+                "near the", "xyz", "  kalo  "));
+        for (int i = 0; i < 100; i++) {
+            // Substrings of real names, sometimes crossing the space between words
+            String name = places.get(random.nextInt(places.size())).getName();
+            int start = random.nextInt(name.length());
+            queries.add(name.substring(start, Math.min(name.length(), start + 1 + random.nextInt(8))));
+        }
+        for (String query : queries) {
+            PlaceSearchIndex index = PlaceSearchIndex.build(places); // uncached, to test the trigram path
+            assertEquals(query, bruteForce(places, query), index.search(query, null));
+        }
+    }
+
+    @Test
+    public void foldIgnoresCaseAccentsAndExtraSpaces() {
+        assertEquals("sao paulo", PlaceSearchIndex.fold("  São   PAULO "));
+        assertEquals("zurich", PlaceSearchIndex.fold("Zürich"));
+        assertEquals("istanbul", PlaceSearchIndex.fold("İstanbul"));
+        assertEquals("", PlaceSearchIndex.fold(null));
+    }
+
+    @Test
+    public void nameMatchesRankBeforeCityMatches() {
+        DreamPlace inCity = new DreamPlace(null, "Old Fort", "Galle", Double.NaN, false, 0f, 6.03, 80.21, null);
+        DreamPlace inName = new DreamPlace(null, "Galle Face", "Colombo", Double.NaN, false, 0f, 6.92, 79.84, null);
+        DreamPlace laterInName = new DreamPlace(null, "To Galle", "Colombo", Double.NaN, false, 0f, 6.92, 79.84, null);
+        List<DreamPlace> results = PlaceSearchIndex.build(Arrays.asList(inCity, laterInName, inName))
+                .search("galle", null);
+        assertEquals(Arrays.asList(inName, laterInName, inCity), results);
+    }
+
+    // ----- Result cache -----
+
+    @Test
+    public void repeatedQueryIsACacheHit() {
+        PlaceSearchIndex index = PlaceSearchIndex.build(TestPlaces.random(500, 1));
+        List<DreamPlace> first = index.search("kal", null);
+        List<DreamPlace> second = index.search("KAL", null); // same folded key
+        assertEquals(first, second);
+        SearchResultCache.Stats stats = index.cacheStats();
+        assertEquals(1, stats.hits);
+        assertEquals(0, stats.narrowed);
+        assertEquals(1, stats.misses);
+    }
+
+    @Test
+    public void narrowedSearchMatchesAFreshSearch() {
+        List<DreamPlace> places = TestPlaces.random(1_000, 2);
+        Random random = new Random(3);
+        for (int round = 0; round < 30; round++) {
+            // Type a word (and sometimes a second one) one character at a time
+            String query = TestPlaces.word(random) + (round % 3 == 0 ? " " + TestPlaces.word(random) : "");
+            PlaceSearchIndex typed = PlaceSearchIndex.build(places);
+            for (int length = 1; length <= query.length(); length++) {
+                String prefix = query.substring(0, length);
+                assertEquals(prefix, PlaceSearchIndex.build(places).search(prefix, null), typed.search(prefix, null));
+            }
+            assertEquals(1, typed.cacheStats().misses); // only the first keystroke searched everything
+        }
+    }
+
+    @Test
+    public void backspaceIsServedFromTheCache() {
+        PlaceSearchIndex index = PlaceSearchIndex.build(TestPlaces.random(500, 4));
+        index.search("s", null);
+        index.search("sa", null);
+        index.search("san", null);
+        index.search("sa", null);
+        index.search("s", null);
+        SearchResultCache.Stats stats = index.cacheStats();
+        assertEquals(2, stats.hits);
+        assertEquals(2, stats.narrowed);
+        assertEquals(1, stats.misses);
+    }
+
+    @Test
+    public void cacheEvictsLeastRecentlyUsedBeyondMaxRows() {
+        SearchResultCache cache = new SearchResultCache();
+        int[] half = new int[SearchResultCache.MAX_ROWS / 2 - 1]; // two fit exactly (each entry counts one extra)
+        cache.put("a", half);
+        cache.put("b", half);
+        assertSame(half, cache.get("a")); // "a" is now the most recently used
+        cache.put("c", half);             // over the bound: "b" goes
+        assertNull(cache.get("b"));
+        assertSame(half, cache.get("a"));
+        assertSame(half, cache.get("c"));
+    }
+
+    @Test
+    public void oversizedResultIsNotKept() {
+        SearchResultCache cache = new SearchResultCache();
+        cache.put("small", new int[]{1, 2, 3});
+        cache.put("huge", new int[SearchResultCache.MAX_ROWS]);
+        assertNull(cache.get("huge"));
+        assertNull(cache.get("small"));
+    }
+
+    @Test
+    public void totalsSumEveryCache() {
+        SearchResultCache.Stats before = SearchResultCache.totals();
+        for (int i = 0; i < 2; i++) {
+            PlaceSearchIndex index = PlaceSearchIndex.build(TestPlaces.random(100, 5 + i));
+            index.search("ka", null);
+            index.search("ka", null);
+        }
+        SearchResultCache.Stats after = SearchResultCache.totals();
+        assertArrayEquals(new int[]{2, 0, 2}, new int[]{after.hits - before.hits,
+                after.narrowed - before.narrowed, after.misses - before.misses});
+    }
+
+    // ----- Helpers -----
+
+    /** Places whose folded name, city or notes contain the folded query; by field, then position, then row. */
+    private static List<DreamPlace> bruteForce(List<DreamPlace> places, String query) {
+        String folded = PlaceSearchIndex.fold(query);
+        List<long[]> matches = new ArrayList<>(); // {field, position, row}
+        for (int row = 0; row < places.size(); row++) {
+            DreamPlace place = places.get(row);
+            String[] fields = {place.getName(), place.getCity(), place.getNotes()};
+            for (int field = 0; field < fields.length; field++) {
+                int position = PlaceSearchIndex.fold(fields[field]).indexOf(folded);
+                if (position >= 0) {
+                    matches.add(new long[]{field, position, row});
+                    break;
+                }
+            }
+        }
+        matches.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+                : a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[2], b[2]));
+        List<DreamPlace> result = new ArrayList<>();
+        for (long[] match : matches) result.add(places.get((int) match[2]));
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PlaceSpatialIndex vs a linear scan over the same list, per query.
+ * -
+ * Notes:
+ * - 100k places; each query type runs QUERIES times from random origins after a warm-up.
+ * - First page (k nearest): best-first walk vs a scan with a bounded heap of k.
+ * - Radius (50 km) and map bounds (1°×1°, roughly a city viewport): pruned subtrees vs a scan.
+ * - Report-only: prints median and p95 in microseconds. Only correctness is asserted (same
+ *   page sizes and row counts as the scan), never timing.
+ */
+public class PlaceSpatialIndexBenchmarkTest {
+
+    private static final int PLACES = 100_000;
+    private static final int QUERIES = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final double RADIUS_METERS = 50_000;
+
+    @Test
+    public void indexVsLinearScan() {
+        List<DreamPlace> places = TestPlaces.unnamed(PLACES, 42);
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        Random random = new Random(43);
+        GeoDistance.Origin[] origins = new GeoDistance.Origin[QUERIES];
+        for (int i = 0; i < QUERIES; i++) origins[i] = TestPlaces.origin(random);
+
+        // ----- First page -----
+        long[] indexPage = time(i -> assertEquals(PAGE_SIZE, index.nearest(origins[i], PAGE_SIZE).size()));
+        long[] scanPage = time(i -> assertEquals(PAGE_SIZE, scanNearest(places, origins[i], PAGE_SIZE).size()));
+        report("nearest " + PAGE_SIZE, indexPage, scanPage);
+        for (GeoDistance.Origin origin : origins) {
+            List<DreamPlace> fromIndex = index.nearest(origin, PAGE_SIZE);
+            List<DreamPlace> fromScan = scanNearest(places, origin, PAGE_SIZE);
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                assertEquals(meters(origin, fromScan.get(i)), meters(origin, fromIndex.get(i)), 1e-6);
+            }
+        }
+
+        // ----- Radius -----
+        int[] found = new int[2];
+        long[] indexRadius = time(i -> found[0] += index.withinRadius(origins[i], RADIUS_METERS).size());
+        long[] scanRadius = time(i -> found[1] += scanRadius(places, origins[i], RADIUS_METERS).size());
+        assertEquals(found[1], found[0]);
+        report("within 50 km", indexRadius, scanRadius);
+
+        // ----- Map bounds -----
+        long[] indexBounds = time(i -> found[0] += index.withinBounds(
+                origins[i].getLatitude(), origins[i].getLongitude(),
+                origins[i].getLatitude() + 1, origins[i].getLongitude() + 1).size());
+        long[] scanBounds = time(i -> found[1] += scanBounds(places, origins[i].getLatitude(), origins[i].getLongitude(),
+                origins[i].getLatitude() + 1, origins[i].getLongitude() + 1).size());
+        assertEquals(found[1], found[0]);
+        report("bounds 1°", indexBounds, scanBounds);
+    }
+
+    private static double meters(GeoDistance.Origin origin, DreamPlace place) {
+        return GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude());
+    }
+
+    // ----- Linear scans -----
+
+    private static List<DreamPlace> scanNearest(List<DreamPlace> places, GeoDistance.Origin origin, int k) {
+        // Max-heap of the best k by key
+        PriorityQueue<double[]> heap = new PriorityQueue<>(k, (a, b) -> Double.compare(b[0], a[0]));
+        for (int i = 0; i < places.size(); i++) {
+            DreamPlace place = places.get(i);
+            double key = GeoDistance.haversineKey(origin, place.getLatitude(), place.getLongitude(),
+                    Math.cos(Math.toRadians(place.getLatitude())));
+            if (heap.size() < k) {
+                heap.add(new double[]{key, i});
+            } else if (key < heap.peek()[0]) {
+                heap.poll();
+                heap.add(new double[]{key, i});
+            }
+        }
+        double[][] best = heap.toArray(new double[0][]);
+        Arrays.sort(best, (a, b) -> Double.compare(a[0], b[0]));
+        List<DreamPlace> result = new ArrayList<>(best.length);
+        for (double[] entry : best) result.add(places.get((int) entry[1]));
+        return result;
+    }
+
+    private static List<DreamPlace> scanRadius(List<DreamPlace> places, GeoDistance.Origin origin, double meters) {
+        List<DreamPlace> result = new ArrayList<>();
+        for (DreamPlace place : places) {
+            if (GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude()) <= meters) result.add(place);
+        }
+        return result;
+    }
+
+    private static List<DreamPlace> scanBounds(List<DreamPlace> places, double south, double west,
+                                               double north, double east) {
+        List<DreamPlace> result = new ArrayList<>();
+        for (DreamPlace place : places) {
+            double lat = place.getLatitude(), lng = place.getLongitude();
+            if (lat >= south && lat <= north && lng >= west && lng <= east) result.add(place);
+        }
+        return result;
+    }
+
+    // ----- Timing -----
+
+    private interface Query {
+        void run(int i);
+    }
+
+    /** Nanoseconds per query over QUERIES queries (after one untimed pass), sorted ascending. */
+    private static long[] time(Query query) {
+        for (int i = 0; i < QUERIES; i++) query.run(i);
+        long[] nanos = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            query.run(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+
+    private static void report(String query, long[] index, long[] scan) {
+        System.out.printf("%s: index median %.1f µs, p95 %.1f µs | scan median %.1f µs, p95 %.1f µs%n",
+                query, median(index) / 1e3, index[index.length * 95 / 100] / 1e3,
+                median(scan) / 1e3, scan[scan.length * 95 / 100] / 1e3);
+    }
+}
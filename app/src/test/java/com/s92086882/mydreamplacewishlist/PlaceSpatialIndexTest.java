@@ -0,0 +1,195 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlaceSpatialIndexTest {
+
+    @Test
+    public void nearestFirstMatchesBruteForce() {
+        List<DreamPlace> places = withEdgeCases(TestPlaces.unnamed(2_000, 1));
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            GeoDistance.Origin origin = round == 0 ? new GeoDistance.Origin(0, 179.9) : TestPlaces.origin(random);
+            List<DreamPlace> walked = index.nearestFirst(origin).next(places.size() + 1);
+            // Ties may come out in any order, so compare the keys and the set of rows
+            assertArrayEquals(sortedKeys(origin, places), keys(origin, walked), 0);
+            assertEquals(ids(places), ids(walked));
+        }
+    }
+
+    @Test
+    public void nearestKIsThePrefixOfTheFullOrder() {
+        List<DreamPlace> places = TestPlaces.unnamed(2_000, 3);
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        GeoDistance.Origin origin = new GeoDistance.Origin(6.9271, 79.8612);
+        double[] expected = sortedKeys(origin, places);
+        for (int k : new int[]{0, 1, 7, 50, 2_000}) {
+            assertArrayEquals(Arrays.copyOf(expected, k), keys(origin, index.nearest(origin, k)), 0);
+        }
+    }
+
+    @Test
+    public void lastDistanceIsTheReturnedPlacesDistance() {
+        List<DreamPlace> places = TestPlaces.unnamed(500, 4);
+        GeoDistance.Origin origin = new GeoDistance.Origin(-33.87, 151.21);
+        PlaceSpatialIndex.NearestIterator iterator = PlaceSpatialIndex.build(places).nearestFirst(origin);
+        while (iterator.hasNext()) {
+            DreamPlace place = iterator.next();
+            assertEquals(GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude()),
+                    iterator.lastDistanceMeters(), 1e-6);
+        }
+    }
+
+    @Test
+    public void withoutOriginWalksInIndexOrder() {
+        List<DreamPlace> places = TestPlaces.unnamed(100, 5);
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        PlaceSpatialIndex.NearestIterator iterator = index.nearestFirst(null);
+        assertEquals(index.all(), iterator.next(1_000));
+        assertTrue(Double.isNaN(iterator.lastDistanceMeters()));
+    }
+
+    @Test
+    public void withinRadiusMatchesBruteForce() {
+        List<DreamPlace> places = withEdgeCases(TestPlaces.unnamed(3_000, 6));
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            GeoDistance.Origin origin = round == 0 ? new GeoDistance.Origin(0, -179.9) : TestPlaces.origin(random);
+            double radius = 1_000 * Math.pow(10, random.nextDouble() * 4); // 1 km .. 10 000 km
+            Set<String> expected = new HashSet<>();
+            for (DreamPlace place : places) {
+                if (GeoDistance.haversineMeters(origin, place.getLatitude(), place.getLongitude()) <= radius) {
+                    expected.add(place.getId());
+                }
+            }
+            assertEquals("radius " + radius, expected, ids(index.withinRadius(origin, radius)));
+        }
+    }
+
+    @Test
+    public void withinBoundsMatchesBruteForce() {
+        List<DreamPlace> places = withEdgeCases(TestPlaces.unnamed(3_000, 8));
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(places);
+        Random random = new Random(9);
+        for (int round = 0; round < 50; round++) {
+            double south = -70 + 130 * random.nextDouble();
+            double north = Math.min(90, south + 40 * random.nextDouble());
+            double west = -180 + 360 * random.nextDouble();
+            double east = round % 5 == 0 ? west - 360 + 60 * random.nextDouble() // across the antimeridian
+                    : Math.min(180, west + 90 * random.nextDouble());
+            if (east < -180) east = west; // degenerate draw: a zero-width box is still valid
+            assertEquals(inBounds(places, south, west, north, east), ids(index.withinBounds(south, west, north, east)));
+        }
+    }
+
+    @Test
+    public void overlayAnswersLikeAFreshBuild() {
+        List<DreamPlace> live = new ArrayList<>(TestPlaces.unnamed(1_000, 10));
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(live);
+        Random random = new Random(11);
+        GeoDistance.Origin origin = new GeoDistance.Origin(48.86, 2.35);
+        for (int write = 0; write < 300; write++) {
+            List<DreamPlace> changed = new ArrayList<>();
+            Set<String> deletedIds = new HashSet<>();
+            int kind = random.nextInt(3);
+            if (kind == 0) { // insert
+                DreamPlace place = new DreamPlace(null, null, "New", Double.NaN, false, 0f,
+                        -60 + 120 * random.nextDouble(), -180 + 360 * random.nextDouble(), null);
+                place.setId("new" + write);
+                changed.add(place);
+                live.add(place);
+            } else if (kind == 1) { // move
+                int row = random.nextInt(live.size());
+                DreamPlace moved = new DreamPlace(live.get(row));
+                moved.setLatitude(-60 + 120 * random.nextDouble());
+                moved.setLongitude(-180 + 360 * random.nextDouble());
+                changed.add(moved);
+                live.set(row, moved);
+            } else { // delete
+                deletedIds.add(live.remove(random.nextInt(live.size())).getId());
+            }
+            index = index.withChanges(changed, deletedIds);
+
+            assertEquals(live.size(), index.size());
+            assertEquals(ids(live), ids(index.all()));
+            assertArrayEquals(sortedKeys(origin, live), keys(origin, index.nearestFirst(origin).next(live.size())), 0);
+            assertEquals(ids(PlaceSpatialIndex.build(live).withinRadius(origin, 2_000_000)),
+                    ids(index.withinRadius(origin, 2_000_000)));
+            assertEquals(inBounds(live, 30, -20, 60, 40), ids(index.withinBounds(30, -20, 60, 40)));
+        }
+    }
+
+    @Test
+    public void emptyIndex() {
+        PlaceSpatialIndex index = PlaceSpatialIndex.build(Collections.emptyList());
+        GeoDistance.Origin origin = new GeoDistance.Origin(0, 0);
+        assertEquals(0, index.size());
+        assertFalse(index.nearestFirst(origin).hasNext());
+        assertTrue(index.withinRadius(origin, 1e7).isEmpty());
+        assertTrue(index.withinBounds(-90, -180, 90, 180).isEmpty());
+    }
+
+    // ----- Helpers -----
+
+    /** Adds rows on the poles, the antimeridian and duplicate coordinates. */
+    private static List<DreamPlace> withEdgeCases(List<DreamPlace> places) {
+        double[][] coordinates = {{90, 0}, {-90, 45}, {0, 180}, {0, -180}, {12.5, 179.95}, {12.5, -179.95},
+                {6.9271, 79.8612}, {6.9271, 79.8612}, {6.9271, 79.8612}};
+        List<DreamPlace> result = new ArrayList<>(places);
+        for (int i = 0; i < coordinates.length; i++) {
+            DreamPlace place = new DreamPlace(null, null, "Edge", Double.NaN, false, 0f,
+                    coordinates[i][0], coordinates[i][1], null);
+            place.setId("edge" + i);
+            result.add(place);
+        }
+        return result;
+    }
+
+    private static double key(GeoDistance.Origin origin, DreamPlace place) {
+        return GeoDistance.haversineKey(origin, place.getLatitude(), place.getLongitude(),
+                Math.cos(Math.toRadians(place.getLatitude())));
+    }
+
+    private static double[] keys(GeoDistance.Origin origin, List<DreamPlace> places) {
+        double[] keys = new double[places.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = key(origin, places.get(i));
+        return keys;
+    }
+
+    private static double[] sortedKeys(GeoDistance.Origin origin, List<DreamPlace> places) {
+        double[] keys = keys(origin, places);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static Set<String> ids(List<DreamPlace> places) {
+        Set<String> ids = new HashSet<>();
+        for (DreamPlace place : places) assertTrue("duplicate " + place.getId(), ids.add(place.getId()));
+        return ids;
+    }
+
+    private static Set<String> inBounds(List<DreamPlace> places, double south, double west, double north, double east) {
+        Set<String> ids = new HashSet<>();
+        for (DreamPlace place : places) {
+            double lat = place.getLatitude(), lng = place.getLongitude();
+            boolean inLng = west <= east ? lng >= west && lng <= east : lng >= west || lng <= east;
+            if (inLng && lat >= south && lat <= north) ids.add(place.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,57 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SearchPipelineTest {
+
+    @Test
+    public void distanceOnlyChangeRebindsTheDistance() {
+        DreamPlace shown = place("Sigiriya", 1_000);
+        SearchPipeline.PlaceDiff diff = diff(shown, shown.withDistanceMeters(2_500));
+        assertTrue(diff.areItemsTheSame(0, 0));
+        assertFalse(diff.areContentsTheSame(0, 0));
+        assertSame(DreamPlaceAdapter.PAYLOAD_DISTANCE, diff.getChangePayload(0, 0));
+    }
+
+    @Test
+    public void unchangedRowIsTheSame() {
+        DreamPlace shown = place("Sigiriya", 1_000);
+        assertTrue(diff(shown, shown.withDistanceMeters(1_000)).areContentsTheSame(0, 0));
+        assertTrue(diff(place("Ella", Double.NaN), place("Ella", Double.NaN)).areContentsTheSame(0, 0));
+    }
+
+    @Test
+    public void otherChangesRebindTheWholeRow() {
+        DreamPlace shown = place("Sigiriya", 1_000);
+        DreamPlace renamed = shown.withDistanceMeters(2_500);
+        renamed.setName("Sigiriya Rock");
+        SearchPipeline.PlaceDiff diff = diff(shown, renamed);
+        assertFalse(diff.areContentsTheSame(0, 0));
+        assertNull(diff.getChangePayload(0, 0));
+    }
+
+    @Test
+    public void differentIdsAreDifferentRows() {
+        DreamPlace other = place("Sigiriya", 1_000);
+        other.setId("other");
+        assertFalse(diff(place("Sigiriya", 1_000), other).areItemsTheSame(0, 0));
+    }
+
+    private static DreamPlace place(String name, double distanceMeters) {
+        DreamPlace place = new DreamPlace(Collections.singletonList("photo.jpg"), name, "Dambulla",
+                distanceMeters, false, 4f, 7.957, 80.760, null);
+        place.setId("p1");
+        return place;
+    }
+
+    private static SearchPipeline.PlaceDiff diff(DreamPlace before, DreamPlace after) {
+        return new SearchPipeline.PlaceDiff(Collections.singletonList(before), Collections.singletonList(after));
+    }
+}
@@ -0,0 +1,49 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SharedPlaceIndexTest {
+
+    private final SharedPlaceIndex shared = SharedPlaceIndex.getInstance();
+
+    @Test
+    public void loadIsPublishedWhenNoWriteWasApplied() {
+        String dataSet = SharedPlaceIndex.userDataSet("unchanged");
+        PlaceSpatialIndex loaded = PlaceSpatialIndex.build(TestPlaces.unnamed(10, 1));
+        assertTrue(shared.publishIfUnchanged(dataSet, loaded, shared.version()));
+        assertSame(loaded, shared.get(dataSet));
+    }
+
+    @Test
+    public void loadRacingAWriteIsDropped() {
+        shared.publish(SharedPlaceIndex.userDataSet("other"), PlaceSpatialIndex.build(Collections.emptyList()));
+        long version = shared.version();
+        PlaceSpatialIndex loaded = PlaceSpatialIndex.build(TestPlaces.unnamed(10, 2));
+
+        // A guest write committed while the load ran; no guest index was held to apply it to
+        shared.applyChanges(SharedPlaceIndex.GUEST, TestPlaces.unnamed(1, 3), Collections.emptySet());
+        assertFalse(shared.publishIfUnchanged(SharedPlaceIndex.GUEST, loaded, version));
+        assertNull(shared.get(SharedPlaceIndex.GUEST));
+
+        // Loaded again after the write: published
+        assertTrue(shared.publishIfUnchanged(SharedPlaceIndex.GUEST, loaded, shared.version()));
+        assertSame(loaded, shared.get(SharedPlaceIndex.GUEST));
+    }
+
+    @Test
+    public void stringListKeepsOnlyStrings() {
+        assertEquals(Arrays.asList("a", "b"), SharedPlaceIndex.stringList(Arrays.asList("a", 1, null, "b")));
+        assertEquals(Collections.emptyList(), SharedPlaceIndex.stringList(Collections.emptyList()));
+        assertNull(SharedPlaceIndex.stringList("a"));
+        assertNull(SharedPlaceIndex.stringList(null));
+    }
+}
@@ -0,0 +1,67 @@
+package com.s92086882.mydreamplacewishlist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded random places for the index tests and benchmarks.
+ * -
+ * Notes:
+ * - Same seed, same places, so a failure can be replayed.
+ * - Names and cities are made of a few syllables, so searches and typos hit real overlaps;
+ *   some cities carry accents to exercise folding.
+ */
+final class TestPlaces {
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "san", "ti", "go", "ra", "mi", "na", "sig", "ri", "ya", "pa", "ul", "be", "do", "mon"};
+    private static final String[] ACCENTED_CITIES = {"São Paulo", "Zürich", "Kraków", "Malmö", "Cancún"};
+    private static final int CITIES = 300;
+
+    private TestPlaces() {}
+
+    /** n places spread over the inhabited latitudes, with names, cities, ratings and visited flags. */
+    static List<DreamPlace> random(int n, long seed) {
+        return generate(n, seed, true);
+    }
+
+    /** Like random(), but without names (cheaper at a million rows; location, city, rating, visited only). */
+    static List<DreamPlace> unnamed(int n, long seed) {
+        return generate(n, seed, false);
+    }
+
+    /** A random origin over the same area as the places. */
+    static GeoDistance.Origin origin(Random random) {
+        return new GeoDistance.Origin(-60 + 120 * random.nextDouble(), -180 + 360 * random.nextDouble());
+    }
+
+    static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        return word.toString();
+    }
+
+    private static List<DreamPlace> generate(int n, long seed, boolean named) {
+        Random random = new Random(seed);
+        String[] cities = new String[CITIES];
+        for (int i = 0; i < CITIES; i++) {
+            cities[i] = i < ACCENTED_CITIES.length ? ACCENTED_CITIES[i] : capitalize(word(random));
+        }
+        List<DreamPlace> places = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String name = named ? capitalize(word(random)) + " " + capitalize(word(random)) : null;
+            DreamPlace place = new DreamPlace(null, name, cities[random.nextInt(CITIES)], Double.NaN,
+                    random.nextBoolean(), random.nextInt(11) / 2f,
+                    -60 + 120 * random.nextDouble(), -180 + 360 * random.nextDouble(), null);
+            place.setId("p" + i);
+            places.add(place);
+        }
+        return places;
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
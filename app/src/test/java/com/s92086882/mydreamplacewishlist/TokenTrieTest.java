@@ -0,0 +1,131 @@
+package com.s92086882.mydreamplacewishlist;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TokenTrieTest {
+
+    // Small alphabet, so random tokens share prefixes and sit within a few edits of each other
+    private static final String ALPHABET = "aeiklnrst";
+
+    @Test
+    public void withinMatchesBruteForceLevenshtein() {
+        Random random = new Random(1);
+        List<String> tokens = randomTokens(random, 2_000);
+        TokenTrie trie = new TokenTrie(tokens);
+        for (int round = 0; round < 300; round++) {
+            String query = round % 2 == 0 ? mutate(random, tokens.get(random.nextInt(tokens.size())))
+                    : randomToken(random, 1 + random.nextInt(10));
+            for (int maxEdits = 0; maxEdits <= 3; maxEdits++) {
+                assertEquals(query + " ≤ " + maxEdits, bruteForce(tokens, query, maxEdits), within(trie, query, maxEdits));
+            }
+        }
+    }
+
+    @Test
+    public void exactTokenIsFoundWithZeroEdits() {
+        List<String> tokens = Arrays.asList("sigiriya", "sigiri", "kandy", "galle");
+        Map<Integer, Integer> matches = within(new TokenTrie(tokens), "sigiriya", 0);
+        assertEquals(Collections.singletonMap(0, 0), matches);
+    }
+
+    @Test
+    public void misspeltQueryFindsTheToken() {
+        List<String> tokens = Arrays.asList("sigiriya", "kandy", "galle");
+        Map<Integer, Integer> matches = within(new TokenTrie(tokens), "sigirya", 1);
+        assertEquals(Collections.singletonMap(0, 1), matches);
+    }
+
+    @Test
+    public void emptyQueryMatchesShortTokens() {
+        List<String> tokens = Arrays.asList("a", "ab", "abc");
+        Map<Integer, Integer> matches = within(new TokenTrie(tokens), "", 2);
+        assertEquals(2, matches.size());
+        assertEquals(Integer.valueOf(1), matches.get(0));
+        assertEquals(Integer.valueOf(2), matches.get(1));
+        assertNull(matches.get(2));
+    }
+
+    @Test
+    public void emptyTrieMatchesNothing() {
+        assertTrue(within(new TokenTrie(Collections.emptyList()), "kandy", 2).isEmpty());
+    }
+
+    // ----- Helpers -----
+
+    /** Token ID → edits reported by the trie; fails on a token reported twice. */
+    private static Map<Integer, Integer> within(TokenTrie trie, String query, int maxEdits) {
+        Map<Integer, Integer> matches = new HashMap<>();
+        trie.within(query, maxEdits, (id, edits) -> assertNull("reported twice", matches.put(id, edits)));
+        return matches;
+    }
+
+    private static Map<Integer, Integer> bruteForce(List<String> tokens, String query, int maxEdits) {
+        Map<Integer, Integer> matches = new HashMap<>();
+        for (int id = 0; id < tokens.size(); id++) {
+            int distance = levenshtein(tokens.get(id), query);
+            if (distance <= maxEdits) matches.put(id, distance);
+        }
+        return matches;
+    }
+
+    /** Textbook full-matrix Levenshtein distance. */
+    private static int levenshtein(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                d[i][j] = Math.min(substitution, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static List<String> randomTokens(Random random, int count) {
+        Set<String> tokens = new LinkedHashSet<>(); // the trie takes distinct tokens
+        while (tokens.size() < count) tokens.add(randomToken(random, 1 + random.nextInt(10)));
+        return new ArrayList<>(tokens);
+    }
+
+    private static String randomToken(Random random, int length) {
+        StringBuilder token = new StringBuilder(length);
+        for (int i = 0; i < length; i++) token.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return token.toString();
+    }
+
+    /** Up to three random insertions, deletions or substitutions. */
+    private static String mutate(Random random, String token) {
+        StringBuilder mutated = new StringBuilder(token);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(mutated.length() + 1);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            int kind = random.nextInt(3);
+            if (kind == 0 || mutated.length() == 0) {
+                mutated.insert(position, c);
+            } else if (position == mutated.length()) {
+                mutated.deleteCharAt(position - 1);
+            } else if (kind == 1) {
+                mutated.deleteCharAt(position);
+            } else {
+                mutated.setCharAt(position, c);
+            }
+        }
+        return mutated.toString();
+    }
+}